@@ -0,0 +1,35 @@
+package com.maze.benchmark;
+
+import com.maze.util.MazeGenerator;
+import com.maze.util.MazeTopology;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Creates the maze text files used by the benchmarks with MazeGenerator. The mazes are square and generated with a
+ * fixed seed, so every run of the benchmarks measures the same mazes.
+ */
+public class BenchmarkMazes {
+    private static final long SEED = 42;
+
+    private BenchmarkMazes() {
+        // Empty private constructor for static method class
+    }
+
+    /**
+     * Writes a maze of the given topology and size into a new temporary file.
+     *
+     * @param topology shape of the maze
+     * @param size height and width of the maze
+     * @return path of the written file, to be deleted by the caller
+     * @throws IOException if the file could not be written
+     */
+    public static Path createMazeFile(MazeTopology topology, int size) throws IOException {
+        Path file = Files.createTempFile("maze-" + topology + "-" + size + "-", ".txt");
+        new MazeGenerator(topology, size, size, 1, SEED).writeTextFile(file);
+
+        return file;
+    }
+}
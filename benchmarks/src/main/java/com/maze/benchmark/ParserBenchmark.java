@@ -0,0 +1,64 @@
+package com.maze.benchmark;
+
+import com.maze.domain.Maze;
+import com.maze.util.BinaryMazeFormat;
+import com.maze.util.MazeParser;
+import com.maze.util.MazeTopology;
+import com.maze.util.ParserMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long parsing a maze file takes with each parser mode from the text format, and from the binary format
+ * which is read the same way regardless of the parser mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"1001", "4001"})
+    private int size;
+
+    private Path textFile;
+    private Path binaryFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        textFile = BenchmarkMazes.createMazeFile(MazeTopology.PERFECT, size);
+        binaryFile = Path.of(textFile + BinaryMazeFormat.FILE_ENDING);
+        BinaryMazeFormat.write(MazeParser.parseMaze(textFile.toString(), ParserMode.MAPPED), binaryFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(binaryFile);
+    }
+
+    @Benchmark
+    public Maze parseText(ModeState state) throws IOException {
+        return MazeParser.parseMaze(textFile.toString(), state.mode);
+    }
+
+    @Benchmark
+    public Maze parseBinary() throws IOException {
+        return MazeParser.parseMaze(binaryFile.toString(), ParserMode.MAPPED);
+    }
+
+    /**
+     * Parser mode of the text benchmark, kept apart from the maze size so that the binary format is measured only once
+     * per size.
+     */
+    @State(Scope.Benchmark)
+    public static class ModeState {
+        @Param({"READER", "MAPPED", "PARALLEL"})
+        private ParserMode mode;
+    }
+}
@@ -0,0 +1,63 @@
+package com.maze.benchmark;
+
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+import com.maze.util.MazeParser;
+import com.maze.util.MazeSolver;
+import com.maze.util.MazeTopology;
+import com.maze.util.ParserMode;
+import com.maze.util.SolverEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long solving a maze takes with each solver engine across maze sizes and topologies.
+ *
+ * The same Maze is solved on every invocation, as MazeSolver resets its progress before solving. Therefore the
+ * EXIT_DISTANCE_FIELD engine is measured with its field already cached in the maze. The original BFS engine is left
+ * out by default, since it slows down exponentially on open mazes; it can be added with "-p engine=BFS" for small sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+    private static final List<Integer> LIMITS = List.of(MazeSolver.UNBOUNDED_LIMIT);
+
+    @Param({"101", "501", "1001"})
+    private int size;
+
+    @Param({"PERFECT", "ROOMS", "OPEN", "SPIRAL", "CORRIDOR"})
+    private MazeTopology topology;
+
+    @Param({"INDEXED_BFS", "A_STAR", "BIDIRECTIONAL_BFS", "PARALLEL_BFS", "EXIT_DISTANCE_FIELD",
+            "JUMP_POINT_SEARCH", "JUNCTION_GRAPH", "HIERARCHICAL", "INCREMENTAL"})
+    private SolverEngine engine;
+
+    private Maze maze;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path file = BenchmarkMazes.createMazeFile(topology, size);
+
+        try {
+            maze = MazeParser.parseMaze(file.toString(), ParserMode.MAPPED);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public SolutionStatus solve() {
+        MazeSolver.attemptToSolveMaze(maze, engine, LIMITS);
+
+        return maze.getSolutionStatus();
+    }
+}
@@ -0,0 +1,101 @@
+package com.maze.benchmark;
+
+import com.maze.domain.Maze;
+import com.maze.util.MazeParser;
+import com.maze.util.MazeSolution;
+import com.maze.util.MazeSolver;
+import com.maze.util.MazeTopology;
+import com.maze.util.ParserMode;
+import com.maze.util.SolutionWriter;
+import com.maze.util.SolverEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long rendering the ASCII graphic of a solved maze takes for the console and for the solution file,
+ * either as a String or streamed into both at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriterBenchmark {
+    @Param({"101", "1001"})
+    private int size;
+
+    private Maze maze;
+    private MazeSolution solution;
+    private Path solutionFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path file = BenchmarkMazes.createMazeFile(MazeTopology.PERFECT, size);
+
+        try {
+            maze = MazeParser.parseMaze(file.toString(), ParserMode.MAPPED);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        MazeSolver.attemptToSolveMaze(maze, SolverEngine.INDEXED_BFS, List.of(MazeSolver.UNBOUNDED_LIMIT));
+        solution = MazeSolution.of(maze);
+        solutionFile = Files.createTempFile("solution-benchmark", ".txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(solutionFile);
+    }
+
+    @Benchmark
+    public String createSolutionAscii(PrintState print) {
+        return SolutionWriter.createSolutionAscii(maze, print.forPrint);
+    }
+
+    @Benchmark
+    public String writeSolution() throws IOException {
+        return SolutionWriter.writeSolution(solution, new DiscardingChannel(), solutionFile.toString());
+    }
+
+    /**
+     * Whether the ASCII graphic is created for the console or for the solution file. Kept apart from the maze size so
+     * that writeSolution, which always renders both, is measured only once per size.
+     */
+    @State(Scope.Benchmark)
+    public static class PrintState {
+        @Param({"true", "false"})
+        private boolean forPrint;
+    }
+
+    /**
+     * Console channel which drops everything written into it, so that the terminal is not measured.
+     */
+    private static class DiscardingChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer source) {
+            int count = source.remaining();
+            source.position(source.limit());
+
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close
+        }
+    }
+}
@@ -0,0 +1,720 @@
+package com.maze.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Hierarchical abstraction of a maze for HPA* (hierarchical path-finding A*) searches.
+ *
+ * The maze is divided into clusters of CLUSTER_SIZE x CLUSTER_SIZE cells. Wherever walkable cells on both sides of the
+ * border between two adjacent clusters touch, the border has an entrance: a pair of touching cells in the middle of a
+ * short run of touching cells, or a pair at both ends of a long run. The cells of the entrances and the EXITs are the
+ * nodes of an abstract graph, in which
+ * 1. the two cells of an entrance are connected with an edge of length 1, and
+ * 2. every node of a cluster is connected to the other nodes of the same cluster with edges as long as the shortest
+ *    path between them within the cluster.
+ *
+ * A search on the abstract graph crosses a whole cluster with a single edge, so it takes time proportional to the
+ * amount of clusters along the path rather than the amount of cells. The found path is then refined into cells by
+ * searching only the clusters along it. Since the paths between the clusters are restricted to the entrances, a path
+ * found this way may be a few steps longer than the shortest one. Every path of the maze passes through some entrance
+ * of every border it crosses, so an exit can be reached on the abstract graph exactly when it can be reached in the
+ * maze.
+ *
+ * The index describes the Tiles of the maze at the time when it was computed. Use Maze.getClusterIndex() in order to
+ * compute the index once and share it between all of the searches on the same maze, and loadOrCompute in order to keep
+ * it in a file next to the maze file between runs. The file consists of:
+ * 1. Header: the magic bytes 0x89 'M' 'Z' 'C', a version byte, and the height, the width and the cluster size of the
+ *    maze, a hash of its Tiles, the amount of nodes and the amount of edges as big-endian numbers
+ * 2. The cell index of every node, the first edge of every node followed by the amount of edges, and the node at the
+ *    other end and the length of every edge, all as big-endian ints
+ */
+public class ClusterIndex {
+    /**
+     * Height and width of a cluster. The clusters on the bottom and right edges of the maze may be smaller.
+     */
+    public static final int CLUSTER_SIZE = 16;
+
+    public static final int NO_NODE = -1;
+
+    /**
+     * File ending used for the index files written next to the maze files.
+     */
+    public static final String FILE_ENDING = ".clusters";
+
+    // Runs of touching cells at least this long have an entrance at both ends instead of a single one in the middle
+    private static final int SPLIT_RUN_LENGTH = 6;
+    private static final int UNREACHED = -1;
+    private static final int BLOCKED = -2;
+    // The searches within a cluster work on a copy of it surrounded by unwalkable cells, so they need no bounds checks
+    private static final int PADDED_SIZE = CLUSTER_SIZE + 2;
+    private static final int PADDED_CELLS = PADDED_SIZE * PADDED_SIZE;
+    private static final int[] PADDED_STEPS = Arrays.stream(Direction.values())
+            .mapToInt(direction -> direction.getYAppend() * PADDED_SIZE + direction.getXAppend())
+            .toArray();
+
+    private static final byte[] MAGIC = {(byte) 0x89, 'M', 'Z', 'C'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 1 + 3 * Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final Maze maze;
+    private final int height;
+    private final int width;
+    private final int clusterColumns;
+    private final long tilesHash;
+    // Cell index of every node, grouped by cluster and in ascending order within a cluster
+    private final int[] nodeCells;
+    // First node of every cluster, followed by the amount of nodes
+    private final int[] clusterNodeStarts;
+    // First edge of every node, followed by the amount of edges
+    private final int[] edgeStarts;
+    private final int[] edgeTargets;
+    private final int[] edgeLengths;
+
+    /**
+     * Growable list of entrances, each of which is a pair of touching cells on different sides of a cluster border.
+     */
+    private static class EntranceList {
+        private int[] cells = new int[64];
+        private int count;
+
+        private void add(int cell, int otherCell) {
+            if (2 * count + 2 > cells.length) {
+                cells = Arrays.copyOf(cells, 2 * cells.length);
+            }
+
+            cells[2 * count] = cell;
+            cells[2 * count + 1] = otherCell;
+            count++;
+        }
+    }
+
+    /**
+     * Computes the index for the current Tiles of the given maze.
+     *
+     * @param maze not null
+     */
+    ClusterIndex(Maze maze) {
+        if (maze == null) {
+            throw new NullPointerException("Maze cannot be null");
+        }
+
+        this.maze = maze;
+        height = maze.getHeight();
+        width = maze.getWidth();
+        clusterColumns = (width + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        tilesHash = hashTiles(maze);
+
+        EntranceList entrances = findEntrances();
+        nodeCells = findNodeCells(entrances);
+        clusterNodeStarts = countClusterNodes(nodeCells);
+        edgeStarts = new int[nodeCells.length + 1];
+
+        int[][] edges = findEdges(entrances);
+        edgeTargets = edges[0];
+        edgeLengths = edges[1];
+    }
+
+    /**
+     * Creates an index read from a file. The arrays have been validated by the caller.
+     */
+    private ClusterIndex(Maze maze, long tilesHash, int[] nodeCells, int[] edgeStarts, int[] edgeTargets,
+                         int[] edgeLengths) {
+        this.maze = maze;
+        height = maze.getHeight();
+        width = maze.getWidth();
+        clusterColumns = (width + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.tilesHash = tilesHash;
+        this.nodeCells = nodeCells;
+        clusterNodeStarts = countClusterNodes(nodeCells);
+        this.edgeStarts = edgeStarts;
+        this.edgeTargets = edgeTargets;
+        this.edgeLengths = edgeLengths;
+    }
+
+    /**
+     * Hashes the Tiles of the given maze 32 tiles at a time by multiplying and rotating, like SolutionCache hashes the
+     * contents of maze files, so that an index file can be matched with the maze it was written for.
+     */
+    private static long hashTiles(Maze maze) {
+        long hash = maze.getCellCount();
+        long tiles = 0;
+
+        for (int i = 0; i < maze.getCellCount(); i++) {
+            tiles = (tiles << 2) | maze.getTile(i).ordinal();
+
+            if (i % Integer.SIZE == Integer.SIZE - 1 || i == maze.getCellCount() - 1) {
+                hash = Long.rotateLeft((hash ^ tiles) * HASH_MULTIPLIER, 27);
+                tiles = 0;
+            }
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+    /**
+     * Finds the entrances of every vertical border between horizontally adjacent clusters and every horizontal border
+     * between vertically adjacent clusters.
+     */
+    private EntranceList findEntrances() {
+        var entrances = new EntranceList();
+
+        for (int x = CLUSTER_SIZE; x < width; x += CLUSTER_SIZE) {
+            for (int top = 0; top < height; top += CLUSTER_SIZE) {
+                addEntrances(entrances, top * width + x - 1, width, 1, Math.min(CLUSTER_SIZE, height - top));
+            }
+        }
+
+        for (int y = CLUSTER_SIZE; y < height; y += CLUSTER_SIZE) {
+            for (int left = 0; left < width; left += CLUSTER_SIZE) {
+                addEntrances(entrances, (y - 1) * width + left, 1, width, Math.min(CLUSTER_SIZE, width - left));
+            }
+        }
+
+        return entrances;
+    }
+
+    /**
+     * Adds the entrances of a single border between two clusters to the given list.
+     *
+     * @param firstCell first cell along the border on the side of the first cluster
+     * @param step difference between the indexes of the consecutive cells along the border
+     * @param across difference between the indexes of the touching cells on the different sides of the border
+     * @param length amount of cells along the border
+     */
+    private void addEntrances(EntranceList entrances, int firstCell, int step, int across, int length) {
+        int runStart = -1;
+
+        for (int i = 0; i <= length; i++) {
+            int cell = firstCell + i * step;
+            boolean touching = i < length && maze.isWalkable(cell) && maze.isWalkable(cell + across);
+
+            if (touching && runStart < 0) {
+                runStart = i;
+            } else if (!touching && runStart >= 0) {
+                int runEnd = i - 1;
+
+                if (runEnd - runStart + 1 >= SPLIT_RUN_LENGTH) {
+                    entrances.add(firstCell + runStart * step, firstCell + runStart * step + across);
+                    entrances.add(firstCell + runEnd * step, firstCell + runEnd * step + across);
+                } else {
+                    int middle = firstCell + (runStart + runEnd) / 2 * step;
+                    entrances.add(middle, middle + across);
+                }
+
+                runStart = -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the cells of the entrances and the EXITs, grouped by cluster and in ascending order within a cluster,
+     * without duplicates.
+     */
+    private int[] findNodeCells(EntranceList entrances) {
+        int[] exitIndexes = maze.findExitIndexes();
+        long[] keys = new long[2 * entrances.count + exitIndexes.length];
+
+        for (int i = 0; i < 2 * entrances.count; i++) {
+            keys[i] = getNodeKey(entrances.cells[i], width);
+        }
+
+        for (int i = 0; i < exitIndexes.length; i++) {
+            keys[2 * entrances.count + i] = getNodeKey(exitIndexes[i], width);
+        }
+
+        Arrays.sort(keys);
+        int nodeCount = 0;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[nodeCount++] = keys[i];
+            }
+        }
+
+        int[] cells = new int[nodeCount];
+
+        for (int i = 0; i < nodeCount; i++) {
+            cells[i] = (int) keys[i];
+        }
+
+        return cells;
+    }
+
+    /**
+     * Returns the key by which the nodes are ordered: the cluster of the cell in the high bits and the index of the
+     * cell in the low bits.
+     */
+    private static long getNodeKey(int index, int width) {
+        return ((long) getCluster(index, width) << Integer.SIZE) | index;
+    }
+
+    private static int getCluster(int index, int width) {
+        int y = index / width;
+
+        return y / CLUSTER_SIZE * ((width + CLUSTER_SIZE - 1) / CLUSTER_SIZE) + (index - y * width) / CLUSTER_SIZE;
+    }
+
+    private int[] countClusterNodes(int[] cells) {
+        int clusterCount = getClusterCount();
+        int[] starts = new int[clusterCount + 1];
+
+        for (int cell : cells) {
+            starts[getCluster(cell) + 1]++;
+        }
+
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            starts[cluster + 1] += starts[cluster];
+        }
+
+        return starts;
+    }
+
+    /**
+     * Connects the cells of every entrance, and every node other than an EXIT to the nodes of its cluster which can be
+     * reached from it within the cluster. The edges of every node are stored consecutively in the order of the nodes,
+     * and edgeStarts is filled in along the way.
+     *
+     * @return the targets and the lengths of the edges
+     */
+    private int[][] findEdges(EntranceList entrances) {
+        // Both directions of every entrance as (node << 32 | other node), sorted so that they are in the order of nodes
+        long[] links = new long[2 * entrances.count];
+
+        for (int i = 0; i < entrances.count; i++) {
+            long node = getNode(entrances.cells[2 * i]);
+            long otherNode = getNode(entrances.cells[2 * i + 1]);
+            links[2 * i] = (node << Integer.SIZE) | otherNode;
+            links[2 * i + 1] = (otherNode << Integer.SIZE) | node;
+        }
+
+        Arrays.sort(links);
+
+        int[] targets = new int[Math.max(16, links.length)];
+        int[] lengths = new int[targets.length];
+        int edgeCount = 0;
+        int linkIndex = 0;
+        int[] clusterCells = new int[PADDED_CELLS];
+        int[] cellDistances = new int[PADDED_CELLS];
+        int[] queue = new int[PADDED_CELLS];
+
+        for (int node = 0; node < nodeCells.length; node++) {
+            edgeStarts[node] = edgeCount;
+            int cluster = getCluster(nodeCells[node]);
+            int clusterNodeCount = clusterNodeStarts[cluster + 1] - clusterNodeStarts[cluster];
+
+            if (node == clusterNodeStarts[cluster]) {
+                copyCluster(nodeCells[node], clusterCells);
+            }
+
+            if (edgeCount + links.length - linkIndex + clusterNodeCount > targets.length) {
+                targets = Arrays.copyOf(targets, 2 * targets.length + clusterNodeCount);
+                lengths = Arrays.copyOf(lengths, targets.length);
+            }
+
+            for (; linkIndex < links.length && (int) (links[linkIndex] >>> Integer.SIZE) == node; linkIndex++) {
+                targets[edgeCount] = (int) links[linkIndex];
+                lengths[edgeCount++] = 1;
+            }
+
+            // The search ends at the first EXIT it reaches, so the edges leaving the EXITs would never be followed
+            if (maze.isExit(nodeCells[node])) {
+                continue;
+            }
+
+            findDistancesWithinCluster(nodeCells[node], clusterCells, cellDistances, queue);
+
+            for (int other = clusterNodeStarts[cluster]; other < clusterNodeStarts[cluster + 1]; other++) {
+                int distance = cellDistances[getPaddedCell(nodeCells[other])];
+
+                if (other != node && distance != UNREACHED) {
+                    targets[edgeCount] = other;
+                    lengths[edgeCount++] = distance;
+                }
+            }
+        }
+
+        edgeStarts[nodeCells.length] = edgeCount;
+
+        return new int[][] {Arrays.copyOf(targets, edgeCount), Arrays.copyOf(lengths, edgeCount)};
+    }
+
+    /**
+     * Copies the cells of the cluster of the cell found at the given index into the given array at getPaddedCell(),
+     * UNREACHED for the walkable cells and BLOCKED for the others. The cells around the cluster are left BLOCKED.
+     */
+    private void copyCluster(int index, int[] clusterCells) {
+        int top = index / width / CLUSTER_SIZE * CLUSTER_SIZE;
+        int left = index % width / CLUSTER_SIZE * CLUSTER_SIZE;
+        int clusterHeight = Math.min(CLUSTER_SIZE, height - top);
+        int clusterWidth = Math.min(CLUSTER_SIZE, width - left);
+        Arrays.fill(clusterCells, BLOCKED);
+
+        for (int y = 0; y < clusterHeight; y++) {
+            for (int x = 0; x < clusterWidth; x++) {
+                boolean walkable = maze.isWalkable((top + y) * width + left + x);
+                clusterCells[(y + 1) * PADDED_SIZE + x + 1] = walkable ? UNREACHED : BLOCKED;
+            }
+        }
+    }
+
+    /**
+     * Computes the length of the shortest path within its cluster from the cell found at the given index to every cell
+     * of the cluster with a breadth-first search.
+     *
+     * @param index of a walkable cell
+     * @param clusterCells the cluster of the cell, see copyCluster
+     * @param cellDistances into which the distances are stored at getPaddedCell(), UNREACHED for the walkable cells
+     *                      which cannot be reached within the cluster
+     * @param queue for the search, at least PADDED_CELLS long
+     */
+    private void findDistancesWithinCluster(int index, int[] clusterCells, int[] cellDistances, int[] queue) {
+        // Blocked cells are never UNREACHED, so a single check tells which neighbours to queue
+        System.arraycopy(clusterCells, 0, cellDistances, 0, PADDED_CELLS);
+        queue[0] = getPaddedCell(index);
+        cellDistances[queue[0]] = 0;
+        int queueEnd = 1;
+
+        for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+            int cell = queue[queueStart];
+            int nextDistance = cellDistances[cell] + 1;
+
+            for (int step : PADDED_STEPS) {
+                int next = cell + step;
+
+                if (cellDistances[next] == UNREACHED) {
+                    cellDistances[next] = nextDistance;
+                    queue[queueEnd++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the cell found at the given index within the padded copy of its cluster.
+     */
+    private int getPaddedCell(int index) {
+        int y = index / width;
+        int x = index - y * width;
+
+        return (y % CLUSTER_SIZE + 1) * PADDED_SIZE + x % CLUSTER_SIZE + 1;
+    }
+
+    public int getClusterCount() {
+        return (height + CLUSTER_SIZE - 1) / CLUSTER_SIZE * clusterColumns;
+    }
+
+    /**
+     * Returns the cluster of the cell found at the given index. The clusters are numbered in row-major order.
+     *
+     * @param index not out-of-bounds
+     * @return the cluster, between 0 and getClusterCount() - 1
+     */
+    public int getCluster(int index) {
+        return getCluster(index, width);
+    }
+
+    public int getNodeCount() {
+        return nodeCells.length;
+    }
+
+    /**
+     * Returns the node of the cell found at the given index.
+     *
+     * @param index not out-of-bounds
+     * @return the node, NO_NODE if the cell is neither a cell of an entrance nor an EXIT
+     */
+    public int getNode(int index) {
+        int cluster = getCluster(index);
+        int node = Arrays.binarySearch(nodeCells, clusterNodeStarts[cluster], clusterNodeStarts[cluster + 1], index);
+
+        return node >= 0 ? node : NO_NODE;
+    }
+
+    /**
+     * Returns the index of the cell of the given node.
+     *
+     * @param node between 0 and getNodeCount() - 1
+     * @return index of the cell
+     */
+    public int getCellIndex(int node) {
+        return nodeCells[node];
+    }
+
+    /**
+     * Returns the first node of the given cluster. The nodes of a cluster are numbered consecutively.
+     *
+     * @param cluster between 0 and getClusterCount() - 1
+     * @return the first node, equal to getFirstNode(cluster + 1) if the cluster has no nodes
+     */
+    public int getFirstNode(int cluster) {
+        return clusterNodeStarts[cluster];
+    }
+
+    /**
+     * Returns the first edge of the given node. The edges of a node are numbered consecutively, so the edges of the
+     * node are getFirstEdge(node) to getFirstEdge(node + 1) - 1.
+     *
+     * @param node between 0 and getNodeCount(), getNodeCount() for the amount of edges
+     * @return the first edge
+     */
+    public int getFirstEdge(int node) {
+        return edgeStarts[node];
+    }
+
+    /**
+     * Returns the node at the other end of the given edge.
+     *
+     * @param edge between 0 and getFirstEdge(getNodeCount()) - 1
+     * @return the node to which the edge leads
+     */
+    public int getEdgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Returns the length of the given edge.
+     *
+     * @param edge between 0 and getFirstEdge(getNodeCount()) - 1
+     * @return the amount of steps from the node of the edge to its target within their cluster, 1 between clusters
+     */
+    public int getEdgeLength(int edge) {
+        return edgeLengths[edge];
+    }
+
+    /**
+     * Returns the lengths of the shortest paths from the cell found at the given index to the nodes of its cluster
+     * which stay within the cluster, e.g. in order to connect the start of a search to the abstract graph.
+     *
+     * @param index of a walkable cell
+     * @return the distance to every node of the cluster in the order of the nodes, starting from
+     *         getFirstNode(getCluster(index)). -1 for the nodes which cannot be reached within the cluster.
+     */
+    public int[] getDistancesToClusterNodes(int index) {
+        int cluster = getCluster(index);
+        int[] clusterCells = new int[PADDED_CELLS];
+        int[] cellDistances = new int[PADDED_CELLS];
+        copyCluster(index, clusterCells);
+        findDistancesWithinCluster(index, clusterCells, cellDistances, new int[PADDED_CELLS]);
+
+        int[] nodeDistances = new int[clusterNodeStarts[cluster + 1] - clusterNodeStarts[cluster]];
+
+        for (int i = 0; i < nodeDistances.length; i++) {
+            nodeDistances[i] = cellDistances[getPaddedCell(nodeCells[clusterNodeStarts[cluster] + i])];
+        }
+
+        return nodeDistances;
+    }
+
+    /**
+     * Returns the path of the index file of the given maze file, which is next to the maze file and named like it but
+     * with the FILE_ENDING, e.g. "mazes/maze.clusters" for "mazes/maze.txt".
+     *
+     * @param mazeFile not null
+     * @return path of the index file
+     */
+    public static Path getIndexFile(Path mazeFile) {
+        String filename = mazeFile.getFileName().toString();
+        int extensionIndex = filename.lastIndexOf('.');
+
+        return mazeFile.resolveSibling((extensionIndex > 0 ? filename.substring(0, extensionIndex) : filename)
+                + FILE_ENDING);
+    }
+
+    /**
+     * Returns the ClusterIndex of the given maze, reading it from the given index file if the file has been written for
+     * a maze with the same Tiles, and otherwise computing it and writing it into the file, replacing the file if it
+     * exists. Either way the index is kept in the maze, so that Maze.getClusterIndex() returns it from then on.
+     *
+     * @param maze not null
+     * @param file path of the index file, not null
+     * @return the ClusterIndex of the maze
+     * @throws IOException if the computed index could not be written into the file, in which case it is still kept in
+     *                     the maze
+     */
+    public static ClusterIndex loadOrCompute(Maze maze, Path file) throws IOException {
+        if (maze == null || file == null) {
+            throw new NullPointerException("Maze and index file cannot be null");
+        }
+
+        ClusterIndex index;
+
+        try {
+            index = Files.isRegularFile(file) ? read(maze, file) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            index = null; // An unreadable file is replaced just like a file written for another maze
+        }
+
+        if (index != null) {
+            maze.setClusterIndex(index);
+
+            return index;
+        }
+
+        index = maze.getClusterIndex();
+        index.write(file);
+
+        return index;
+    }
+
+    /**
+     * Reads the index of the given maze from the given index file.
+     *
+     * @return the index, null if the file was written for another maze
+     * @throws IllegalArgumentException if the file is not a valid index file
+     */
+    private static ClusterIndex read(Maze maze, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            long size = channel.size();
+
+            if (size < HEADER_SIZE) {
+                throw new IllegalArgumentException("Given cluster index file is too short");
+            }
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+
+            if (!Arrays.equals(magic, MAGIC) || header.get() != VERSION) {
+                throw new IllegalArgumentException("Given file is not a cluster index file of a supported version");
+            }
+
+            if (header.getInt() != maze.getHeight() || header.getInt() != maze.getWidth()
+                    || header.getInt() != CLUSTER_SIZE) {
+                return null;
+            }
+
+            long tilesHash = header.getLong();
+
+            if (tilesHash != hashTiles(maze)) {
+                return null;
+            }
+
+            int nodeCount = header.getInt();
+            int edgeCount = header.getInt();
+
+            if (nodeCount < 0 || edgeCount < 0
+                    || size != HEADER_SIZE + ((long) 2 * nodeCount + 1 + 2L * edgeCount) * Integer.BYTES) {
+                throw new IllegalArgumentException("Given cluster index file has an invalid length");
+            }
+
+            IntBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size - HEADER_SIZE).asIntBuffer();
+            int[] nodeCells = new int[nodeCount];
+            int[] edgeStarts = new int[nodeCount + 1];
+            int[] edgeTargets = new int[edgeCount];
+            int[] edgeLengths = new int[edgeCount];
+            body.get(nodeCells).get(edgeStarts).get(edgeTargets).get(edgeLengths);
+
+            var index = new ClusterIndex(maze, tilesHash, validateNodeCells(maze, nodeCells), edgeStarts, edgeTargets,
+                    edgeLengths);
+            index.validateEdges();
+
+            return index;
+        }
+    }
+
+    /**
+     * Checks that the given node cells are walkable cells of the maze grouped by cluster and in ascending order
+     * within a cluster, as the lookups of the nodes depend on it.
+     */
+    private static int[] validateNodeCells(Maze maze, int[] nodeCells) {
+        long previousKey = -1;
+
+        for (int cell : nodeCells) {
+            if (cell < 0 || cell >= maze.getCellCount() || !maze.isWalkable(cell)
+                    || getNodeKey(cell, maze.getWidth()) <= previousKey) {
+                throw new IllegalArgumentException("Given cluster index file has invalid nodes");
+            }
+
+            previousKey = getNodeKey(cell, maze.getWidth());
+        }
+
+        return nodeCells;
+    }
+
+    private void validateEdges() {
+        for (int node = 0; node < nodeCells.length; node++) {
+            if (edgeStarts[node] < 0 || edgeStarts[node] > edgeStarts[node + 1]) {
+                throw new IllegalArgumentException("Given cluster index file has invalid edges");
+            }
+        }
+
+        if (edgeStarts[0] != 0 || edgeStarts[nodeCells.length] != edgeTargets.length) {
+            throw new IllegalArgumentException("Given cluster index file has invalid edges");
+        }
+
+        for (int edge = 0; edge < edgeTargets.length; edge++) {
+            if (edgeTargets[edge] < 0 || edgeTargets[edge] >= nodeCells.length || edgeLengths[edge] <= 0) {
+                throw new IllegalArgumentException("Given cluster index file has invalid edges");
+            }
+        }
+    }
+
+    /**
+     * Writes the index into the given file, replacing the file if it exists. The index is written into a temporary
+     * file first, so that a concurrent reader never sees a partially written file.
+     *
+     * @param file path of the index file, not null
+     * @throws IOException if the file could not be written
+     */
+    public void write(Path file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("Index file cannot be null");
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            buffer.put(MAGIC).put(VERSION)
+                    .putInt(height)
+                    .putInt(width)
+                    .putInt(CLUSTER_SIZE)
+                    .putLong(tilesHash)
+                    .putInt(nodeCells.length)
+                    .putInt(edgeTargets.length);
+
+            for (int[] values : new int[][] {nodeCells, edgeStarts, edgeTargets, edgeLengths}) {
+                for (int value : values) {
+                    if (buffer.remaining() < Integer.BYTES) {
+                        flush(channel, buffer);
+                    }
+
+                    buffer.putInt(value);
+                }
+            }
+
+            flush(channel, buffer);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
@@ -42,6 +42,22 @@ public enum Direction {
         return letterChar;
     }
 
+    /**
+     * Returns the amount which is added to the Y coordinate when moving one step towards the Direction.
+     * @return the amount which is added to the Y coordinate when moving one step towards the Direction.
+     */
+    public int getYAppend() {
+        return yAppend;
+    }
+
+    /**
+     * Returns the amount which is added to the X coordinate when moving one step towards the Direction.
+     * @return the amount which is added to the X coordinate when moving one step towards the Direction.
+     */
+    public int getXAppend() {
+        return xAppend;
+    }
+
     /**
      * Returns coordinates next to the given coordinates from the given direction, e.g. if direction is UP, then returns
      * coordinates which are above.
@@ -0,0 +1,183 @@
+package com.maze.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precomputed Directions towards the nearest EXIT for every cell of a maze.
+ *
+ * The field is computed with a single breadth-first search which starts from all of the exits at once, so that every
+ * cell is reached from its nearest exit first. After that the shortest path to an exit from any cell is found without
+ * any searching, by just following the Directions of the field, which takes time proportional to the length of the path.
+ *
+ * Only a single byte is stored per cell. The distance to the nearest exit is therefore not stored but counted while
+ * following the Directions.
+ *
+ * A field describes the Tiles of the maze at the time when it was computed. Use Maze.getExitDistanceField() in order
+ * to compute the field once and share it between all of the queries on the same maze.
+ */
+public class ExitDistanceField {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Values of directions other than Direction ordinal + 1
+    private static final byte UNREACHABLE = 0;
+    private static final byte EXIT = (byte) (DIRECTIONS.length + 1);
+
+    private final int height;
+    private final int width;
+    private final byte[] directions;
+
+    /**
+     * Computes the field for the current Tiles of the given maze.
+     *
+     * @param maze not null
+     */
+    ExitDistanceField(Maze maze) {
+        if (maze == null) {
+            throw new NullPointerException("Maze cannot be null");
+        }
+
+        height = maze.getHeight();
+        width = maze.getWidth();
+        directions = new byte[maze.getCellCount()];
+
+        // Every cell is queued at most once, so a plain array is enough for the queue
+        int[] queue = maze.findExitIndexes();
+        int queueEnd = queue.length;
+        queue = Arrays.copyOf(queue, Math.max(queue.length, maze.getCellCount()));
+
+        for (int i = 0; i < queueEnd; i++) {
+            directions[queue[i]] = EXIT;
+        }
+
+        for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+            int index = queue[queueStart];
+            int y = index / width;
+            int x = index - y * width;
+
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                Direction direction = DIRECTIONS[d];
+                int nextY = y + direction.getYAppend();
+                int nextX = x + direction.getXAppend();
+
+                if (nextY < 0 || nextY >= height || nextX < 0 || nextX >= width) {
+                    continue;
+                }
+
+                int next = nextY * width + nextX;
+
+                if (directions[next] != UNREACHABLE || !maze.isWalkable(next)) {
+                    continue;
+                }
+
+                // The next cell leads back towards the exit in the opposite Direction
+                directions[next] = (byte) ((d + DIRECTIONS.length / 2) % DIRECTIONS.length + 1);
+                queue[queueEnd++] = next;
+            }
+        }
+    }
+
+    /**
+     * Checks if an exit can be reached from the cell found at the given index.
+     *
+     * @param index not out-of-bounds
+     * @return true if an exit can be reached (or the cell is an exit), false otherwise
+     */
+    public boolean isExitReachable(int index) {
+        return directions[index] != UNREACHABLE;
+    }
+
+    /**
+     * Returns the Direction of the first step on a shortest path from the cell found at the given index to an exit.
+     *
+     * @param index not out-of-bounds
+     * @return Direction towards the nearest exit, null if the cell is an exit or no exit can be reached from it
+     */
+    public Direction getDirectionToExit(int index) {
+        byte direction = directions[index];
+
+        return direction == UNREACHABLE || direction == EXIT ? null : DIRECTIONS[direction - 1];
+    }
+
+    /**
+     * Returns the length of a shortest path from the cell found at the given index to an exit.
+     *
+     * @param index not out-of-bounds
+     * @return the amount of steps to the nearest exit, -1 if no exit can be reached from the cell
+     */
+    public int getDistanceToExit(int index) {
+        if (!isExitReachable(index)) {
+            return -1;
+        }
+
+        int distance = 0;
+
+        for (int currentIndex = index; directions[currentIndex] != EXIT; distance++) {
+            currentIndex = getNextIndex(currentIndex);
+        }
+
+        return distance;
+    }
+
+    /**
+     * Returns the length of a shortest path from the given coordinates to an exit.
+     *
+     * @param coordinates not null
+     * @return the amount of steps to the nearest exit, -1 if no exit can be reached or the coordinates are
+     *         out-of-bounds
+     */
+    public int getDistanceToExit(Coordinates coordinates) {
+        return isOutOfBounds(coordinates) ? -1 : getDistanceToExit(getIndex(coordinates));
+    }
+
+    /**
+     * Returns a shortest path from the given coordinates to an exit.
+     *
+     * @param coordinates not null
+     * @return Coordinates of every cell on the path from the given coordinates to the exit, both included.
+     *         Empty if no exit can be reached or the coordinates are out-of-bounds.
+     */
+    public List<Coordinates> getPathToExit(Coordinates coordinates) {
+        List<Coordinates> path = new ArrayList<>();
+
+        if (isOutOfBounds(coordinates) || !isExitReachable(getIndex(coordinates))) {
+            return path;
+        }
+
+        int currentIndex = getIndex(coordinates);
+        path.add(coordinates);
+
+        while (directions[currentIndex] != EXIT) {
+            currentIndex = getNextIndex(currentIndex);
+            path.add(new Coordinates(currentIndex / width, currentIndex % width));
+        }
+
+        return path;
+    }
+
+    /**
+     * Returns the index of the next cell on a shortest path from the cell found at the given index to an exit.
+     *
+     * @param index of a cell from which an exit can be reached, but which is not an exit itself
+     * @return index of the next cell towards the nearest exit
+     */
+    public int getNextIndex(int index) {
+        Direction direction = DIRECTIONS[directions[index] - 1];
+
+        return index + direction.getYAppend() * width + direction.getXAppend();
+    }
+
+    private boolean isOutOfBounds(Coordinates coordinates) {
+        if (coordinates == null) {
+            throw new NullPointerException("Coordinates cannot be null");
+        }
+
+        return coordinates.getY() < 0 || coordinates.getY() >= height
+                || coordinates.getX() < 0 || coordinates.getX() >= width;
+    }
+
+    private int getIndex(Coordinates coordinates) {
+        return coordinates.getY() * width + coordinates.getX();
+    }
+}
@@ -0,0 +1,239 @@
+package com.maze.domain;
+
+import java.util.Arrays;
+
+/**
+ * Graph of a maze in which every corridor is contracted into a single weighted edge.
+ *
+ * The nodes of the graph are the walkable cells which are not plain corridor cells: junctions (three or four walkable
+ * neighbours), dead ends (at most one walkable neighbour), the START and the EXITs. Every other walkable cell has
+ * exactly two walkable neighbours, so it is part of a corridor which leads from one node to another without any
+ * choices on the way. A node has an edge in every Direction in which a corridor (or an adjacent node) leaves it,
+ * weighted with the amount of steps to the node at the other end.
+ *
+ * Searching the graph takes time proportional to the amount of nodes instead of the amount of cells, so mazes made
+ * mostly of long corridors can be searched much faster. The cells of a corridor are only needed again for the edges of
+ * the path which was found, see getCorridor.
+ *
+ * A graph describes the Tiles of the maze at the time when it was computed. Use Maze.getJunctionGraph() in order to
+ * compute the graph once and share it between all of the searches on the same maze.
+ */
+public class JunctionGraph {
+    public static final int NO_NODE = -1;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Maze maze;
+    private final int height;
+    private final int width;
+    // Cell index of every node in ascending order, so that the node of a cell can be found with a binary search
+    private final int[] nodeCells;
+    // Node at the other end of the edge and the length of the edge, at node * 4 + Direction ordinal
+    private final int[] neighbours;
+    private final int[] edgeLengths;
+
+    /**
+     * Computes the graph for the current Tiles of the given maze.
+     *
+     * @param maze not null
+     */
+    JunctionGraph(Maze maze) {
+        if (maze == null) {
+            throw new NullPointerException("Maze cannot be null");
+        }
+
+        this.maze = maze;
+        height = maze.getHeight();
+        width = maze.getWidth();
+        nodeCells = findNodeCells();
+        neighbours = new int[nodeCells.length * DIRECTIONS.length];
+        edgeLengths = new int[nodeCells.length * DIRECTIONS.length];
+        Arrays.fill(neighbours, NO_NODE);
+
+        for (int node = 0; node < nodeCells.length; node++) {
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                // Every corridor is walked once, the edge back from the other end is added at the same time
+                if (neighbours[node * DIRECTIONS.length + d] == NO_NODE) {
+                    addEdge(node, d);
+                }
+            }
+        }
+    }
+
+    private int[] findNodeCells() {
+        int[] cells = new int[16];
+        int nodeCount = 0;
+
+        for (int y = 0, index = 0; y < height; y++) {
+            for (int x = 0; x < width; x++, index++) {
+                if (isNodeCell(index, y, x)) {
+                    if (nodeCount == cells.length) {
+                        cells = Arrays.copyOf(cells, 2 * nodeCount);
+                    }
+
+                    cells[nodeCount++] = index;
+                }
+            }
+        }
+
+        return Arrays.copyOf(cells, nodeCount);
+    }
+
+    /**
+     * Walks the corridor which leaves the given node in the Direction with the given ordinal, if there is one, and adds
+     * the edge between the nodes at its ends in both directions.
+     */
+    private void addEdge(int node, int leavingDirection) {
+        int index = nodeCells[node];
+        int y = index / width;
+        int x = index % width;
+        int d = leavingDirection;
+
+        if (!isWalkableNeighbour(y, x, d)) {
+            return;
+        }
+
+        for (int length = 1; ; length++) {
+            y += DIRECTIONS[d].getYAppend();
+            x += DIRECTIONS[d].getXAppend();
+            index = y * width + x;
+
+            if (isNodeCell(index, y, x)) {
+                int other = Arrays.binarySearch(nodeCells, index);
+                int reverse = (d + DIRECTIONS.length / 2) % DIRECTIONS.length;
+                int edge = node * DIRECTIONS.length + leavingDirection;
+                neighbours[edge] = other;
+                edgeLengths[edge] = length;
+                neighbours[other * DIRECTIONS.length + reverse] = node;
+                edgeLengths[other * DIRECTIONS.length + reverse] = length;
+
+                return;
+            }
+
+            d = continueCorridor(y, x, d);
+        }
+    }
+
+    private boolean isNodeCell(int index, int y, int x) {
+        if (!maze.isWalkable(index)) {
+            return false;
+        }
+
+        if (maze.getTile(index) != Tile.SPACE) {
+            return true; // START or EXIT
+        }
+
+        int walkableNeighbours = 0;
+
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            if (isWalkableNeighbour(y, x, d)) {
+                walkableNeighbours++;
+            }
+        }
+
+        return walkableNeighbours != 2;
+    }
+
+    /**
+     * Checks if the neighbour of the given cell in the Direction with the given ordinal is within the maze and
+     * walkable.
+     */
+    private boolean isWalkableNeighbour(int y, int x, int d) {
+        int neighbourY = y + DIRECTIONS[d].getYAppend();
+        int neighbourX = x + DIRECTIONS[d].getXAppend();
+
+        return neighbourY >= 0 && neighbourY < height && neighbourX >= 0 && neighbourX < width
+                && maze.isWalkable(neighbourY * width + neighbourX);
+    }
+
+    /**
+     * Returns the ordinal of the Direction in which the corridor continues from the given corridor cell, which was
+     * entered in the Direction with the given ordinal: straight ahead or a turn to either side, as a corridor cell has
+     * exactly two walkable neighbours and one of them is behind.
+     */
+    private int continueCorridor(int y, int x, int d) {
+        if (isWalkableNeighbour(y, x, d)) {
+            return d;
+        }
+
+        int right = (d + 1) % DIRECTIONS.length;
+
+        return isWalkableNeighbour(y, x, right) ? right : (d + DIRECTIONS.length - 1) % DIRECTIONS.length;
+    }
+
+    public int getNodeCount() {
+        return nodeCells.length;
+    }
+
+    /**
+     * Returns the node of the cell found at the given index.
+     *
+     * @param index not out-of-bounds
+     * @return the node, NO_NODE if the cell is a BLOCK or a corridor cell
+     */
+    public int getNode(int index) {
+        int node = Arrays.binarySearch(nodeCells, index);
+
+        return node >= 0 ? node : NO_NODE;
+    }
+
+    /**
+     * Returns the index of the cell of the given node.
+     *
+     * @param node between 0 and getNodeCount() - 1
+     * @return index of the cell
+     */
+    public int getCellIndex(int node) {
+        return nodeCells[node];
+    }
+
+    /**
+     * Returns the node at the other end of the edge which leaves the given node in the given Direction.
+     *
+     * @param node between 0 and getNodeCount() - 1
+     * @param direction not null
+     * @return the neighbouring node, NO_NODE if there is no edge in the Direction
+     */
+    public int getNeighbour(int node, Direction direction) {
+        return neighbours[node * DIRECTIONS.length + direction.ordinal()];
+    }
+
+    /**
+     * Returns the length of the edge which leaves the given node in the given Direction.
+     *
+     * @param node between 0 and getNodeCount() - 1
+     * @param direction not null
+     * @return the amount of steps to the neighbouring node, 0 if there is no edge in the Direction
+     */
+    public int getEdgeLength(int node, Direction direction) {
+        return edgeLengths[node * DIRECTIONS.length + direction.ordinal()];
+    }
+
+    /**
+     * Returns the cells of the edge which leaves the given node in the given Direction.
+     *
+     * @param node between 0 and getNodeCount() - 1
+     * @param direction not null
+     * @return indexes of the cells from the first cell after the given node up to the cell of the neighbouring node,
+     *         both included, in order. Empty if there is no edge in the Direction.
+     */
+    public int[] getCorridor(int node, Direction direction) {
+        int[] cells = new int[getEdgeLength(node, direction)];
+        int index = nodeCells[node];
+        int y = index / width;
+        int x = index % width;
+        int d = direction.ordinal();
+
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                d = continueCorridor(y, x, d);
+            }
+
+            y += DIRECTIONS[d].getYAppend();
+            x += DIRECTIONS[d].getXAppend();
+            cells[i] = y * width + x;
+        }
+
+        return cells;
+    }
+}
@@ -3,17 +3,45 @@ package com.maze.domain;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
 
 public class Maze {
+    /*
+     * Every cell of the maze is packed into a single byte of the cells array, which is stored in row-major order and
+     * indexed by y * width + x:
+     *
+     *      bits 0-1: Tile ordinal
+     *      bits 2-4: Direction from which the cell was checked (0 = not checked, 1-4 = Direction ordinal + 1,
+     *                5 = checked without a direction, i.e. the starting cell)
+     *      bits 5-7: Direction towards the next cell in the solution path (0 = not part of the solution path,
+     *                1-4 = Direction ordinal + 1)
+     *
+     * This keeps the whole maze as well as its solving progress in one flat primitive array instead of a reference per
+     * cell in three separate 2D arrays.
+     */
+    private static final int TILE_MASK = 0b0000_0011;
+    private static final int TRACE_SHIFT = 2;
+    private static final int TRACE_MASK = 0b0001_1100;
+    private static final int TRACE_CHECKED_WITHOUT_DIRECTION = 5;
+    private static final int SOLUTION_SHIFT = 5;
+    private static final int SOLUTION_MASK = 0b1110_0000;
+
+    // For marking cells as checked atomically when a maze is solved by several threads at once
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private static final Tile[] TILES = Tile.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
     // Structure related fields
-    private final Tile[][] maze;
+    private final byte[] cells;
     private final int height;
     private final int width;
+    private final int startIndex;
+    private int modificationCount;
 
     // Overall progression tracking related fields
-    private boolean[][] coordinatesCheckStatus;
-    private Direction[][] directionTracker;
     private int stepLimit;
 
     // Current progression iteration tracking related fields
@@ -22,32 +50,71 @@ public class Maze {
 
     // Solution related fields
     private SolutionStatus solutionStatus;
-    private Map<Coordinates, Direction> solutionPath;
+
+    // Computed lazily on the first request, since they only depend on the Tiles, and dropped whenever a Tile changes
+    private volatile ExitDistanceField exitDistanceField;
+    private volatile JunctionGraph junctionGraph;
+    private volatile ClusterIndex clusterIndex;
 
     public Maze(Tile[][] maze) {
-        this.maze = maze;
         height = maze.length;
         width = maze[0].length;
+        cells = new byte[height * width];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                cells[y * width + x] = (byte) maze[y][x].ordinal();
+            }
+        }
+
+        startIndex = findStartingIndex();
         resetProgress(0); // Called to prevent possible null pointers
     }
 
     /**
-     * Finds and returns the starting coordinates (=coordinates where the START tile is located at)
+     * Creates a maze directly from packed tiles, e.g. ones decoded straight from a file without creating Tile objects.
+     * The given array is used as the cells of the maze as-is instead of being copied.
      *
-     * @return the starting coordinates of the maze
+     * @param tiles Tile ordinals of every cell in row-major order, i.e. the Tile of (y, x) at tiles[y * width + x]
+     * @param height of the maze, positive
+     * @param width of the maze, positive
+     * @param startIndex index of the only START tile of the maze, which the caller has already validated to be the
+     *                   only one
+     * @throws IllegalArgumentException if the dimensions do not match the tiles or there is no START tile at the
+     *                                  given index
+     */
+    public Maze(byte[] tiles, int height, int width, int startIndex) {
+        if ((long) height * width != tiles.length || height <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Maze of " + height + "x" + width + " cannot have " + tiles.length
+                    + " tiles");
+        }
+
+        if (startIndex < 0 || startIndex >= tiles.length || (tiles[startIndex] & TILE_MASK) != Tile.START.ordinal()) {
+            throw new IllegalArgumentException("Given maze must have exactly one starting point (marked with '^')");
+        }
+
+        this.cells = tiles;
+        this.height = height;
+        this.width = width;
+        this.startIndex = startIndex;
+        resetProgress(0); // Called to prevent possible null pointers
+    }
+
+    /**
+     * Finds and returns the index of the starting cell (=cell where the START tile is located at)
+     *
+     * @return the index of the starting cell of the maze
      *
      * @throws IllegalArgumentException if the maze does not contain exactly one starting point
      */
-    private Coordinates findStartingCoordinates() {
-        Coordinates startingCoordinates = null;
+    private int findStartingIndex() {
+        int startingIndex = -1;
         int startTilesFound = 0;
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (maze[y][x] == Tile.START) {
-                    startTilesFound++;
-                    startingCoordinates = new Coordinates(y, x);
-                }
+        for (int i = 0; i < cells.length; i++) {
+            if ((cells[i] & TILE_MASK) == Tile.START.ordinal()) {
+                startTilesFound++;
+                startingIndex = i;
             }
         }
 
@@ -55,25 +122,61 @@ public class Maze {
             throw new IllegalArgumentException("Given maze must have exactly one starting point (marked with '^')");
         }
 
-        return startingCoordinates;
+        return startingIndex;
     }
 
     /**
      * Resets all progression tracking variables for the maze and sets a new maximum stpe limit.
+     * Clears the progress bits of every cell in place instead of reallocating anything per cell.
      *
      * @param stepLimit New maximum step limit
      */
     public void resetProgress(int stepLimit) {
-        this.coordinatesCheckStatus = new boolean[height][width];
-        directionTracker = new Direction[height][width];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] &= TILE_MASK;
+        }
+
+        resetProgressTracking(stepLimit);
+    }
+
+    /**
+     * Resets all progression tracking variables for the maze like resetProgress(int), but clears the progress bits of
+     * the given cells only. Takes time proportional to the amount of given cells instead of the size of the maze, e.g.
+     * when the only progress marked into the maze is a previous solution path.
+     *
+     * @param stepLimit New maximum step limit
+     * @param indexes of every cell which may have progress marked into it, not null and not out-of-bounds
+     */
+    public void resetProgress(int stepLimit, int[] indexes) {
+        for (int index : indexes) {
+            cells[index] &= TILE_MASK;
+        }
+
+        resetProgressTracking(stepLimit);
+    }
+
+    private void resetProgressTracking(int stepLimit) {
         this.stepLimit = stepLimit;
 
-        Coordinates startingCoordinates = findStartingCoordinates();
-        currentCoordinatesAndDirections = List.of(new ImmutablePair<>(startingCoordinates, null));
+        currentCoordinatesAndDirections = List.of(new ImmutablePair<>(getCoordinatesForIndex(startIndex), null));
         currentStepCount = 0;
 
         solutionStatus = SolutionStatus.FAILURE;
-        solutionPath = new HashMap<>();
+    }
+
+    /**
+     * Raises the maximum step limit without resetting any of the progress, so that solving can continue from where the
+     * previous step limit stopped it.
+     *
+     * @param stepLimit New maximum step limit, not lower than the current step limit
+     * @throws IllegalArgumentException if the new step limit is lower than the current step limit
+     */
+    public void raiseStepLimit(int stepLimit) {
+        if (stepLimit < this.stepLimit) {
+            throw new IllegalArgumentException("Cannot lower step limit from " + this.stepLimit + " to " + stepLimit);
+        }
+
+        this.stepLimit = stepLimit;
     }
 
     /**
@@ -100,7 +203,7 @@ public class Maze {
             throw new IndexOutOfBoundsException("Cannot get Tile for out-of-bounds coordinates " + coordinates);
         }
 
-        return maze[coordinates.getY()][coordinates.getX()];
+        return getTile(getIndexForCoordinates(coordinates));
     }
 
     /**
@@ -139,7 +242,7 @@ public class Maze {
             throw new IndexOutOfBoundsException("Cannot check if out-of-bounds coordinates are visited " + coordinates);
         }
 
-        return coordinatesCheckStatus[coordinates.getY()][coordinates.getX()];
+        return isChecked(getIndexForCoordinates(coordinates));
     }
 
     /**
@@ -156,12 +259,17 @@ public class Maze {
             throw new IndexOutOfBoundsException("Cannot mark out-of-bound coordinates as visited" + coordinates);
         }
 
-        coordinatesCheckStatus[coordinates.getY()][coordinates.getX()] = true;
+        int index = getIndexForCoordinates(coordinates);
+
+        if (!isChecked(index)) {
+            setTrace(index, TRACE_CHECKED_WITHOUT_DIRECTION);
+        }
     }
 
     /**
      * Marks the given direction for the given coordinates.
      * The direction will be used for displaying the solution path in file/console print if maze is solvable.
+     * Coordinates which have a direction marked for them are always considered checked.
      *
      * @param coordinates not null and not out out of bounds
      * @param direction from the previous tile
@@ -175,7 +283,13 @@ public class Maze {
             throw new IndexOutOfBoundsException("Cannot mark direction for null coordinates");
         }
 
-        directionTracker[coordinates.getY()][coordinates.getX()] = direction;
+        int index = getIndexForCoordinates(coordinates);
+
+        if (direction != null) {
+            setTrace(index, direction.ordinal() + 1);
+        } else if (isChecked(index)) {
+            setTrace(index, TRACE_CHECKED_WITHOUT_DIRECTION);
+        }
     }
 
     /**
@@ -193,7 +307,7 @@ public class Maze {
             throw new IndexOutOfBoundsException("Cannot get direction of out-of-bounds coordinates " + coordinates);
         }
 
-        return directionTracker[coordinates.getY()][coordinates.getX()];
+        return getDirection(getIndexForCoordinates(coordinates));
     }
 
     /**
@@ -212,7 +326,11 @@ public class Maze {
             throw new IllegalArgumentException("Cannot put null direction to the solution path");
         }
 
-        solutionPath.put(coordinates, direction);
+        if (areCoordinatesOutOfBounds(coordinates)) {
+            throw new IndexOutOfBoundsException("Cannot put out-of-bounds coordinates to the solution path");
+        }
+
+        updateSolutionPath(getIndexForCoordinates(coordinates), direction);
     }
 
     /**
@@ -226,7 +344,323 @@ public class Maze {
             throw new NullPointerException("Cannot get direction from solution path for null coordinates");
         }
 
-        return solutionPath.get(coordinates);
+        if (areCoordinatesOutOfBounds(coordinates)) {
+            return null;
+        }
+
+        return getDirectionFromSolutionPath(getIndexForCoordinates(coordinates));
+    }
+
+    // Index based accessors for the packed cells, meant for the solving algorithms' hot paths
+
+    /**
+     * Returns the index of the cell for the given coordinates, i.e. y * width + x.
+     *
+     * @param coordinates not null and not out-of-bounds
+     * @return the index of the cell for the given coordinates
+     */
+    public int getIndexForCoordinates(Coordinates coordinates) {
+        return coordinates.getY() * width + coordinates.getX();
+    }
+
+    /**
+     * Returns the coordinates of the cell found at the given index.
+     *
+     * @param index not out-of-bounds
+     * @return coordinates of the cell found at the given index
+     */
+    public Coordinates getCoordinatesForIndex(int index) {
+        return new Coordinates(index / width, index % width);
+    }
+
+    /**
+     * Changes the Tile of the given coordinates between SPACE and BLOCK.
+     * See method setTile(int, Tile) for the details.
+     *
+     * @param coordinates not null and not out-of-bounds
+     * @param tile SPACE or BLOCK
+     * @throws IllegalArgumentException if the tile is not SPACE or BLOCK, or the Tile of the coordinates is not either
+     */
+    public void setTileForCoordinates(Coordinates coordinates, Tile tile) {
+        if (coordinates == null) {
+            throw new NullPointerException("Cannot set Tile for null coordinates");
+        }
+
+        if (areCoordinatesOutOfBounds(coordinates)) {
+            throw new IndexOutOfBoundsException("Cannot set Tile for out-of-bounds coordinates " + coordinates);
+        }
+
+        setTile(getIndexForCoordinates(coordinates), tile);
+    }
+
+    /**
+     * Changes the Tile of the cell found at the given index between SPACE and BLOCK, e.g. for simulating a maze which
+     * changes over time. The START and EXIT tiles cannot be changed. The progress bits of the cell are kept.
+     *
+     * The cached ExitDistanceField, JunctionGraph and ClusterIndex no longer describe the maze after a change, so they
+     * are dropped and computed again when they are requested the next time. Must not be called while the maze is being
+     * solved.
+     *
+     * @param index not out-of-bounds
+     * @param tile SPACE or BLOCK
+     * @throws IllegalArgumentException if the tile is not SPACE or BLOCK, or the Tile of the cell is not either
+     */
+    public synchronized void setTile(int index, Tile tile) {
+        if (tile == null) {
+            throw new NullPointerException("Cannot set null Tile");
+        }
+
+        Tile currentTile = getTile(index);
+
+        if ((tile != Tile.SPACE && tile != Tile.BLOCK) || (currentTile != Tile.SPACE && currentTile != Tile.BLOCK)) {
+            throw new IllegalArgumentException("Only SPACE and BLOCK tiles can be changed into each other, not "
+                    + currentTile + " into " + tile);
+        }
+
+        if (tile == currentTile) {
+            return;
+        }
+
+        cells[index] = (byte) ((cells[index] & ~TILE_MASK) | tile.ordinal());
+        modificationCount++;
+        exitDistanceField = null;
+        junctionGraph = null;
+        clusterIndex = null;
+    }
+
+    /**
+     * Returns the amount of times a Tile of the maze has been changed with setTile, so that e.g. a solver can tell if
+     * the maze has been changed since it last looked at it.
+     *
+     * @return the amount of changed Tiles since the maze was created
+     */
+    public synchronized int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Returns the Tile of the cell found at the given index
+     *
+     * @param index not out-of-bounds
+     * @return Tile of the cell found at the given index
+     */
+    public Tile getTile(int index) {
+        return TILES[cells[index] & TILE_MASK];
+    }
+
+    /**
+     * Checks if the cell found at the given index can be moved into, i.e. its Tile is not a BLOCK.
+     *
+     * @param index not out-of-bounds
+     * @return true if the cell is not a BLOCK, false if it is
+     */
+    public boolean isWalkable(int index) {
+        return (cells[index] & TILE_MASK) != Tile.BLOCK.ordinal();
+    }
+
+    /**
+     * Checks if the cell found at the given index is an EXIT.
+     *
+     * @param index not out-of-bounds
+     * @return true if the cell is an EXIT, false if not
+     */
+    public boolean isExit(int index) {
+        return (cells[index] & TILE_MASK) == Tile.EXIT.ordinal();
+    }
+
+    /**
+     * Finds and returns the indexes of all of the EXIT cells of the maze in row-major order.
+     *
+     * @return indexes of all of the EXIT cells, empty if the maze has no exits
+     */
+    public int[] findExitIndexes() {
+        int exitCount = 0;
+
+        for (byte cell : cells) {
+            if ((cell & TILE_MASK) == Tile.EXIT.ordinal()) {
+                exitCount++;
+            }
+        }
+
+        int[] exitIndexes = new int[exitCount];
+
+        for (int i = 0, j = 0; j < exitCount; i++) {
+            if (isExit(i)) {
+                exitIndexes[j++] = i;
+            }
+        }
+
+        return exitIndexes;
+    }
+
+    /**
+     * Checks if the cell found at the given index has already been checked.
+     *
+     * @param index not out-of-bounds
+     * @return true if the cell has already been checked, false if not
+     */
+    public boolean isChecked(int index) {
+        return (cells[index] & TRACE_MASK) != 0;
+    }
+
+    /**
+     * Marks the cell found at the given index as checked along with the direction from which it was arrived into.
+     *
+     * @param index not out-of-bounds
+     * @param direction from the previous cell, null for the starting cell
+     */
+    public void markChecked(int index, Direction direction) {
+        setTrace(index, direction == null ? TRACE_CHECKED_WITHOUT_DIRECTION : direction.ordinal() + 1);
+    }
+
+    /**
+     * Atomically marks the cell found at the given index as checked along with the direction from which it was arrived
+     * into, unless the cell has already been checked. Safe to call from several threads at once for the same maze.
+     *
+     * @param index not out-of-bounds
+     * @param direction from the previous cell, null for the starting cell
+     * @return true if this call marked the cell, false if it had already been checked
+     */
+    public boolean tryMarkChecked(int index, Direction direction) {
+        int trace = direction == null ? TRACE_CHECKED_WITHOUT_DIRECTION : direction.ordinal() + 1;
+
+        while (true) {
+            byte cell = (byte) CELLS.getVolatile(cells, index);
+
+            if ((cell & TRACE_MASK) != 0) {
+                return false;
+            }
+
+            byte checkedCell = (byte) ((cell & ~TRACE_MASK) | (trace << TRACE_SHIFT));
+
+            if (CELLS.compareAndSet(cells, index, cell, checkedCell)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the Direction from which the cell found at the given index was checked from. Returns null if the cell
+     * has not been checked or if it was checked without a direction.
+     *
+     * @param index not out-of-bounds
+     * @return Direction from which the cell was checked from
+     */
+    public Direction getDirection(int index) {
+        int trace = (cells[index] & TRACE_MASK) >>> TRACE_SHIFT;
+
+        return trace == 0 || trace == TRACE_CHECKED_WITHOUT_DIRECTION ? null : DIRECTIONS[trace - 1];
+    }
+
+    /**
+     * Updates the Direction towards the next cell in the solution path for the cell found at the given index.
+     *
+     * @param index not out-of-bounds
+     * @param direction not null
+     */
+    public void updateSolutionPath(int index, Direction direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Cannot put null direction to the solution path");
+        }
+
+        cells[index] = (byte) ((cells[index] & ~SOLUTION_MASK) | ((direction.ordinal() + 1) << SOLUTION_SHIFT));
+    }
+
+    /**
+     * Gets the Direction pointing towards the next cell in the solution path for the cell found at the given index.
+     * Returns null if the cell is not part of the solution path.
+     *
+     * @param index not out-of-bounds
+     * @return Direction pointing towards the next cell in the solution path
+     */
+    public Direction getDirectionFromSolutionPath(int index) {
+        int solution = (cells[index] & SOLUTION_MASK) >>> SOLUTION_SHIFT;
+
+        return solution == 0 ? null : DIRECTIONS[solution - 1];
+    }
+
+    /**
+     * Returns the Directions towards the nearest exit for every cell of the maze. The field is computed on the first
+     * call and the same field is returned on every later call, so that any amount of shortest path queries from
+     * different cells of the maze only need a single search.
+     *
+     * @return the ExitDistanceField of the maze
+     */
+    public ExitDistanceField getExitDistanceField() {
+        ExitDistanceField field = exitDistanceField;
+
+        if (field == null) {
+            synchronized (this) {
+                field = exitDistanceField;
+
+                if (field == null) {
+                    field = new ExitDistanceField(this);
+                    exitDistanceField = field;
+                }
+            }
+        }
+
+        return field;
+    }
+
+    /**
+     * Returns the JunctionGraph of the maze, in which its corridors are contracted into weighted edges. The graph is
+     * computed on the first call and the same graph is returned on every later call.
+     *
+     * @return the JunctionGraph of the maze
+     */
+    public JunctionGraph getJunctionGraph() {
+        JunctionGraph graph = junctionGraph;
+
+        if (graph == null) {
+            synchronized (this) {
+                graph = junctionGraph;
+
+                if (graph == null) {
+                    graph = new JunctionGraph(this);
+                    junctionGraph = graph;
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Returns the ClusterIndex of the maze for hierarchical searches. The index is computed on the first call (unless
+     * it has been read from an index file with ClusterIndex.loadOrCompute) and the same index is returned on every
+     * later call.
+     *
+     * @return the ClusterIndex of the maze
+     */
+    public ClusterIndex getClusterIndex() {
+        ClusterIndex index = clusterIndex;
+
+        if (index == null) {
+            synchronized (this) {
+                index = clusterIndex;
+
+                if (index == null) {
+                    index = new ClusterIndex(this);
+                    clusterIndex = index;
+                }
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Keeps the given ClusterIndex, which has been read from an index file written for the Tiles of this maze.
+     *
+     * @param clusterIndex not null
+     */
+    void setClusterIndex(ClusterIndex clusterIndex) {
+        this.clusterIndex = clusterIndex;
+    }
+
+    private void setTrace(int index, int trace) {
+        cells[index] = (byte) ((cells[index] & ~TRACE_MASK) | (trace << TRACE_SHIFT));
     }
 
     // Basic getters and setters for fields
@@ -239,6 +673,14 @@ public class Maze {
         return width;
     }
 
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+
     public int getStepLimit() {
         return stepLimit;
     }
@@ -1,6 +1,5 @@
 package com.maze.domain;
 
-import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 public enum Tile {
@@ -10,6 +9,15 @@ public enum Tile {
     EXIT('E'),
     START('^');
 
+    // Lookup table from a char to its Tile, null for chars which do not represent a Tile
+    private static final Tile[] TILES_BY_CHAR = new Tile[256];
+
+    static {
+        for (Tile tile : values()) {
+            TILES_BY_CHAR[tile.ch] = tile;
+        }
+    }
+
     private final char ch;
 
     Tile(char ch) {
@@ -37,10 +45,13 @@ public enum Tile {
      * @throws NoSuchElementException If the given char is not a parsable character
      */
     public static Tile parseTile(char ch) {
-        return Arrays.stream(Tile.values())
-                .filter(type -> type.getChar() == ch)
-                .findAny()
-                .orElseThrow(() -> createNoSuchElementException(ch));
+        Tile tile = ch < TILES_BY_CHAR.length ? TILES_BY_CHAR[ch] : null;
+
+        if (tile == null) {
+            throw createNoSuchElementException(ch);
+        }
+
+        return tile;
     }
 
     private static NoSuchElementException createNoSuchElementException(char ch) {
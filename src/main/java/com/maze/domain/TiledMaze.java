@@ -0,0 +1,551 @@
+package com.maze.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Maze whose cells are kept in a memory-mapped file instead of on the heap, so that mazes larger than the available
+ * memory (up to tens of billions of cells) can be parsed and solved. The operating system pages the parts of the file
+ * which are being worked on in and out of memory as needed.
+ *
+ * Every cell is packed into a single byte in the same way as in Maze (the Tile ordinal, the Direction from which the cell
+ * was checked and the Direction towards the next cell in the solution path), so the solving progress lives in the file
+ * as well. Cells are indexed with longs by y * width + x.
+ *
+ * The cells are stored in tiles of 2^16 cells (256x256 cells, or narrower and taller for mazes less than 256 cells wide
+ * and the other way round for mazes less than 256 cells high), which are stored in row-major order one after another.
+ * A search which moves to any adjacent cell therefore stays within a few pages of the file, instead of touching one page
+ * per row like with a row-major layout.
+ *
+ * The file consists of a header of one tile size followed by the tiles. The header has the magic bytes 0x89 'M' 'Z' 'T',
+ * a version byte, the height and the width as big-endian ints, and the index of the START tile, the amount of EXIT tiles
+ * and the version of the source file as big-endian longs. The START index is -1 until the tiles have been written.
+ */
+public class TiledMaze implements Closeable {
+    /**
+     * File ending used for tiled maze files.
+     */
+    public static final String FILE_ENDING = ".tiles";
+
+    private static final byte[] MAGIC = {(byte) 0x89, 'M', 'Z', 'T'};
+    private static final byte VERSION = 1;
+
+    private static final int TILE_SHIFT = 16;
+    private static final int TILE_BYTES = 1 << TILE_SHIFT;
+    private static final int MAX_TILE_SIDE_SHIFT = 8;
+    // Regions of the file mapped at once hold a whole number of tiles, so that no tile is split between two regions
+    private static final int REGION_SHIFT = 30;
+    private static final long REGION_MASK = (1L << REGION_SHIFT) - 1;
+
+    // Same packing of the cell bytes as in Maze
+    private static final int TILE_MASK = 0b0000_0011;
+    private static final int TRACE_SHIFT = 2;
+    private static final int TRACE_MASK = 0b0001_1100;
+    private static final int TRACE_CHECKED_WITHOUT_DIRECTION = 5;
+    private static final int SOLUTION_SHIFT = 5;
+    private static final int SOLUTION_MASK = 0b1110_0000;
+    private static final long PROGRESS_MASK_OF_EIGHT_CELLS = 0xFCFC_FCFC_FCFC_FCFCL;
+
+    private static final Tile[] TILES = Tile.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Structure related fields
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final int height;
+    private final int width;
+    private final int tileWidthShift;
+    private final int tileHeightShift;
+    private final long tilesPerRow;
+    private long startIndex;
+    private long exitCount;
+    private long sourceVersion;
+
+    // Tiles written with writeRow() before finishWriting()
+    private long writtenStartCount;
+    private long writtenStartIndex = -1;
+    private int writtenRowCount;
+
+    // Progression tracking related fields
+    private int stepLimit;
+    private long currentStepCount;
+    private SolutionStatus solutionStatus = SolutionStatus.FAILURE;
+
+    private TiledMaze(FileChannel channel, int height, int width) throws IOException {
+        this.channel = channel;
+        this.height = height;
+        this.width = width;
+
+        tileWidthShift = getTileWidthShift(height, width);
+        tileHeightShift = TILE_SHIFT - tileWidthShift;
+        tilesPerRow = ((long) width + (1L << tileWidthShift) - 1) >>> tileWidthShift;
+        long fileSize = getFileSize(height, width);
+
+        regions = new MappedByteBuffer[(int) ((fileSize + REGION_MASK) >>> REGION_SHIFT)];
+
+        for (int i = 0; i < regions.length; i++) {
+            long position = (long) i << REGION_SHIFT;
+            regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                    Math.min(1L << REGION_SHIFT, fileSize - position));
+        }
+    }
+
+    /**
+     * Returns the base 2 logarithm of the width of the tiles for a maze of the given size. The tiles are 256 cells wide
+     * unless the maze is narrower or less than 256 cells high, so that little of the file is left unused at the edges.
+     */
+    private static int getTileWidthShift(int height, int width) {
+        int widthShift = Math.min(MAX_TILE_SIDE_SHIFT, ceilLog2(width));
+
+        if (ceilLog2(height) < TILE_SHIFT - widthShift) {
+            widthShift = TILE_SHIFT - ceilLog2(height);
+        }
+
+        return widthShift;
+    }
+
+    private static int ceilLog2(int value) {
+        return value <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(value - 1);
+    }
+
+    private static long getFileSize(int height, int width) {
+        int tileWidthShift = getTileWidthShift(height, width);
+        int tileHeightShift = TILE_SHIFT - tileWidthShift;
+        long tilesPerRow = ((long) width + (1L << tileWidthShift) - 1) >>> tileWidthShift;
+        long tileRows = ((long) height + (1L << tileHeightShift) - 1) >>> tileHeightShift;
+
+        return TILE_BYTES + (tilesPerRow * tileRows << TILE_SHIFT);
+    }
+
+    /**
+     * Creates the tiled maze file, replacing the file if it exists. Every cell is a BLOCK until its row is written with
+     * writeRow(), and the maze cannot be solved before finishWriting() has been called.
+     *
+     * @param file path of the file, not null
+     * @param height of the maze, positive
+     * @param width of the maze, positive
+     * @return the created maze, which has to be closed once no longer needed
+     * @throws IOException if the file could not be created or mapped
+     */
+    public static TiledMaze create(Path file, int height, int width) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("File cannot be null");
+        }
+
+        if (height <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Maze of " + height + "x" + width + " cannot be created");
+        }
+
+        var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        try {
+            var maze = new TiledMaze(channel, height, width);
+            maze.startIndex = -1;
+            maze.writeHeader();
+
+            return maze;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a tiled maze file which has been written with create(), writeRow() and finishWriting(). Any solving
+     * progress left in the file is kept until resetProgress() is called.
+     *
+     * @param file path of the file, not null
+     * @return the opened maze, which has to be closed once no longer needed
+     * @throws IOException if the file could not be opened or mapped
+     * @throws IllegalArgumentException if the file is not a finished tiled maze file
+     */
+    public static TiledMaze open(Path file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("File cannot be null");
+        }
+
+        var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            if (channel.size() < TILE_BYTES) {
+                throw new IllegalArgumentException("Given tiled maze file is too short");
+            }
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TILE_BYTES);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+
+            if (!ByteBuffer.wrap(magic).equals(ByteBuffer.wrap(MAGIC)) || header.get() != VERSION) {
+                throw new IllegalArgumentException("Given file is not a tiled maze file of a supported version");
+            }
+
+            int height = header.getInt();
+            int width = header.getInt();
+
+            if (height <= 0 || width <= 0) {
+                throw new IllegalArgumentException("Given tiled maze file has an invalid header");
+            }
+
+            // Checked before mapping, since mapping a file for writing would extend a file which is too short
+            if (channel.size() != getFileSize(height, width)) {
+                throw new IllegalArgumentException("Given tiled maze file has an invalid length");
+            }
+
+            var maze = new TiledMaze(channel, height, width);
+            maze.startIndex = header.getLong();
+            maze.exitCount = header.getLong();
+            maze.sourceVersion = header.getLong();
+
+            if (maze.startIndex < 0 || maze.startIndex >= maze.getCellCount()
+                    || maze.getTile(maze.startIndex) != Tile.START) {
+                throw new IllegalArgumentException("Given tiled maze file has not been written completely");
+            }
+
+            return maze;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+
+            throw e;
+        }
+    }
+
+    private void writeHeader() {
+        ByteBuffer header = regions[0].duplicate();
+        header.put(MAGIC).put(VERSION)
+                .putInt(height)
+                .putInt(width)
+                .putLong(startIndex)
+                .putLong(exitCount)
+                .putLong(sourceVersion);
+    }
+
+    /**
+     * Writes the Tiles of the next row of the maze. The rows must be written in order from the first one.
+     *
+     * @param tiles Tile ordinals of the cells of the row, not null and of the width of the maze
+     * @throws IllegalArgumentException if the amount of tiles is not the width of the maze or a tile is not a Tile
+     *                                  ordinal
+     * @throws IllegalStateException if every row has already been written
+     */
+    public void writeRow(byte[] tiles) {
+        if (tiles.length != width) {
+            throw new IllegalArgumentException("Row of " + tiles.length + " tiles does not fit a maze of width "
+                    + width);
+        }
+
+        if (writtenRowCount == height) {
+            throw new IllegalStateException("Cannot write more than " + height + " rows");
+        }
+
+        int y = writtenRowCount;
+
+        for (int x = 0; x < width; x++) {
+            int tile = tiles[x];
+
+            if (tile < 0 || tile >= TILES.length) {
+                throw new IllegalArgumentException(tile + " is not a Tile ordinal");
+            }
+
+            if (tile == Tile.START.ordinal()) {
+                writtenStartCount++;
+                writtenStartIndex = (long) y * width + x;
+            } else if (tile == Tile.EXIT.ordinal()) {
+                exitCount++;
+            }
+        }
+
+        // The row is split into one run of cells per tile, each of which is contiguous in the file
+        int tileWidth = 1 << tileWidthShift;
+
+        for (int x = 0; x < width; x += tileWidth) {
+            long offset = getOffset(y, x);
+            ByteBuffer region = regions[(int) (offset >>> REGION_SHIFT)].duplicate();
+            region.position((int) (offset & REGION_MASK));
+            region.put(tiles, x, Math.min(tileWidth, width - x));
+        }
+
+        writtenRowCount++;
+    }
+
+    /**
+     * Finishes writing the maze after all of its rows have been written, after which the maze can be solved and the
+     * file can be opened with open().
+     *
+     * @param sourceVersion version of the file from which the maze was read, e.g. for telling if the tiled maze file
+     *                      is older than the source file
+     * @throws IllegalStateException if not all of the rows have been written
+     * @throws IllegalArgumentException if the maze does not have exactly one START tile
+     */
+    public void finishWriting(long sourceVersion) {
+        if (writtenRowCount != height) {
+            throw new IllegalStateException("Only " + writtenRowCount + " of " + height + " rows were written");
+        }
+
+        if (writtenStartCount != 1) {
+            throw new IllegalArgumentException("Given maze must have exactly one starting point (marked with '^')");
+        }
+
+        startIndex = writtenStartIndex;
+        this.sourceVersion = sourceVersion;
+        writeHeader();
+    }
+
+    /**
+     * Writes any changed cells into the file.
+     */
+    public void force() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns the position of the cell at the given coordinates in the file.
+     */
+    private long getOffset(int y, int x) {
+        long tile = (long) (y >>> tileHeightShift) * tilesPerRow + (x >>> tileWidthShift);
+        int cell = ((y & ((1 << tileHeightShift) - 1)) << tileWidthShift) | (x & ((1 << tileWidthShift) - 1));
+
+        return TILE_BYTES + (tile << TILE_SHIFT) + cell;
+    }
+
+    private long getOffset(long index) {
+        int y = (int) (index / width);
+
+        return getOffset(y, (int) (index - (long) y * width));
+    }
+
+    private int getCell(long index) {
+        long offset = getOffset(index);
+
+        return regions[(int) (offset >>> REGION_SHIFT)].get((int) (offset & REGION_MASK));
+    }
+
+    private void setCell(long index, int cell) {
+        long offset = getOffset(index);
+        regions[(int) (offset >>> REGION_SHIFT)].put((int) (offset & REGION_MASK), (byte) cell);
+    }
+
+    /**
+     * Resets all progression tracking variables for the maze and sets a new maximum step limit. Clears the progress bits
+     * of every cell, going through the file once in order. Only the pages which have progress marked into them are
+     * written to.
+     *
+     * @param stepLimit New maximum step limit
+     */
+    public void resetProgress(int stepLimit) {
+        for (MappedByteBuffer region : regions) {
+            // The regions hold whole tiles, so they can be checked eight cells at a time
+            for (int i = region == regions[0] ? TILE_BYTES : 0; i < region.limit(); i += Long.BYTES) {
+                long cells = region.getLong(i);
+
+                if ((cells & PROGRESS_MASK_OF_EIGHT_CELLS) != 0) {
+                    region.putLong(i, cells & ~PROGRESS_MASK_OF_EIGHT_CELLS);
+                }
+            }
+        }
+
+        this.stepLimit = stepLimit;
+        currentStepCount = 0;
+        solutionStatus = SolutionStatus.FAILURE;
+    }
+
+    /**
+     * Raises the maximum step limit without resetting any of the progress.
+     *
+     * @param stepLimit New maximum step limit, not lower than the current step limit
+     * @throws IllegalArgumentException if the new step limit is lower than the current step limit
+     */
+    public void raiseStepLimit(int stepLimit) {
+        if (stepLimit < this.stepLimit) {
+            throw new IllegalArgumentException("Cannot lower step limit from " + this.stepLimit + " to " + stepLimit);
+        }
+
+        this.stepLimit = stepLimit;
+    }
+
+    /**
+     * Returns the Tile of the cell found at the given index
+     *
+     * @param index not out-of-bounds
+     * @return the Tile of the cell
+     */
+    public Tile getTile(long index) {
+        return TILES[getCell(index) & TILE_MASK];
+    }
+
+    /**
+     * Returns the Tile of the cell found at the given coordinates
+     *
+     * @param y row of the cell, not out-of-bounds
+     * @param x column of the cell, not out-of-bounds
+     * @return the Tile of the cell
+     */
+    public Tile getTile(int y, int x) {
+        long offset = getOffset(y, x);
+
+        return TILES[regions[(int) (offset >>> REGION_SHIFT)].get((int) (offset & REGION_MASK)) & TILE_MASK];
+    }
+
+    /**
+     * Returns boolean based on if the cell found at the given index can be moved into, i.e. it is not a BLOCK.
+     *
+     * @param index not out-of-bounds
+     * @return true if the cell is not a BLOCK, false if it is
+     */
+    public boolean isWalkable(long index) {
+        return (getCell(index) & TILE_MASK) != Tile.BLOCK.ordinal();
+    }
+
+    /**
+     * Returns boolean based on if the cell found at the given index is an EXIT.
+     *
+     * @param index not out-of-bounds
+     * @return true if the cell is an EXIT, false if not
+     */
+    public boolean isExit(long index) {
+        return (getCell(index) & TILE_MASK) == Tile.EXIT.ordinal();
+    }
+
+    /**
+     * Returns boolean based on if the cell found at the given index has been checked.
+     *
+     * @param index not out-of-bounds
+     * @return true if the cell has been checked, false if not
+     */
+    public boolean isChecked(long index) {
+        return (getCell(index) & TRACE_MASK) != 0;
+    }
+
+    /**
+     * Marks the cell found at the given index as checked, along with the Direction from which it was checked.
+     *
+     * @param index not out-of-bounds
+     * @param direction from which the cell was checked, null for the starting cell
+     */
+    public void markChecked(long index, Direction direction) {
+        int trace = direction == null ? TRACE_CHECKED_WITHOUT_DIRECTION : direction.ordinal() + 1;
+        setCell(index, (getCell(index) & ~TRACE_MASK) | (trace << TRACE_SHIFT));
+    }
+
+    /**
+     * Marks the cell found at the given coordinates as checked along with the Direction from which it was checked,
+     * unless it is a BLOCK or has already been checked. Reads the cell only once, for searches which would otherwise
+     * check both before marking it.
+     *
+     * @param y row of the cell, not out-of-bounds
+     * @param x column of the cell, not out-of-bounds
+     * @param direction from which the cell was checked, null for the starting cell
+     * @return true if this call marked the cell, false if it is a BLOCK or had already been checked
+     */
+    public boolean tryMarkChecked(int y, int x, Direction direction) {
+        long offset = getOffset(y, x);
+        MappedByteBuffer region = regions[(int) (offset >>> REGION_SHIFT)];
+        int position = (int) (offset & REGION_MASK);
+        int cell = region.get(position);
+
+        if ((cell & TILE_MASK) == Tile.BLOCK.ordinal() || (cell & TRACE_MASK) != 0) {
+            return false;
+        }
+
+        int trace = direction == null ? TRACE_CHECKED_WITHOUT_DIRECTION : direction.ordinal() + 1;
+        region.put(position, (byte) (cell | (trace << TRACE_SHIFT)));
+
+        return true;
+    }
+
+    /**
+     * Gets the Direction from which the cell found at the given index was checked.
+     *
+     * @param index not out-of-bounds
+     * @return the Direction, null if the cell has not been checked or is the starting cell
+     */
+    public Direction getDirection(long index) {
+        int trace = (getCell(index) & TRACE_MASK) >>> TRACE_SHIFT;
+
+        return trace == 0 || trace == TRACE_CHECKED_WITHOUT_DIRECTION ? null : DIRECTIONS[trace - 1];
+    }
+
+    /**
+     * Updates the Direction towards the next cell in the solution path for the cell found at the given index.
+     *
+     * @param index not out-of-bounds
+     * @param direction not null
+     */
+    public void updateSolutionPath(long index, Direction direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Cannot put null direction to the solution path");
+        }
+
+        setCell(index, (getCell(index) & ~SOLUTION_MASK) | ((direction.ordinal() + 1) << SOLUTION_SHIFT));
+    }
+
+    /**
+     * Gets the Direction pointing towards the next cell in the solution path for the cell found at the given index.
+     * Returns null if the cell is not part of the solution path.
+     *
+     * @param index not out-of-bounds
+     * @return Direction pointing towards the next cell in the solution path
+     */
+    public Direction getDirectionFromSolutionPath(long index) {
+        int solution = (getCell(index) & SOLUTION_MASK) >>> SOLUTION_SHIFT;
+
+        return solution == 0 ? null : DIRECTIONS[solution - 1];
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public long getCellCount() {
+        return (long) height * width;
+    }
+
+    public long getStartIndex() {
+        return startIndex;
+    }
+
+    public long getExitCount() {
+        return exitCount;
+    }
+
+    public long getSourceVersion() {
+        return sourceVersion;
+    }
+
+    public int getStepLimit() {
+        return stepLimit;
+    }
+
+    public long getCurrentStepCount() {
+        return currentStepCount;
+    }
+
+    public void setCurrentStepCount(long currentStepCount) {
+        this.currentStepCount = currentStepCount;
+    }
+
+    public SolutionStatus getSolutionStatus() {
+        return solutionStatus;
+    }
+
+    public void setSolutionStatus(SolutionStatus solutionStatus) {
+        this.solutionStatus = solutionStatus;
+    }
+}
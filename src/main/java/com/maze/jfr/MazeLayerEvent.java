@@ -0,0 +1,39 @@
+package com.maze.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for expanding a single layer in one of the layer-by-layer breadth-first searches (BFS,
+ * INDEXED_BFS and PARALLEL_BFS).
+ *
+ * Large mazes have thousands of layers, so the event can be disabled separately from MazeSolveEvent in the recording
+ * settings (com.maze.Layer#enabled=false) or limited with a threshold.
+ */
+@Name("com.maze.Layer")
+@Label("Maze Search Layer")
+@Category({"Maze Solver", "Solve"})
+@Description("Expanding one layer of a breadth-first search")
+@StackTrace(false)
+public class MazeLayerEvent extends jdk.jfr.Event {
+    @Label("Engine")
+    public String engine;
+
+    @Label("Layer")
+    @Description("Number of the reached layer, i.e. the distance of its cells from the start")
+    public int layer;
+
+    @Label("Step Limit")
+    public int stepLimit;
+
+    @Label("Cells Visited")
+    @Description("Amount of cells in the expanded layer")
+    public int cellsVisited;
+
+    @Label("Frontier Size")
+    @Description("Amount of cells in the reached layer")
+    public int frontierSize;
+}
@@ -0,0 +1,38 @@
+package com.maze.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for reading a maze from a file with MazeParser.parseMaze().
+ */
+@Name("com.maze.Parse")
+@Label("Maze Parse")
+@Category({"Maze Solver", "Parse"})
+@Description("Reading a maze from a file")
+@StackTrace(false)
+public class MazeParseEvent extends jdk.jfr.Event {
+    @Label("File")
+    public String file;
+
+    @Label("Parser Mode")
+    public String parserMode;
+
+    @Label("File Size")
+    @DataAmount
+    public long fileSize;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Parsed")
+    @Description("True if the file contained a valid maze")
+    public boolean parsed;
+}
@@ -0,0 +1,48 @@
+package com.maze.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a whole attempt to solve a maze with MazeSolver.attemptToSolveMaze(), including every step
+ * limit which was tried.
+ */
+@Name("com.maze.Solve")
+@Label("Maze Solve")
+@Category({"Maze Solver", "Solve"})
+@Description("Attempt to solve a maze within the step limits")
+@StackTrace(false)
+public class MazeSolveEvent extends jdk.jfr.Event {
+    @Label("Engine")
+    public String engine;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Step Limit")
+    @Description("Step limit of the maze once the solve ended, i.e. the limit within which it was solved or the largest"
+            + " limit")
+    public int stepLimit;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Step Count")
+    public int stepCount;
+
+    @Label("Cells Visited")
+    @Description("Amount of cells which were taken out of the frontier and expanded")
+    public long cellsVisited;
+
+    @Label("Peak Frontier Size")
+    public int peakFrontierSize;
+
+    @Label("Limit Restarts")
+    public int limitRestarts;
+}
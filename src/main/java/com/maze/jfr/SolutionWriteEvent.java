@@ -0,0 +1,30 @@
+package com.maze.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for writing a solution graphic into a text file with
+ * SolutionWriter.writeSolutionGraphicIntoTextFile().
+ */
+@Name("com.maze.WriteSolution")
+@Label("Solution Write")
+@Category({"Maze Solver", "Write"})
+@Description("Writing a solution graphic into a text file")
+@StackTrace(false)
+public class SolutionWriteEvent extends jdk.jfr.Event {
+    @Label("File")
+    public String file;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+
+    @Label("Written")
+    @Description("True if the file was written successfully")
+    public boolean written;
+}
@@ -0,0 +1,366 @@
+package com.maze.main;
+
+import com.maze.domain.ClusterIndex;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+import com.maze.domain.TiledMaze;
+import com.maze.util.MazeParser;
+import com.maze.util.MazeSolution;
+import com.maze.util.MazeSolver;
+import com.maze.util.Printer;
+import com.maze.util.SolutionCache;
+import com.maze.util.SolveMetrics;
+import com.maze.util.SolveStatistics;
+import com.maze.util.SolutionFormat;
+import com.maze.util.SolutionPath;
+import com.maze.util.SolutionWriter;
+import com.maze.util.SolverEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Non-interactive mode which parses, solves and writes the solutions of every maze file in a directory (or matching a
+ * glob pattern) on a bounded pool of workers, and then prints a summary of the status and timing of every file.
+ *
+ * The workers are virtual threads if the JDK supports them, and platform threads otherwise. Either way at most
+ * Settings.getWorkerCount() files are handled at the same time. The solution of a file "maze.txt" is written into
+ * "solution-maze.txt" in the output directory.
+ */
+public class BatchRunner {
+    private static final String SOLUTION_FILE_PREFIX = "solution-";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Outcome of handling a single maze file.
+     */
+    private enum FileStatus {
+        SUCCESS,
+        FAILURE,
+        ERROR,
+        INVALID_FILE,
+        WRITE_ERROR
+    }
+
+    private static class FileResult {
+        private final Path file;
+        private FileStatus status = FileStatus.ERROR;
+        private boolean cached;
+        private int stepCount;
+        private long parseNanos;
+        private long solveNanos;
+        private long writeNanos;
+
+        private FileResult(Path file) {
+            this.file = file;
+        }
+    }
+
+    private BatchRunner() {
+        // Empty private constructor for static method class
+    }
+
+    /**
+     * Solves every maze file found from Settings.getBatchSource() and prints a summary of the results.
+     *
+     * @param settings Options for parsing and solving the mazes, getBatchSource() not null
+     */
+    public static void run(Settings settings) {
+        if (settings == null || settings.getBatchSource() == null) {
+            throw new NullPointerException("Batch mode requires a directory or glob pattern of maze files");
+        }
+
+        List<Path> files;
+        Path outputDirectory;
+        SolutionCache cache;
+
+        try {
+            files = findMazeFiles(settings.getBatchSource());
+            outputDirectory = Files.createDirectories(Path.of(settings.getOutputDirectory()));
+            cache = settings.createSolutionCache();
+        } catch (IOException | RuntimeException e) {
+            Printer.println("Error while looking for maze files: " + e.getMessage());
+
+            return;
+        }
+
+        if (files.isEmpty()) {
+            Printer.println("No maze files found from " + settings.getBatchSource());
+
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        SolveStatistics statistics = settings.isMetricsEnabled() ? new SolveStatistics() : null;
+        List<FileResult> results = solveFiles(files, settings, outputDirectory, cache, statistics);
+        printSummary(results, System.nanoTime() - startTime);
+
+        if (cache != null) {
+            Printer.println("Solution cache: " + cache.getStatistics());
+        }
+
+        if (statistics != null) {
+            Printer.println("Solve statistics: " + statistics.getSummary());
+        }
+    }
+
+    /**
+     * Finds the maze files from the given source, which is either a directory, in which case all of the files directly
+     * inside it are returned, or a glob pattern for the file names inside a directory, e.g. "mazes/*.txt". The cluster
+     * index files written next to the maze files by the HIERARCHICAL engine, the tiled maze files written next to
+     * them by the --tiled mode and the solution files written by an earlier batch run are skipped.
+     *
+     * @param source directory or glob pattern
+     * @return paths of the found files sorted by name
+     * @throws IOException if the directory could not be read
+     */
+    private static List<Path> findMazeFiles(String source) throws IOException {
+        Path directory;
+        PathMatcher matcher;
+
+        if (Files.isDirectory(Path.of(source))) {
+            directory = Path.of(source);
+            matcher = path -> true;
+        } else {
+            // The pattern is split off manually since glob characters are not allowed in paths on every platform
+            int separatorIndex = Math.max(source.lastIndexOf('/'), source.lastIndexOf(File.separatorChar));
+            directory = Path.of(separatorIndex >= 0 ? source.substring(0, separatorIndex + 1) : ".");
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + source.substring(separatorIndex + 1));
+        }
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(path.getFileName()))
+                    .filter(path -> !path.getFileName().toString().endsWith(ClusterIndex.FILE_ENDING))
+                    .filter(path -> !path.getFileName().toString().endsWith(TiledMaze.FILE_ENDING))
+                    .filter(path -> !path.getFileName().toString().startsWith(SOLUTION_FILE_PREFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Handles the given files concurrently on at most Settings.getWorkerCount() workers.
+     *
+     * @return results of the files in the same order as the files
+     */
+    private static List<FileResult> solveFiles(List<Path> files, Settings settings, Path outputDirectory,
+                                               SolutionCache cache, SolveStatistics statistics) {
+        var permits = new Semaphore(settings.getWorkerCount());
+        ExecutorService executor = createExecutor(settings.getWorkerCount());
+        List<Future<FileResult>> futures = new ArrayList<>(files.size());
+
+        try {
+            for (Path file : files) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+
+                    try {
+                        return solveFile(file, settings, outputDirectory, cache, statistics);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<FileResult> results = new ArrayList<>(files.size());
+
+            for (int i = 0; i < files.size(); i++) {
+                results.add(awaitResult(futures.get(i), files.get(i)));
+            }
+
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates an executor which runs every task in a new virtual thread if the JDK supports them (Java 21+), or
+     * otherwise a pool of the given amount of platform threads.
+     */
+    private static ExecutorService createExecutor(int workerCount) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(workerCount);
+        }
+    }
+
+    private static FileResult awaitResult(Future<FileResult> future, Path file) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Printer.println("Error while solving " + file + ": " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return new FileResult(file);
+    }
+
+    /**
+     * Parses and solves the maze of the given file, or looks its solution up from the cache if there is one, and writes
+     * the solution into the output directory if the maze was solved. The metrics of the solve are recorded into the
+     * statistics if there are any.
+     *
+     * @return result of the file
+     * @throws IOException thrown by IOUtil.close() while hashing, parsing or writing
+     */
+    private static FileResult solveFile(Path file, Settings settings, Path outputDirectory, SolutionCache cache,
+                                        SolveStatistics statistics) throws IOException {
+        var result = new FileResult(file);
+
+        long startTime = System.nanoTime();
+        SolutionCache.Key key = cache != null
+                ? SolutionCache.createKey(file.toString(), settings.getEngine(), settings.getLimits(),
+                        settings.getSolutionFormat())
+                : null;
+        MazeSolution solution = key != null ? cache.get(key) : null;
+        result.cached = solution != null;
+        SolveMetrics metrics = null;
+
+        if (solution == null) {
+            metrics = new SolveMetrics(settings.getEngine());
+            metrics.startPhase(SolveMetrics.Phase.PARSE);
+            Maze maze = MazeParser.parseMaze(file.toString(), settings.getParserMode());
+            metrics.endPhase(SolveMetrics.Phase.PARSE);
+            long parsedTime = System.nanoTime();
+            result.parseNanos = parsedTime - startTime;
+
+            if (maze == null) {
+                result.status = FileStatus.INVALID_FILE;
+
+                return result;
+            }
+
+            if (settings.getEngine() == SolverEngine.HIERARCHICAL) {
+                loadClusterIndex(maze, file);
+            }
+
+            MazeSolver.attemptToSolveMaze(maze, settings.getEngine(), settings.getLimits(), metrics);
+            metrics.startPhase(SolveMetrics.Phase.RENDER);
+            solution = MazeSolution.of(maze, settings.getSolutionFormat());
+            metrics.endPhase(SolveMetrics.Phase.RENDER);
+            result.solveNanos = System.nanoTime() - parsedTime;
+
+            if (key != null) {
+                cache.put(key, solution);
+            }
+        } else {
+            result.parseNanos = System.nanoTime() - startTime;
+        }
+
+        long solvedTime = System.nanoTime();
+        result.status = FileStatus.valueOf(solution.getSolutionStatus().name());
+
+        if (solution.getSolutionStatus() == SolutionStatus.SUCCESS) {
+            result.stepCount = solution.getStepCount();
+            if (writeSolutionFile(solution, file, outputDirectory, metrics) == null) {
+                result.status = FileStatus.WRITE_ERROR;
+            }
+
+            result.writeNanos = System.nanoTime() - solvedTime;
+        }
+
+        // Recorded only once the solution has been written, since writing it is part of the RENDER phase
+        if (statistics != null && metrics != null) {
+            statistics.record(metrics);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the ClusterIndex of the given maze from the index file next to the given maze file, or computes it and
+     * writes it there if the file does not match the maze, so that the index is computed only once per maze file.
+     */
+    private static void loadClusterIndex(Maze maze, Path file) {
+        try {
+            ClusterIndex.loadOrCompute(maze, ClusterIndex.getIndexFile(file));
+        } catch (IOException e) {
+            Printer.println("Was unable to write the cluster index of " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the given solution of the given maze file into the output directory, e.g. the solution of "maze.txt" into
+     * "solution-maze.txt", or into "solution-maze.path" in the PATH format.
+     *
+     * @param metrics into which the writing is measured as the RENDER phase, null if the solution was cached
+     * @return the name of the written file, null if the file could not be written
+     * @throws IOException caused by IOUtil.close
+     */
+    private static String writeSolutionFile(MazeSolution solution, Path file, Path outputDirectory,
+                                            SolveMetrics metrics) throws IOException {
+        if (metrics == null) {
+            return writeSolutionFile(solution, file, outputDirectory);
+        }
+
+        metrics.startPhase(SolveMetrics.Phase.RENDER);
+
+        try {
+            return writeSolutionFile(solution, file, outputDirectory);
+        } finally {
+            metrics.endPhase(SolveMetrics.Phase.RENDER);
+        }
+    }
+
+    private static String writeSolutionFile(MazeSolution solution, Path file, Path outputDirectory)
+            throws IOException {
+        String filename = file.getFileName().toString();
+
+        if (solution.getSolutionFormat() == SolutionFormat.PATH) {
+            int extensionIndex = filename.lastIndexOf('.');
+            String pathFilename = (extensionIndex > 0 ? filename.substring(0, extensionIndex) : filename)
+                    + SolutionPath.FILE_ENDING;
+            Path solutionFile = outputDirectory.resolve(SOLUTION_FILE_PREFIX + pathFilename);
+
+            return SolutionWriter.writeSolutionGraphicIntoTextFile(solution.getSolutionPath() + "\n",
+                    solutionFile.toString());
+        }
+
+        Path solutionFile = outputDirectory.resolve(SOLUTION_FILE_PREFIX + filename);
+
+        return SolutionWriter.writeSolution(solution, null, solutionFile.toString());
+    }
+
+    private static void printSummary(List<FileResult> results, long totalNanos) {
+        Map<FileStatus, Integer> statusCounts = new EnumMap<>(FileStatus.class);
+
+        Printer.println();
+        Printer.println(String.format("%-12s %8s %6s %10s %10s %10s  %s", "Status", "Steps", "Cached", "Parse ms",
+                "Solve ms", "Write ms", "File"));
+
+        for (FileResult result : results) {
+            statusCounts.merge(result.status, 1, Integer::sum);
+            String steps = result.status == FileStatus.SUCCESS || result.status == FileStatus.WRITE_ERROR
+                    ? String.valueOf(result.stepCount)
+                    : "-";
+
+            Printer.println(String.format("%-12s %8s %6s %10.1f %10.1f %10.1f  %s", result.status, steps,
+                    result.cached ? "yes" : "no",
+                    result.parseNanos / NANOS_PER_MILLI, result.solveNanos / NANOS_PER_MILLI,
+                    result.writeNanos / NANOS_PER_MILLI, result.file));
+        }
+
+        Printer.println();
+        Printer.println("Handled " + results.size() + " files in " + Math.round(totalNanos / NANOS_PER_MILLI) + " ms: "
+                + statusCounts);
+    }
+}
@@ -1,7 +1,582 @@
 package com.maze.main;
 
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+import com.maze.domain.TiledMaze;
+import com.maze.util.BinaryMazeFormat;
+import com.maze.util.IOUtil;
+import com.maze.util.MazeGenerator;
+import com.maze.util.MazeParser;
+import com.maze.util.MazeSolver;
+import com.maze.util.MazeTopology;
+import com.maze.util.ParserMode;
+import com.maze.util.MazeSolution;
+import com.maze.util.Printer;
+import com.maze.util.SolutionFormat;
+import com.maze.util.SolutionPath;
+import com.maze.util.SolutionWriter;
+import com.maze.util.SolverEngine;
+import com.maze.util.TiledMazeParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class Main {
+    private static final String ENGINE_OPTION = "--engine=";
+    private static final String LIMITS_OPTION = "--limits=";
+    private static final String PARSER_OPTION = "--parser=";
+    private static final String BATCH_OPTION = "--batch=";
+    private static final String WORKERS_OPTION = "--workers=";
+    private static final String OUTPUT_OPTION = "--output=";
+    private static final String CONVERT_OPTION = "--convert=";
+    private static final String CACHE_OPTION = "--cache=";
+    private static final String CACHE_DIRECTORY_OPTION = "--cache-dir=";
+    private static final String GENERATE_OPTION = "--generate=";
+    private static final String SIZE_OPTION = "--size=";
+    private static final String EXITS_OPTION = "--exits=";
+    private static final String SEED_OPTION = "--seed=";
+    private static final String FORMAT_OPTION = "--format=";
+    private static final String METRICS_OPTION = "--metrics";
+    private static final String SOLUTION_OPTION = "--solution=";
+    private static final String REPLAY_OPTION = "--replay=";
+    private static final String REPLAY_MAZE_OPTION = "--replay-maze=";
+    private static final String TILED_OPTION = "--tiled=";
+    private static final String TILED_DIRECTORY_OPTION = "--tiled-dir=";
+    private static final String SERVE_OPTION = "--serve=";
+    private static final String QUEUE_OPTION = "--queue=";
+    private static final String SOLUTION_FILE_PREFIX = "solution-";
+    private static final String TEXT_FORMAT = "text";
+    private static final String BINARY_FORMAT = "binary";
+    private static final String UNBOUNDED = "unbounded";
+
     public static void main(String[] args) {
-        UI.start();
+        var settings = new Settings();
+
+        for (String arg : args) {
+            if (!parseArgument(arg, settings)) {
+                printUsage();
+                return;
+            }
+        }
+
+        if (settings.getGenerateTopology() != null) {
+            generateMazeFile(settings);
+        } else if (settings.getConvertSource() != null) {
+            convertIntoBinaryFormat(settings);
+        } else if (settings.getReplaySource() != null) {
+            replaySolutionPath(settings);
+        } else if (settings.getTiledSource() != null) {
+            solveTiledMaze(settings);
+        } else if (settings.getServePort() >= 0) {
+            SolveServer.run(settings);
+        } else if (settings.getBatchSource() != null) {
+            BatchRunner.run(settings);
+        } else {
+            UI.start(settings);
+        }
+    }
+
+    /**
+     * Parses a single command line argument into the given settings.
+     * @param arg command line argument, e.g. "--engine=a_star"
+     * @param settings into which the parsed option is set
+     * @return true if the argument was valid, false otherwise
+     */
+    private static boolean parseArgument(String arg, Settings settings) {
+        if (arg.startsWith(ENGINE_OPTION)) {
+            SolverEngine engine = parseEngine(arg.substring(ENGINE_OPTION.length()));
+
+            if (engine != null) {
+                settings.setEngine(engine);
+            }
+
+            return engine != null;
+        } else if (arg.startsWith(LIMITS_OPTION)) {
+            List<Integer> limits = parseLimits(arg.substring(LIMITS_OPTION.length()));
+
+            if (limits != null) {
+                settings.setLimits(limits);
+            }
+
+            return limits != null;
+        } else if (arg.startsWith(PARSER_OPTION)) {
+            ParserMode parserMode = parseParserMode(arg.substring(PARSER_OPTION.length()));
+
+            if (parserMode != null) {
+                settings.setParserMode(parserMode);
+            }
+
+            return parserMode != null;
+        } else if (arg.startsWith(BATCH_OPTION)) {
+            settings.setBatchSource(arg.substring(BATCH_OPTION.length()));
+
+            return true;
+        } else if (arg.startsWith(WORKERS_OPTION)) {
+            int workerCount = parsePositiveInteger(arg.substring(WORKERS_OPTION.length()), "Worker count");
+
+            if (workerCount > 0) {
+                settings.setWorkerCount(workerCount);
+            }
+
+            return workerCount > 0;
+        } else if (arg.startsWith(OUTPUT_OPTION)) {
+            settings.setOutputDirectory(arg.substring(OUTPUT_OPTION.length()));
+
+            return true;
+        } else if (arg.startsWith(CONVERT_OPTION)) {
+            settings.setConvertSource(arg.substring(CONVERT_OPTION.length()));
+
+            return true;
+        } else if (arg.startsWith(CACHE_OPTION)) {
+            long cacheCapacity = parseCacheCapacity(arg.substring(CACHE_OPTION.length()));
+
+            if (cacheCapacity > 0) {
+                settings.setCacheCapacity(cacheCapacity);
+            }
+
+            return cacheCapacity > 0;
+        } else if (arg.startsWith(CACHE_DIRECTORY_OPTION)) {
+            settings.setCacheDirectory(arg.substring(CACHE_DIRECTORY_OPTION.length()));
+
+            return true;
+        } else if (arg.startsWith(GENERATE_OPTION)) {
+            MazeTopology topology = parseTopology(arg.substring(GENERATE_OPTION.length()));
+
+            if (topology != null) {
+                settings.setGenerateTopology(topology);
+            }
+
+            return topology != null;
+        } else if (arg.startsWith(SIZE_OPTION)) {
+            return parseSize(arg.substring(SIZE_OPTION.length()), settings);
+        } else if (arg.startsWith(EXITS_OPTION)) {
+            int exitCount = parsePositiveInteger(arg.substring(EXITS_OPTION.length()), "Exit count");
+
+            if (exitCount > 0) {
+                settings.setGenerateExitCount(exitCount);
+            }
+
+            return exitCount > 0;
+        } else if (arg.startsWith(SEED_OPTION)) {
+            try {
+                settings.setGenerateSeed(Long.parseLong(arg.substring(SEED_OPTION.length()).trim()));
+
+                return true;
+            } catch (NumberFormatException e) {
+                Printer.println("Seed must be an integer");
+
+                return false;
+            }
+        } else if (arg.startsWith(FORMAT_OPTION)) {
+            String format = arg.substring(FORMAT_OPTION.length());
+
+            if (!BINARY_FORMAT.equalsIgnoreCase(format) && !TEXT_FORMAT.equalsIgnoreCase(format)) {
+                Printer.println("Format must be " + TEXT_FORMAT + " or " + BINARY_FORMAT);
+
+                return false;
+            }
+
+            settings.setGenerateBinary(BINARY_FORMAT.equalsIgnoreCase(format));
+
+            return true;
+        } else if (arg.equals(METRICS_OPTION)) {
+            settings.setMetricsEnabled(true);
+
+            return true;
+        } else if (arg.startsWith(SOLUTION_OPTION)) {
+            SolutionFormat solutionFormat = parseSolutionFormat(arg.substring(SOLUTION_OPTION.length()));
+
+            if (solutionFormat != null) {
+                settings.setSolutionFormat(solutionFormat);
+            }
+
+            return solutionFormat != null;
+        } else if (arg.startsWith(REPLAY_OPTION)) {
+            settings.setReplaySource(arg.substring(REPLAY_OPTION.length()));
+
+            return true;
+        } else if (arg.startsWith(REPLAY_MAZE_OPTION)) {
+            settings.setReplayMaze(arg.substring(REPLAY_MAZE_OPTION.length()));
+
+            return true;
+        } else if (arg.startsWith(TILED_OPTION)) {
+            settings.setTiledSource(arg.substring(TILED_OPTION.length()));
+
+            return true;
+        } else if (arg.startsWith(TILED_DIRECTORY_OPTION)) {
+            settings.setTiledDirectory(arg.substring(TILED_DIRECTORY_OPTION.length()));
+
+            return true;
+        } else if (arg.startsWith(SERVE_OPTION)) {
+            int port = parsePort(arg.substring(SERVE_OPTION.length()));
+
+            if (port >= 0) {
+                settings.setServePort(port);
+            }
+
+            return port >= 0;
+        } else if (arg.startsWith(QUEUE_OPTION)) {
+            int queueLength = parsePositiveInteger(arg.substring(QUEUE_OPTION.length()), "Queue length");
+
+            if (queueLength > 0) {
+                settings.setQueueLength(queueLength);
+            }
+
+            return queueLength > 0;
+        }
+
+        Printer.println("Unknown argument " + arg);
+
+        return false;
+    }
+
+    /**
+     * Converts the maze file given in the settings into the binary maze format. The binary file is written into the
+     * output directory with the same name as the maze file, but with the binary file ending, e.g. "maze.txt" is
+     * converted into "maze.mazeb".
+     * @param settings Settings with the file to be converted, the parser mode and the output directory
+     */
+    private static void convertIntoBinaryFormat(Settings settings) {
+        try {
+            Maze maze = MazeParser.parseMaze(settings.getConvertSource(), settings.getParserMode());
+
+            if (maze == null) {
+                return;
+            }
+
+            String filename = Path.of(settings.getConvertSource()).getFileName().toString();
+            int extensionIndex = filename.lastIndexOf('.');
+            String binaryFilename = (extensionIndex > 0 ? filename.substring(0, extensionIndex) : filename)
+                    + BinaryMazeFormat.FILE_ENDING;
+            Path binaryFile = Files.createDirectories(Path.of(settings.getOutputDirectory())).resolve(binaryFilename);
+
+            BinaryMazeFormat.write(maze, binaryFile);
+            Printer.println("Maze written into " + binaryFile);
+        } catch (IOException e) {
+            Printer.println("Error while converting the maze: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays the solution path file given in the settings onto the replay maze and writes the solution graphic into
+     * the output directory with the name of the maze file prefixed with "solution-", like the batch mode would.
+     * @param settings Settings with the solution path file, the maze file, the parser mode and the output directory
+     */
+    private static void replaySolutionPath(Settings settings) {
+        if (settings.getReplayMaze() == null) {
+            Printer.println("The maze file of the solution path must be given with " + REPLAY_MAZE_OPTION);
+
+            return;
+        }
+
+        try {
+            Maze maze = MazeParser.parseMaze(settings.getReplayMaze(), settings.getParserMode());
+
+            if (maze == null) {
+                return;
+            }
+
+            String encodedPath = Files.readString(Path.of(settings.getReplaySource()));
+            SolutionPath.replay(maze, encodedPath);
+
+            String filename = SOLUTION_FILE_PREFIX + Path.of(settings.getReplayMaze()).getFileName();
+            Path solutionFile = Files.createDirectories(Path.of(settings.getOutputDirectory())).resolve(filename);
+
+            if (SolutionWriter.writeSolution(MazeSolution.of(maze), null, solutionFile.toString()) != null) {
+                Printer.println("Solution with " + maze.getCurrentStepCount() + " steps written into " + solutionFile);
+            }
+        } catch (IOException e) {
+            Printer.println("Error while replaying the solution path: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            Printer.println("Invalid solution path: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses the maze text file given in the settings into a tiled maze file, unless it has already been parsed, and
+     * solves it within the step limits without keeping the maze in memory. The solution path is written into the output
+     * directory with the name of the maze file prefixed with "solution-" and the path file ending, e.g.
+     * "solution-maze.path" for "maze.txt", since a solution graphic would be as large as the maze.
+     * @param settings Settings with the maze file, the tiled maze directory, the limits and the output directory
+     */
+    private static void solveTiledMaze(Settings settings) {
+        Path mazeFile = Path.of(settings.getTiledSource());
+        TiledMaze maze = null;
+
+        try {
+            Path tiledDirectory = settings.getTiledDirectory() != null
+                    ? Files.createDirectories(Path.of(settings.getTiledDirectory()))
+                    : null;
+            Path tiledFile = TiledMazeParser.getTiledFile(mazeFile, tiledDirectory);
+            maze = TiledMazeParser.parseTiledMaze(settings.getTiledSource(), tiledFile);
+
+            if (maze == null) {
+                return;
+            }
+
+            MazeSolver.attemptToSolveMaze(maze, settings.getLimits(), tiledFile.toAbsolutePath().getParent());
+
+            if (maze.getSolutionStatus() == SolutionStatus.ERROR) {
+                return;
+            }
+
+            String stepLimit = maze.getStepLimit() == MazeSolver.UNBOUNDED_LIMIT
+                    ? "any amount of"
+                    : String.valueOf(maze.getStepLimit());
+
+            if (maze.getSolutionStatus() != SolutionStatus.SUCCESS) {
+                Printer.println("Maze was not solvable within " + stepLimit + " steps");
+
+                return;
+            }
+
+            String filename = mazeFile.getFileName().toString();
+            int extensionIndex = filename.lastIndexOf('.');
+            String pathFilename = SOLUTION_FILE_PREFIX
+                    + (extensionIndex > 0 ? filename.substring(0, extensionIndex) : filename) + SolutionPath.FILE_ENDING;
+            Path pathFile = Files.createDirectories(Path.of(settings.getOutputDirectory())).resolve(pathFilename);
+
+            try (var writer = Files.newBufferedWriter(pathFile)) {
+                SolutionPath.write(maze, writer);
+            }
+
+            Printer.println("Maze was solvable within " + stepLimit + " steps");
+            Printer.println("Solution path with " + maze.getCurrentStepCount() + " steps written into " + pathFile);
+        } catch (IOException e) {
+            Printer.println("Error while solving the tiled maze: " + e.getMessage());
+        } finally {
+            try {
+                IOUtil.close(maze);
+            } catch (IOException e) {
+                Printer.println("Error while closing the tiled maze: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Generates a maze according to the settings and writes it into the output directory, e.g. a perfect maze of
+     * 1001x1001 generated with the seed 7 is written into "perfect-1001x1001-seed7.txt". The amount of exits is added to
+     * the name if there are several, e.g. "perfect-1001x1001-5exits-seed7.txt".
+     * @param settings Settings with the topology, size, exit count and seed of the maze, the format and the output
+     *                 directory
+     */
+    private static void generateMazeFile(Settings settings) {
+        try {
+            MazeGenerator generator = settings.createMazeGenerator();
+            String filename = settings.getGenerateTopology().name().toLowerCase() + "-" + settings.getGenerateHeight()
+                    + "x" + settings.getGenerateWidth()
+                    + (settings.getGenerateExitCount() > 1 ? "-" + settings.getGenerateExitCount() + "exits" : "")
+                    + "-seed" + settings.getGenerateSeed()
+                    + (settings.isGenerateBinary() ? BinaryMazeFormat.FILE_ENDING : ".txt");
+            Path file = Files.createDirectories(Path.of(settings.getOutputDirectory())).resolve(filename);
+
+            if (settings.isGenerateBinary()) {
+                generator.writeBinaryFile(file);
+            } else {
+                generator.writeTextFile(file);
+            }
+
+            Printer.println("Maze written into " + file);
+        } catch (IOException | IllegalArgumentException e) {
+            Printer.println("Error while generating the maze: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a MazeTopology from the given name (case insensitive).
+     * @param name of the MazeTopology, e.g. "perfect"
+     * @return the parsed MazeTopology, null if there is no MazeTopology with the given name
+     */
+    private static MazeTopology parseTopology(String name) {
+        return Arrays.stream(MazeTopology.values())
+                .filter(topology -> topology.name().equalsIgnoreCase(name))
+                .findAny()
+                .orElse(null);
+    }
+
+    /**
+     * Parses the size of the generated maze in the form "heightxwidth", e.g. "1001x2001", into the given settings.
+     * @param value size of the maze
+     * @param settings into which the parsed size is set
+     * @return true if the size was valid, false otherwise
+     */
+    private static boolean parseSize(String value, Settings settings) {
+        String[] parts = value.toLowerCase().split("x");
+
+        if (parts.length == 2) {
+            int height = parsePositiveInteger(parts[0], "Height");
+            int width = height > 0 ? parsePositiveInteger(parts[1], "Width") : 0;
+
+            if (width > 0) {
+                settings.setGenerateSize(height, width);
+
+                return true;
+            }
+
+            return false;
+        }
+
+        Printer.println("Size must be given as <height>x<width>, e.g. 1001x1001");
+
+        return false;
+    }
+
+    /**
+     * Parses a positive integer.
+     * @param value to be parsed
+     * @param name of the value for the error message, e.g. "Exit count"
+     * @return the parsed integer, 0 if it was not a positive integer
+     */
+    private static int parsePositiveInteger(String value, String name) {
+        try {
+            int integer = Integer.parseInt(value.trim());
+
+            if (integer > 0) {
+                return integer;
+            }
+        } catch (NumberFormatException e) {
+            // Handled below like a non-positive integer
+        }
+
+        Printer.println(name + " must be a positive integer");
+
+        return 0;
+    }
+
+    /**
+     * Parses a port number.
+     * @param value to be parsed
+     * @return the parsed port between 0 and 65535, -1 if it was not a valid port
+     */
+    private static int parsePort(String value) {
+        try {
+            int port = Integer.parseInt(value.trim());
+
+            if (port >= 0 && port <= 65535) {
+                return port;
+            }
+        } catch (NumberFormatException e) {
+            // Handled below like a port out of range
+        }
+
+        Printer.println("Port must be an integer between 0 and 65535");
+
+        return -1;
+    }
+
+    /**
+     * Parses a SolverEngine from the given name (case insensitive).
+     * @param name of the SolverEngine, e.g. "indexed_bfs"
+     * @return the parsed SolverEngine, null if there is no SolverEngine with the given name
+     */
+    private static SolverEngine parseEngine(String name) {
+        return Arrays.stream(SolverEngine.values())
+                .filter(engine -> engine.name().equalsIgnoreCase(name))
+                .findAny()
+                .orElse(null);
+    }
+
+    /**
+     * Parses a ParserMode from the given name (case insensitive).
+     * @param name of the ParserMode, e.g. "mapped"
+     * @return the parsed ParserMode, null if there is no ParserMode with the given name
+     */
+    private static ParserMode parseParserMode(String name) {
+        return Arrays.stream(ParserMode.values())
+                .filter(mode -> mode.name().equalsIgnoreCase(name))
+                .findAny()
+                .orElse(null);
+    }
+
+    /**
+     * Parses a SolutionFormat from the given name (case insensitive).
+     * @param name of the SolutionFormat, e.g. "path"
+     * @return the parsed SolutionFormat, null if there is no SolutionFormat with the given name
+     */
+    private static SolutionFormat parseSolutionFormat(String name) {
+        return Arrays.stream(SolutionFormat.values())
+                .filter(format -> format.name().equalsIgnoreCase(name))
+                .findAny()
+                .orElse(null);
+    }
+
+    /**
+     * Parses the maximum amount of tiles in the solutions kept in the solution cache.
+     * @param value maximum amount of tiles
+     * @return the parsed amount of tiles, 0 if it was not a positive integer
+     */
+    private static long parseCacheCapacity(String value) {
+        try {
+            long cacheCapacity = Long.parseLong(value.trim());
+
+            if (cacheCapacity > 0) {
+                return cacheCapacity;
+            }
+        } catch (NumberFormatException e) {
+            // Handled below like a non-positive amount
+        }
+
+        Printer.println("Cache capacity must be a positive integer");
+
+        return 0;
+    }
+
+    /**
+     * Parses a comma separated list of step limits, e.g. "20,150,200". The word "unbounded" can be used as a limit which
+     * does not restrict the solution length at all.
+     * @param value comma separated list of step limits
+     * @return List of the parsed step limits, null if the limits were not positive integers in ascending order
+     */
+    private static List<Integer> parseLimits(String value) {
+        List<Integer> limits = new ArrayList<>();
+        int previousLimit = 0;
+
+        for (String part : value.split(",")) {
+            int limit;
+
+            try {
+                limit = UNBOUNDED.equalsIgnoreCase(part.trim())
+                        ? MazeSolver.UNBOUNDED_LIMIT
+                        : Integer.parseInt(part.trim());
+            } catch (NumberFormatException e) {
+                Printer.println("Invalid step limit " + part);
+
+                return null;
+            }
+
+            if (limit <= previousLimit) {
+                Printer.println("Step limits must be positive and in ascending order");
+
+                return null;
+            }
+
+            limits.add(limit);
+            previousLimit = limit;
+        }
+
+        return limits;
+    }
+
+    private static void printUsage() {
+        Printer.println("Usage: java -jar jarname [" + ENGINE_OPTION + "<engine>] [" + LIMITS_OPTION + "<limit,...>] ["
+                + PARSER_OPTION + "<parser>] [" + SOLUTION_OPTION + "<format>] [" + METRICS_OPTION + "] ["
+                + BATCH_OPTION + "<directory or glob> [" + WORKERS_OPTION + "<count>] [" + OUTPUT_OPTION
+                + "<directory>]] [" + CONVERT_OPTION + "<maze file> [" + OUTPUT_OPTION + "<directory>]] ["
+                + CACHE_OPTION + "<max tiles>] [" + CACHE_DIRECTORY_OPTION + "<directory>] [" + GENERATE_OPTION
+                + "<topology> [" + SIZE_OPTION + "<height>x<width>] [" + EXITS_OPTION + "<count>] [" + SEED_OPTION
+                + "<seed>] [" + FORMAT_OPTION + TEXT_FORMAT + "|" + BINARY_FORMAT + "] [" + OUTPUT_OPTION
+                + "<directory>]] [" + REPLAY_OPTION + "<path file> " + REPLAY_MAZE_OPTION + "<maze file> ["
+                + OUTPUT_OPTION + "<directory>]] [" + TILED_OPTION + "<maze file> [" + TILED_DIRECTORY_OPTION
+                + "<directory>] [" + OUTPUT_OPTION + "<directory>]] [" + SERVE_OPTION + "<port> [" + WORKERS_OPTION
+                + "<count>] [" + QUEUE_OPTION + "<length>]]");
+        Printer.println("Available engines: " + Arrays.toString(SolverEngine.values()));
+        Printer.println("Available parsers: " + Arrays.toString(ParserMode.values()));
+        Printer.println("Available topologies: " + Arrays.toString(MazeTopology.values()));
+        Printer.println("Available solution formats: " + Arrays.toString(SolutionFormat.values()));
+        Printer.println("Step limits are given in ascending order, e.g. 20,150,200 or 100," + UNBOUNDED);
     }
 }
@@ -0,0 +1,361 @@
+package com.maze.main;
+
+import com.maze.util.MazeGenerator;
+import com.maze.util.MazeSolver;
+import com.maze.util.MazeTopology;
+import com.maze.util.ParserMode;
+import com.maze.util.SolutionCache;
+import com.maze.util.SolutionFormat;
+import com.maze.util.SolverEngine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Options given from the command line which affect how the mazes are parsed and solved.
+ */
+public class Settings {
+    /**
+     * Maximum amount of tiles in the solutions kept in memory if the solutions are cached only on disk.
+     */
+    public static final long DEFAULT_CACHE_CAPACITY = 64_000_000;
+
+    /**
+     * Height and width of the generated mazes unless given.
+     */
+    public static final int DEFAULT_GENERATED_SIZE = 101;
+
+    /**
+     * Maximum amount of requests waiting for a worker in server mode unless given.
+     */
+    public static final int DEFAULT_QUEUE_LENGTH = 64;
+
+    private SolverEngine engine = SolverEngine.BFS;
+    private List<Integer> limits = MazeSolver.DEFAULT_LIMITS;
+    private ParserMode parserMode = ParserMode.READER;
+    private String batchSource;
+    private int workerCount = Runtime.getRuntime().availableProcessors();
+    private String outputDirectory = ".";
+    private String convertSource;
+    private long cacheCapacity;
+    private String cacheDirectory;
+    private MazeTopology generateTopology;
+    private int generateHeight = DEFAULT_GENERATED_SIZE;
+    private int generateWidth = DEFAULT_GENERATED_SIZE;
+    private int generateExitCount = 1;
+    private long generateSeed;
+    private boolean generateBinary;
+    private boolean metricsEnabled;
+    private SolutionFormat solutionFormat = SolutionFormat.GRID;
+    private String replaySource;
+    private String replayMaze;
+    private String tiledSource;
+    private String tiledDirectory;
+    private int servePort = -1;
+    private int queueLength = DEFAULT_QUEUE_LENGTH;
+
+    public SolverEngine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(SolverEngine engine) {
+        if (engine == null) {
+            throw new NullPointerException("Solver engine cannot be null");
+        }
+
+        this.engine = engine;
+    }
+
+    public List<Integer> getLimits() {
+        return limits;
+    }
+
+    public void setLimits(List<Integer> limits) {
+        if (limits == null) {
+            throw new NullPointerException("Step limits cannot be null");
+        }
+
+        this.limits = limits;
+    }
+
+    public ParserMode getParserMode() {
+        return parserMode;
+    }
+
+    public void setParserMode(ParserMode parserMode) {
+        if (parserMode == null) {
+            throw new NullPointerException("Parser mode cannot be null");
+        }
+
+        this.parserMode = parserMode;
+    }
+
+    /**
+     * Returns the directory or glob pattern of the maze files to be solved in batch mode.
+     * @return directory or glob pattern, e.g. "mazes" or "mazes/*.txt", null if the mazes are solved interactively
+     */
+    public String getBatchSource() {
+        return batchSource;
+    }
+
+    public void setBatchSource(String batchSource) {
+        this.batchSource = batchSource;
+    }
+
+    /**
+     * Returns the maze text file to be converted into the binary maze format.
+     * @return path of the file, null if no file is converted
+     */
+    public String getConvertSource() {
+        return convertSource;
+    }
+
+    public void setConvertSource(String convertSource) {
+        this.convertSource = convertSource;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public void setWorkerCount(int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+
+        this.workerCount = workerCount;
+    }
+
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(String outputDirectory) {
+        if (outputDirectory == null) {
+            throw new NullPointerException("Output directory cannot be null");
+        }
+
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Returns the maximum total amount of tiles in the solutions kept in the in-memory solution cache.
+     * @return maximum amount of cached tiles, 0 if the solutions are not cached
+     */
+    public long getCacheCapacity() {
+        return cacheCapacity;
+    }
+
+    public void setCacheCapacity(long cacheCapacity) {
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException("Cache capacity cannot be negative");
+        }
+
+        this.cacheCapacity = cacheCapacity;
+    }
+
+    public String getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(String cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Creates a SolutionCache according to the cache capacity and directory. If only the directory has been given,
+     * the in-memory part of the cache has the default capacity.
+     *
+     * @return a new SolutionCache, null if neither the cache capacity nor the cache directory has been given
+     * @throws IOException if the cache directory could not be created
+     */
+    public SolutionCache createSolutionCache() throws IOException {
+        if (cacheCapacity == 0 && cacheDirectory == null) {
+            return null;
+        }
+
+        return new SolutionCache(cacheCapacity > 0 ? cacheCapacity : DEFAULT_CACHE_CAPACITY,
+                cacheDirectory != null ? Path.of(cacheDirectory) : null);
+    }
+
+    /**
+     * Returns the topology of the maze to be generated.
+     * @return topology of the maze, null if no maze is generated
+     */
+    public MazeTopology getGenerateTopology() {
+        return generateTopology;
+    }
+
+    public void setGenerateTopology(MazeTopology generateTopology) {
+        this.generateTopology = generateTopology;
+    }
+
+    public int getGenerateHeight() {
+        return generateHeight;
+    }
+
+    public int getGenerateWidth() {
+        return generateWidth;
+    }
+
+    public void setGenerateSize(int generateHeight, int generateWidth) {
+        if (generateHeight <= 0 || generateWidth <= 0) {
+            throw new IllegalArgumentException("Height and width of the generated maze must be positive");
+        }
+
+        this.generateHeight = generateHeight;
+        this.generateWidth = generateWidth;
+    }
+
+    public int getGenerateExitCount() {
+        return generateExitCount;
+    }
+
+    public void setGenerateExitCount(int generateExitCount) {
+        if (generateExitCount <= 0) {
+            throw new IllegalArgumentException("Exit count of the generated maze must be positive");
+        }
+
+        this.generateExitCount = generateExitCount;
+    }
+
+    public long getGenerateSeed() {
+        return generateSeed;
+    }
+
+    public void setGenerateSeed(long generateSeed) {
+        this.generateSeed = generateSeed;
+    }
+
+    /**
+     * Returns whether the generated maze is written in the binary maze format instead of the text format.
+     * @return true for the binary format, false for the text format
+     */
+    public boolean isGenerateBinary() {
+        return generateBinary;
+    }
+
+    public void setGenerateBinary(boolean generateBinary) {
+        this.generateBinary = generateBinary;
+    }
+
+    /**
+     * Returns whether the metrics of the solves are printed.
+     * @return true if the metrics of every solve and their aggregate statistics are printed, false otherwise
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public SolutionFormat getSolutionFormat() {
+        return solutionFormat;
+    }
+
+    public void setSolutionFormat(SolutionFormat solutionFormat) {
+        if (solutionFormat == null) {
+            throw new NullPointerException("Solution format cannot be null");
+        }
+
+        this.solutionFormat = solutionFormat;
+    }
+
+    /**
+     * Returns the solution path file (see SolutionPath) to be replayed onto the replay maze.
+     * @return path of the file, null if no solution path is replayed
+     */
+    public String getReplaySource() {
+        return replaySource;
+    }
+
+    public void setReplaySource(String replaySource) {
+        this.replaySource = replaySource;
+    }
+
+    /**
+     * Returns the maze file onto which the solution path file is replayed.
+     * @return path of the maze file, null if not given
+     */
+    public String getReplayMaze() {
+        return replayMaze;
+    }
+
+    public void setReplayMaze(String replayMaze) {
+        this.replayMaze = replayMaze;
+    }
+
+    /**
+     * Returns the maze text file to be parsed and solved as a TiledMaze, i.e. without keeping the maze in memory.
+     * @return path of the file, null if no maze is solved out of memory
+     */
+    public String getTiledSource() {
+        return tiledSource;
+    }
+
+    public void setTiledSource(String tiledSource) {
+        this.tiledSource = tiledSource;
+    }
+
+    /**
+     * Returns the directory in which the tiled maze file and the temporary frontier file are kept.
+     * @return path of the directory, null for the directory of the maze file
+     */
+    public String getTiledDirectory() {
+        return tiledDirectory;
+    }
+
+    public void setTiledDirectory(String tiledDirectory) {
+        this.tiledDirectory = tiledDirectory;
+    }
+
+    /**
+     * Returns the port on which the mazes are solved as an HTTP service (see SolveServer).
+     * @return the port, 0 for any free port, -1 if the mazes are not solved as a service
+     */
+    public int getServePort() {
+        return servePort;
+    }
+
+    public void setServePort(int servePort) {
+        if (servePort < -1 || servePort > 65535) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535");
+        }
+
+        this.servePort = servePort;
+    }
+
+    /**
+     * Returns the maximum amount of requests which may wait for a free worker in server mode, beyond which requests are
+     * turned away until the queue has room again.
+     * @return the maximum queue length
+     */
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    public void setQueueLength(int queueLength) {
+        if (queueLength <= 0) {
+            throw new IllegalArgumentException("Queue length must be positive");
+        }
+
+        this.queueLength = queueLength;
+    }
+
+    /**
+     * Creates a MazeGenerator according to the generate options.
+     *
+     * @return a new MazeGenerator, null if no maze is generated
+     * @throws IllegalArgumentException if the size and the exit count of the maze do not fit together
+     */
+    public MazeGenerator createMazeGenerator() {
+        if (generateTopology == null) {
+            return null;
+        }
+
+        return new MazeGenerator(generateTopology, generateHeight, generateWidth, generateExitCount, generateSeed);
+    }
+}
@@ -0,0 +1,453 @@
+package com.maze.main;
+
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+import com.maze.util.LatencyHistogram;
+import com.maze.util.MazeParser;
+import com.maze.util.MazeSolution;
+import com.maze.util.MazeSolver;
+import com.maze.util.Printer;
+import com.maze.util.SolutionCache;
+import com.maze.util.SolutionFormat;
+import com.maze.util.SolutionWriter;
+import com.maze.util.SolveMetrics;
+import com.maze.util.SolveStatistics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server mode which solves mazes sent in HTTP requests, for embedding the solver behind another service. The server
+ * listens on the loopback address only and uses the HTTP server built into the JDK.
+ *
+ * "POST /solve" solves the maze text or binary maze (see BinaryMazeFormat) in the request body with the engine and step
+ * limits of the Settings, and responds with the solution in the solution format of the Settings, which can be
+ * overridden with the query parameter "format", e.g. "/solve?format=grid". The PATH format responds with the encoded
+ * solution path (see SolutionPath) and the GRID format with the solution graphic in plain ASCII, with letters on the
+ * solution path. The status of the solution and its length are also given in the headers "X-Solution-Status" and
+ * "X-Step-Count". A maze which is not solvable within the limits gets 422, an invalid maze 400, and a body larger than
+ * MAX_BODY_SIZE bytes 413.
+ *
+ * The mazes are solved on a fixed pool of Settings.getWorkerCount() workers, and at most Settings.getQueueLength()
+ * requests wait for a free worker. Requests beyond that are answered right away with 503 and a "Retry-After" header,
+ * without reading their bodies, so an overloaded server sheds load instead of piling up memory and latency.
+ *
+ * "GET /stats" responds with the counters of the server as JSON: the amount of requests per response status, the
+ * throughput, the latency percentiles of the solve requests (from receiving the request until the response has been
+ * sent, including the time waiting in the queue) and the solve time percentiles.
+ */
+public class SolveServer {
+    /**
+     * Largest accepted request body in bytes. Larger mazes can be solved from a file with the --tiled mode.
+     */
+    public static final int MAX_BODY_SIZE = 256 * 1024 * 1024;
+
+    private static final String SOLVE_PATH = "/solve";
+    private static final String STATS_PATH = "/stats";
+    private static final String FORMAT_PARAMETER = "format=";
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final Settings settings;
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+    private final SolutionCache cache;
+    private final long startTime = System.nanoTime();
+
+    private final LongAdder receivedRequests = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final Map<Integer, LongAdder> responseCounts = new ConcurrentHashMap<>();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final SolveStatistics solveStatistics = new SolveStatistics();
+
+    /**
+     * Creates a new server and binds it to the port of the given settings on the loopback address. Nothing is served
+     * before start() is called.
+     *
+     * @param settings Options for solving the mazes, getServePort() between 0 and 65535
+     * @throws IOException if the port could not be bound or the solution cache could not be created
+     */
+    public SolveServer(Settings settings) throws IOException {
+        if (settings == null) {
+            throw new NullPointerException("Server mode requires settings");
+        }
+
+        if (settings.getServePort() < 0) {
+            throw new IllegalArgumentException("Server mode requires a port");
+        }
+
+        this.settings = settings;
+        cache = settings.createSolutionCache();
+        workers = createWorkers(settings.getWorkerCount(), settings.getQueueLength());
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.getServePort()), 0);
+        server.createContext(SOLVE_PATH, this::handleSolve);
+        server.createContext(STATS_PATH, this::handleStats);
+    }
+
+    /**
+     * Starts the server and keeps serving until the JVM is shut down, printing the address of the server.
+     *
+     * @param settings Options for solving the mazes, getServePort() between 0 and 65535
+     */
+    public static void run(Settings settings) {
+        SolveServer solveServer;
+
+        try {
+            solveServer = new SolveServer(settings);
+        } catch (IOException e) {
+            Printer.println("Error while starting the server: " + e.getMessage());
+
+            return;
+        }
+
+        solveServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(solveServer::stop));
+        InetSocketAddress address = solveServer.getAddress();
+        Printer.println("Solving mazes at http://" + address.getHostString() + ":" + address.getPort() + SOLVE_PATH
+                + " with " + settings.getWorkerCount() + " workers and a queue of " + settings.getQueueLength()
+                + " requests, statistics at " + STATS_PATH);
+    }
+
+    /**
+     * Creates the pool of workers, which turns away the tasks that do not fit in the queue.
+     */
+    private static ThreadPoolExecutor createWorkers(int workerCount, int queueLength) {
+        var threadNumber = new AtomicInteger();
+
+        return new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLength),
+                task -> new Thread(task, "solve-worker-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, lets the requests being handled finish for a moment and then stops the workers. The
+     * requests still waiting in the queue are dropped.
+     */
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        workers.shutdownNow();
+    }
+
+    /**
+     * Returns the address which the server is bound to.
+     *
+     * @return the loopback address and the port, which is a free port chosen by the system if the settings had 0
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Queues the request for the workers, or answers 503 right away if the queue is full. The bodies are read by the
+     * workers, so that the requests waiting in the queue take no memory for their mazes.
+     */
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        long receivedTime = System.nanoTime();
+        receivedRequests.increment();
+
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            sendText(exchange, 405, "Mazes must be sent with POST");
+
+            return;
+        }
+
+        try {
+            workers.execute(() -> solve(exchange, receivedTime));
+        } catch (RejectedExecutionException e) {
+            rejectedRequests.increment();
+            exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+            sendText(exchange, 503, "Server is busy, try again later");
+        }
+    }
+
+    /**
+     * Reads, solves and answers a single solve request on a worker, looking the solution up from the cache if there is
+     * one.
+     */
+    private void solve(HttpExchange exchange, long receivedTime) {
+        try {
+            SolutionFormat format = parseFormat(exchange.getRequestURI().getRawQuery());
+
+            if (format == null) {
+                sendText(exchange, 400, "Format must be one of " + Arrays.toString(SolutionFormat.values()));
+
+                return;
+            }
+
+            Long length = parseContentLength(exchange.getRequestHeaders().getFirst("Content-Length"));
+
+            if (length == null) {
+                sendText(exchange, 400, "Content-Length must be a non-negative number of bytes");
+
+                return;
+            }
+
+            byte[] body = readBody(exchange, length);
+
+            if (body == null) {
+                sendText(exchange, 413, "Maze cannot be larger than " + MAX_BODY_SIZE + " bytes");
+
+                return;
+            }
+
+            ByteBuffer bytes = ByteBuffer.wrap(body);
+            SolutionCache.Key key = cache != null
+                    ? SolutionCache.createKey(bytes, settings.getEngine(), settings.getLimits(), format)
+                    : null;
+            MazeSolution solution = key != null ? cache.get(key) : null;
+
+            if (solution == null) {
+                solution = solveMaze(bytes, format);
+
+                if (key != null) {
+                    cache.put(key, solution);
+                }
+            }
+
+            sendSolution(exchange, solution);
+        } catch (IllegalArgumentException e) {
+            trySendText(exchange, 400, "The given maze had invalid syntax: " + e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            // The client has most likely gone away, in which case the response goes nowhere either
+            trySendText(exchange, 500, "Error while solving the maze: " + e.getMessage());
+        } finally {
+            exchange.close();
+            latencies.record(System.nanoTime() - receivedTime);
+        }
+    }
+
+    /**
+     * Parses and solves the given maze, measuring the solve into the solve statistics.
+     *
+     * @return solution of the maze
+     * @throws IllegalArgumentException if the maze was in invalid syntax, thrown by MazeParser.parseMaze()
+     */
+    private MazeSolution solveMaze(ByteBuffer bytes, SolutionFormat format) {
+        var metrics = new SolveMetrics(settings.getEngine());
+        metrics.startPhase(SolveMetrics.Phase.PARSE);
+        Maze maze = MazeParser.parseMaze(bytes);
+        metrics.endPhase(SolveMetrics.Phase.PARSE);
+
+        MazeSolver.attemptToSolveMaze(maze, settings.getEngine(), settings.getLimits(), metrics);
+        metrics.startPhase(SolveMetrics.Phase.RENDER);
+        MazeSolution solution = MazeSolution.of(maze, format);
+        metrics.endPhase(SolveMetrics.Phase.RENDER);
+        solveStatistics.record(metrics);
+
+        return solution;
+    }
+
+    /**
+     * Parses the solution format from the given query, e.g. "format=grid".
+     *
+     * @return the format of the query, the format of the settings if the query has none, null if the format is invalid
+     */
+    private SolutionFormat parseFormat(String query) {
+        if (query == null) {
+            return settings.getSolutionFormat();
+        }
+
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith(FORMAT_PARAMETER)) {
+                String name = parameter.substring(FORMAT_PARAMETER.length());
+
+                for (SolutionFormat format : SolutionFormat.values()) {
+                    if (format.name().equalsIgnoreCase(name)) {
+                        return format;
+                    }
+                }
+
+                return null;
+            }
+        }
+
+        return settings.getSolutionFormat();
+    }
+
+    /**
+     * Parses the value of the Content-Length header.
+     *
+     * @param contentLength value of the header, null if the request has none
+     * @return the length in bytes, -1 if the request has no Content-Length, null if the value is not a non-negative
+     * number
+     */
+    private static Long parseContentLength(String contentLength) {
+        if (contentLength == null) {
+            return -1L;
+        }
+
+        try {
+            long length = Long.parseLong(contentLength.trim());
+
+            return length >= 0 ? length : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the whole request body.
+     *
+     * @param length the validated Content-Length of the request, -1 if the request has none
+     * @return the body, null if it is larger than MAX_BODY_SIZE bytes
+     */
+    private static byte[] readBody(HttpExchange exchange, long length) throws IOException {
+        InputStream input = exchange.getRequestBody();
+
+        if (length >= 0) {
+            // The size is known up front, so the body is read straight into an array of the right size
+            return length <= MAX_BODY_SIZE ? input.readNBytes((int) length) : null;
+        }
+
+        byte[] body = input.readNBytes(MAX_BODY_SIZE + 1);
+
+        return body.length <= MAX_BODY_SIZE ? body : null;
+    }
+
+    /**
+     * Answers with the given solution: 200 with the solution path or graphic if the maze was solved, 422 if it was not
+     * solvable within the step limits and 500 if the solving failed.
+     */
+    private void sendSolution(HttpExchange exchange, MazeSolution solution) throws IOException {
+        SolutionStatus status = solution.getSolutionStatus();
+        exchange.getResponseHeaders().set("X-Solution-Status", status.name());
+
+        if (status == SolutionStatus.ERROR) {
+            sendText(exchange, 500, "Error while solving the maze");
+
+            return;
+        }
+
+        String stepLimit = solution.getStepLimit() == MazeSolver.UNBOUNDED_LIMIT
+                ? "any amount of"
+                : String.valueOf(solution.getStepLimit());
+
+        if (status != SolutionStatus.SUCCESS) {
+            sendText(exchange, 422, "Maze was not solvable within " + stepLimit + " steps");
+
+            return;
+        }
+
+        exchange.getResponseHeaders().set("X-Step-Count", String.valueOf(solution.getStepCount()));
+
+        if (solution.getSolutionFormat() == SolutionFormat.PATH) {
+            sendText(exchange, 200, solution.getSolutionPath());
+
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        sendResponseHeaders(exchange, 200, 0); // Chunked, since the graphic is rendered straight into the response
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            SolutionWriter.writeSolutionGraphic(solution, Channels.newChannel(output));
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "GET");
+            sendText(exchange, 405, "Statistics must be requested with GET");
+
+            return;
+        }
+
+        byte[] bytes = getStatistics().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        sendResponseHeaders(exchange, 200, bytes.length);
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Returns the counters of the server.
+     *
+     * @return e.g. {"uptimeSeconds": 60.0, "workers": 8, "active": 2, "queued": 0, "queueLength": 64,
+     *         "received": 1200, "rejected": 3, "responses": {"200": 1190, "422": 7, "503": 3},
+     *         "throughputPerSecond": 19.9, "latencyMillis": {"average": 12.1, "p50": 8.2, "p90": 16.4, "p99": 32.8,
+     *         "max": 40.2}, "solveMillis": {"p50": 4.1, "p90": 8.2, "p99": 16.4}, "cacheHits": 0, "cacheMisses": 0}
+     */
+    public String getStatistics() {
+        double uptimeSeconds = (System.nanoTime() - startTime) / NANOS_PER_SECOND;
+        Map<Integer, Long> responses = new TreeMap<>();
+        responseCounts.forEach((code, count) -> responses.put(code, count.sum()));
+        var responseJson = new StringBuilder();
+
+        for (Map.Entry<Integer, Long> entry : responses.entrySet()) {
+            responseJson.append(responseJson.length() > 0 ? ", " : "")
+                    .append('"').append(entry.getKey()).append("\": ").append(entry.getValue());
+        }
+
+        return String.format(Locale.ROOT, "{\"uptimeSeconds\": %.1f, \"workers\": %d, \"active\": %d, \"queued\": %d, "
+                        + "\"queueLength\": %d, \"received\": %d, \"rejected\": %d, \"responses\": {%s}, "
+                        + "\"throughputPerSecond\": %.1f, \"latencyMillis\": {\"average\": %.1f, \"p50\": %.1f, "
+                        + "\"p90\": %.1f, \"p99\": %.1f, \"max\": %.1f}, \"solveMillis\": {\"p50\": %.1f, "
+                        + "\"p90\": %.1f, \"p99\": %.1f}, \"cacheHits\": %d, \"cacheMisses\": %d}\n",
+                uptimeSeconds, workers.getMaximumPoolSize(), workers.getActiveCount(), workers.getQueue().size(),
+                settings.getQueueLength(), receivedRequests.sum(), rejectedRequests.sum(), responseJson,
+                latencies.getCount() / Math.max(uptimeSeconds, 1e-9), latencies.getAverageMillis(),
+                latencies.getMillisPercentile(50), latencies.getMillisPercentile(90),
+                latencies.getMillisPercentile(99), latencies.getMaxMillis(),
+                solveStatistics.getSolveMillisPercentile(50), solveStatistics.getSolveMillisPercentile(90),
+                solveStatistics.getSolveMillisPercentile(99),
+                cache != null ? cache.getHitCount() : 0, cache != null ? cache.getMissCount() : 0);
+    }
+
+    /**
+     * Answers with the given text and a newline as plain text.
+     */
+    private void sendText(HttpExchange exchange, int statusCode, String text) throws IOException {
+        byte[] bytes = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        sendResponseHeaders(exchange, statusCode, bytes.length);
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Answers like sendText, ignoring the failure if the response could not be sent, e.g. because a response had
+     * already been started or the client has gone away.
+     */
+    private void trySendText(HttpExchange exchange, int statusCode, String text) {
+        try {
+            sendText(exchange, statusCode, text);
+        } catch (IOException | RuntimeException e) {
+            // Nothing more can be done for the request
+        }
+    }
+
+    private void sendResponseHeaders(HttpExchange exchange, int statusCode, long length) throws IOException {
+        exchange.sendResponseHeaders(statusCode, length);
+        responseCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+    }
+}
@@ -1,5 +1,6 @@
 package com.maze.main;
 
+import com.maze.domain.ClusterIndex;
 import com.maze.domain.Maze;
 import com.maze.domain.SolutionStatus;
 import com.maze.util.*;
@@ -7,6 +8,7 @@ import com.maze.util.*;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.util.Objects;
 
 public class UI {
@@ -17,10 +19,25 @@ public class UI {
     /**
      * Starts the main program loop. Will cause an IOException if closing the input reader fails.
      *
+     * @param settings Options for parsing and solving the mazes, not null
      */
-    public static void start() {
+    public static void start(Settings settings) {
+        if (settings == null) {
+            throw new NullPointerException("Settings cannot be null");
+        }
+
+        SolutionCache cache;
+
+        try {
+            cache = settings.createSolutionCache();
+        } catch (IOException e) {
+            Printer.println("Error while creating the solution cache: " + e.getMessage());
+            return;
+        }
+
         var reader = new BufferedReader(new InputStreamReader(System.in));
-        loopProgramUntilExit(reader);
+        SolveStatistics statistics = settings.isMetricsEnabled() ? new SolveStatistics() : null;
+        loopProgramUntilExit(reader, settings, cache, statistics);
 
         try {
             reader.close();
@@ -34,18 +51,24 @@ public class UI {
      * 1. Print instructions
      * 2. Wait for user to input a filename or 'x' (case insensitive)
      * 3. If user inputted 'x' then exit the loop
-     * 4. If the user inputted something else, then attempt to parse a file based on the filename user inputted
-     * 5. If parsing was successful then attempt to solve the maze
+     * 4. If the user inputted something else, then look up the solution of the file from the cache if there is one,
+     *    and otherwise attempt to parse a file based on the filename user inputted
+     * 5. If parsing was successful then attempt to solve the maze (and cache the result)
      * 6. Print the solving results into console
      * 7. If the solving was successful then also write the solution into a text file
-     * 8. Start back at step 1, even if errors occurred during any of the previous steps
+     * 8. If metrics are enabled and the maze was solved, print the metrics of the solve and of all of the solves so far
+     * 9. Start back at step 1, even if errors occurred during any of the previous steps
      *
      * Will terminate execution if there were any IOExceptions while reading user input or closing the
      * file reader/-writer.
      *
      * @param reader BufferedReader used for reading user input.
+     * @param settings Options for parsing and solving the mazes.
+     * @param cache Cache for the solutions, null if the solutions are not cached.
+     * @param statistics Aggregate of the metrics of the solves, null if metrics are not enabled.
      */
-    private static void loopProgramUntilExit(BufferedReader reader) {
+    private static void loopProgramUntilExit(BufferedReader reader, Settings settings, SolutionCache cache,
+                                             SolveStatistics statistics) {
         while (true) {
             printInstructions();
             String input = readInput(reader);
@@ -57,10 +80,11 @@ public class UI {
                 break;
             }
 
-            Maze maze;
+            MazeSolution solution;
+            var metrics = new SolveMetrics(settings.getEngine());
 
             try {
-                maze = MazeParser.parseMaze(input);
+                solution = findSolution(input, settings, cache, metrics);
             } catch (IOException e) {
                 /*
                  * IOException is thrown if was unable to close file reader.
@@ -74,19 +98,108 @@ public class UI {
                 break;
             }
 
-            if (maze != null) {
-                MazeSolver.attemptToSolveMaze(maze);
-                boolean fileWriteUnsuccessful = !handleSolutionResult(maze);
+            if (solution != null) {
+                boolean fileWriteUnsuccessful = !handleSolutionResult(solution, metrics);
 
                 if (fileWriteUnsuccessful) {
                     break;
                 }
             }
 
+            // The metrics have no result if the solution was found from the cache or the maze could not be parsed
+            if (statistics != null && metrics.getSolutionStatus() != null) {
+                statistics.record(metrics);
+                Printer.println("\nSolve metrics: " + metrics.getSummary());
+                Printer.println("Solve statistics: " + statistics.getSummary());
+            }
+
+            if (cache != null) {
+                Printer.println("\nSolution cache: " + cache.getStatistics());
+            }
+
             Printer.println(); // empty line print to make UI more clear
         }
     }
 
+    /**
+     * Returns the solution of the maze in the given file, either from the cache or by parsing and solving the maze.
+     *
+     * @param filepath User input
+     * @param settings Options for parsing and solving the maze.
+     * @param cache Cache for the solutions, null if the solutions are not cached.
+     * @param metrics into which the parsing, solving and rendering are measured if the maze is solved.
+     * @return the solution, null if the file was not found or it had invalid syntax.
+     * @throws IOException thrown by MazeParser.parseMaze()
+     */
+    private static MazeSolution findSolution(String filepath, Settings settings, SolutionCache cache,
+                                             SolveMetrics metrics) throws IOException {
+        SolutionCache.Key key = null;
+
+        if (cache != null) {
+            key = createCacheKey(filepath, settings);
+            MazeSolution cachedSolution = key != null ? cache.get(key) : null;
+
+            if (cachedSolution != null) {
+                return cachedSolution;
+            }
+        }
+
+        metrics.startPhase(SolveMetrics.Phase.PARSE);
+        Maze maze = MazeParser.parseMaze(filepath, settings.getParserMode());
+        metrics.endPhase(SolveMetrics.Phase.PARSE);
+
+        if (maze == null) {
+            return null;
+        }
+
+        if (settings.getEngine() == SolverEngine.HIERARCHICAL) {
+            loadClusterIndex(maze, filepath);
+        }
+
+        MazeSolver.attemptToSolveMaze(maze, settings.getEngine(), settings.getLimits(), metrics);
+        metrics.startPhase(SolveMetrics.Phase.RENDER);
+        var solution = MazeSolution.of(maze, settings.getSolutionFormat());
+        metrics.endPhase(SolveMetrics.Phase.RENDER);
+
+        if (key != null) {
+            cache.put(key, solution);
+        }
+
+        return solution;
+    }
+
+    /**
+     * Creates the cache key of the given file.
+     *
+     * @param filepath User input
+     * @param settings Options for solving the maze.
+     * @return the key, null if the file does not exist or could not be read (e.g. it is a directory), in which case
+     *         MazeParser.parseMaze() reports the problem like it does without a cache
+     */
+    private static SolutionCache.Key createCacheKey(String filepath, Settings settings) {
+        try {
+            return SolutionCache.createKey(filepath, settings.getEngine(), settings.getLimits(),
+                    settings.getSolutionFormat());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the ClusterIndex of the given maze from the index file next to the given maze file, or computes it and
+     * writes it there if the file does not match the maze, so that the index is computed only once per maze file.
+     *
+     * @param maze parsed from the file
+     * @param filepath User input
+     */
+    private static void loadClusterIndex(Maze maze, String filepath) {
+        try {
+            ClusterIndex.loadOrCompute(maze, ClusterIndex.getIndexFile(Path.of(filepath)));
+        } catch (IOException e) {
+            Printer.println("Was unable to write the cluster index of " + filepath + ": " + e.getMessage());
+        }
+    }
+
     private static void printInstructions() {
         Printer.println("Instructions:");
         Printer.println("Enter a file name (include file ending) to attempt to parse and solve a maze from the file");
@@ -121,27 +234,26 @@ public class UI {
     /**
      * Performs further actions for solution printing/writing depending on the solution result.
      *
-     * If the solving was successful, print the solution and write it to a text file.
+     * If the solving was successful, print the solution and write it to a text file in a single pass. In the PATH
+     * format the encoded solution path is printed and written instead of the solution graphic.
      *
      * If the solving was unsuccessful, print a message stating such.
      *
      * If the solving resulted in an error does nothing.
      *
-     * @param maze which was attempted to be solved.
+     * @param solution result of the maze which was attempted to be solved.
+     * @param metrics into which the rendering of the solution is measured.
      * @return false if solving was successful but was unable to write the solution to a file, true otherwise
      */
-    private static boolean handleSolutionResult(Maze maze) {
-        var resultStatus = maze.getSolutionStatus();
+    private static boolean handleSolutionResult(MazeSolution solution, SolveMetrics metrics) {
+        var resultStatus = solution.getSolutionStatus();
 
         if (resultStatus != SolutionStatus.ERROR) {
-            String solutionPrintAscii = SolutionWriter.createSolutionAscii(maze, true);
-            printResult(maze, solutionPrintAscii);
+            printResult(solution);
 
             if (resultStatus == SolutionStatus.SUCCESS) {
-                String solutionFileAscii = SolutionWriter.createSolutionAscii(maze, false);
-
                 // Return boolean based on if file write was successful or not
-                return writeSolutionIntoFile(solutionFileAscii);
+                return writeSolution(solution, metrics);
             }
         }
 
@@ -151,21 +263,20 @@ public class UI {
     /**
      * Prints the results of the maze solving.
      * 
-     * If maze.getSolutionStatus() == SUCCESS then given solution graphic + information about amount of steps required
-     * for the solution into the console.
+     * If solution.getSolutionStatus() == SUCCESS then prints information about amount of steps required for the
+     * solution into the console, to be followed by the solution graphic.
      *
-     * If maze.getSolutionStatus() == FAILURE and(or solution ascii is null then prints message stating that the maze
-     * was not solvable within the maximum limit.
+     * If solution.getSolutionStatus() == FAILURE then prints message stating that the maze was not solvable within the
+     * maximum limit.
      *
-     * @param maze not null and maze.getSolutionStatus() not ERROR
-     * @param solutionGraphic ASCII graphic to be printed if maze was solved.
+     * @param solution not null and solution.getSolutionStatus() not ERROR
      */
-    private static void printResult(Maze maze, String solutionGraphic)  {
-        if (maze == null) {
-            throw new NullPointerException("Maze must not be null in order for the solution to be printed");
+    private static void printResult(MazeSolution solution)  {
+        if (solution == null) {
+            throw new NullPointerException("Solution must not be null in order for the solution to be printed");
         }
 
-        var solutionStatus = maze.getSolutionStatus();
+        var solutionStatus = solution.getSolutionStatus();
 
         if (solutionStatus == SolutionStatus.ERROR) {
             throw new IllegalArgumentException("Given maze must not have ERROR as the solution status");
@@ -173,38 +284,51 @@ public class UI {
 
         Printer.println();
 
-        int stepLimit = maze.getStepLimit();
+        String stepLimit = solution.getStepLimit() == MazeSolver.UNBOUNDED_LIMIT
+                ? "any amount of"
+                : String.valueOf(solution.getStepLimit());
 
-        if (maze.getSolutionStatus() == SolutionStatus.SUCCESS && solutionGraphic != null) {
+        if (solutionStatus == SolutionStatus.SUCCESS) {
             Printer.println("Maze was solvable within " + stepLimit + " steps");
-            Printer.println("Solution with " + maze.getCurrentStepCount() + " steps:");
-            Printer.println(solutionGraphic);
+            Printer.println("Solution with " + solution.getStepCount() + " steps:");
         } else {
             Printer.println("Maze was not solvable within " + stepLimit + " steps");
         }
     }
 
     /**
-     * Writes the given solution ASCII graphic (if not null) into a new text file.
+     * Prints the solution graphic (or the solution path) of the given solved solution into the console and writes it
+     * into a new text file.
      * If the file writing operation was successful then also prints the filename into the console.
-     * If the file writing was unsuccessful prints a message stating such into the console.ö
+     * If the file writing was unsuccessful prints a message stating such into the console.
      *
-     * @param solutionGraphic Solution ASCII graphic to be written into the file.
+     * @param solution solved solution, not null
+     * @param metrics into which the printing and writing are measured as the RENDER phase
      * @return true if file writing was successful, false otherwise
      */
-    private static boolean writeSolutionIntoFile(String solutionGraphic) {
-        if (solutionGraphic != null) {
+    private static boolean writeSolution(MazeSolution solution, SolveMetrics metrics) {
+        try {
+            String filename;
+            metrics.startPhase(SolveMetrics.Phase.RENDER);
+
             try {
-                String filename = SolutionWriter.writeSolutionGraphicIntoTextFile(solutionGraphic);
+                if (solution.getSolutionFormat() == SolutionFormat.PATH) {
+                    Printer.println(solution.getSolutionPath());
+                    filename = SolutionWriter.writeSolutionPathIntoTextFile(solution.getSolutionPath());
+                } else {
+                    filename = SolutionWriter.writeSolution(solution, Printer.getChannel());
+                }
+            } finally {
+                metrics.endPhase(SolveMetrics.Phase.RENDER);
+            }
 
-                if (filename != null) {
-                    Printer.println("\nSolution written into " + filename);
+            if (filename != null) {
+                Printer.println("\nSolution written into " + filename);
 
-                    return true;
-                }
-            } catch (IOException e) {
-                Printer.println("\nError while closing file writer: "  + e.getMessage());
+                return true;
             }
+        } catch (IOException e) {
+            Printer.println("\nError while printing the solution: "  + e.getMessage());
         }
 
         return false;
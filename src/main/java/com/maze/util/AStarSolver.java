@@ -0,0 +1,136 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+
+import java.util.Arrays;
+
+/**
+ * A* search from the starting cell towards the nearest exit.
+ *
+ * The heuristic is the Manhattan distance to the nearest exit (see NearestExitEstimate), which never overestimates and
+ * is consistent, so the first exit removed from the open set is at the end of a shortest path and no cell ever needs
+ * to be expanded twice.
+ *
+ * The solution is equally short as the one found by BFS, but among several equally short paths a different one may be
+ * chosen. On ties in the estimated total length the cell furthest from the start is expanded first, which keeps the
+ * search heading straight for the exit through open areas instead of widening like a breadth-first search.
+ */
+class AStarSolver {
+    private static final Direction[] DIRECTIONS = GridNeighbours.DIRECTIONS;
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final Maze maze;
+    private final SolveMetrics metrics;
+    private final GridNeighbours neighbours;
+    private final int width;
+
+    private final NearestExitEstimate nearestExitEstimate;
+
+    // Length of the shortest known path from the start for every cell
+    private final int[] costs;
+    private final IntPriorityQueue openSet;
+
+    /**
+     * Creates a new solver for the given maze.
+     *
+     * @param maze not null
+     * @param metrics into which the search is measured, not null
+     */
+    AStarSolver(Maze maze, SolveMetrics metrics) {
+        if (maze == null || metrics == null) {
+            throw new NullPointerException("Solvable maze and solve metrics cannot be null");
+        }
+
+        this.maze = maze;
+        this.metrics = metrics;
+        neighbours = new GridNeighbours(maze);
+        width = maze.getWidth();
+
+        nearestExitEstimate = new NearestExitEstimate(maze);
+        costs = new int[maze.getCellCount()];
+        openSet = new IntPriorityQueue(2 * (maze.getHeight() + width));
+    }
+
+    /**
+     * Searches for the shortest path from the start to an exit which is at most the given amount of steps long.
+     * The progress of the maze must have been reset beforehand with maze.resetProgress().
+     *
+     * If an exit was found the maze will be marked as solved, the solution path will be saved into the maze and the
+     * current step count of the maze will be set to the length of the solution.
+     *
+     * @param stepLimit maximum length of the solution
+     * @return true if an exit was found within the step limit, false otherwise
+     */
+    boolean solve(int stepLimit) {
+        Arrays.fill(costs, UNREACHED);
+        openSet.clear();
+
+        int startIndex = maze.getStartIndex();
+        costs[startIndex] = 0;
+        maze.markChecked(startIndex, null);
+        openSet.add(priority(nearestExitEstimate.estimateRemainingSteps(startIndex), 0), startIndex);
+
+        while (!openSet.isEmpty()) {
+            long priority = openSet.peekPriority();
+            int index = openSet.removeFirst();
+            int cost = Integer.MAX_VALUE - (int) priority;
+
+            if (cost != costs[index]) {
+                continue; // Stale entry, the cell has been queued again with a shorter path
+            }
+
+            if (maze.isExit(index)) {
+                maze.setSolutionStatus(SolutionStatus.SUCCESS);
+                maze.setCurrentStepCount(cost);
+                MazeSolver.markSolution(maze, index, metrics);
+
+                return true;
+            }
+
+            expand(index, cost, stepLimit);
+            metrics.addExpandedNodes(1);
+            metrics.updatePeakFrontierSize(openSet.size());
+        }
+
+        return false;
+    }
+
+    /**
+     * Queues all of the walkable cells adjacent to the given cell to which a shorter path was found through the given
+     * cell, unless the path could not reach an exit within the step limit.
+     */
+    private void expand(int index, int cost, int stepLimit) {
+        int y = index / width;
+        int x = index - y * width;
+        int nextCost = cost + 1;
+
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+            if (neighbour < 0 || !maze.isWalkable(neighbour) || nextCost >= costs[neighbour]) {
+                continue;
+            }
+
+            long estimate = (long) nextCost + nearestExitEstimate.estimateRemainingSteps(neighbour);
+
+            if (estimate > stepLimit) {
+                continue;
+            }
+
+            costs[neighbour] = nextCost;
+            maze.markChecked(neighbour, DIRECTIONS[d]);
+            openSet.add(priority(estimate, nextCost), neighbour);
+        }
+    }
+
+    /**
+     * Packs the estimated total length and the length so far into a single priority so that the lowest estimate comes
+     * first and ties are broken in favour of the longer path so far.
+     */
+    private static long priority(long estimate, int cost) {
+        return (estimate << Integer.SIZE) | (Integer.MAX_VALUE - cost);
+    }
+}
@@ -0,0 +1,195 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+
+/**
+ * Bidirectional breadth-first search which grows one frontier from the starting cell and another one from all of the
+ * exits at once, until the two frontiers meet somewhere in the middle. On long corridors and large mazes this checks
+ * roughly the square root of the cells a single breadth-first search from the start would.
+ *
+ * Each round expands one full layer of whichever frontier is currently smaller. The first cell which is reached by
+ * both searches is at the middle of a shortest solution, since every cell in the newest layer of a search is equally
+ * far away from its origin.
+ *
+ * The search from the start marks its Directions into the maze as usual. The search from the exits keeps its own
+ * Directions, pointing towards the exit through which the cell was reached, in a separate byte per cell.
+ */
+class BidirectionalBfsSolver {
+    private static final Direction[] DIRECTIONS = GridNeighbours.DIRECTIONS;
+
+    // Values of exitDirections other than Direction ordinal + 1
+    private static final byte NOT_REACHED = 0;
+    private static final byte EXIT = (byte) (DIRECTIONS.length + 1);
+
+    private final Maze maze;
+    private final SolveMetrics metrics;
+    private final GridNeighbours neighbours;
+    private final int width;
+
+    private final byte[] exitDirections;
+    private final IntRingBuffer startFrontier;
+    private final IntRingBuffer exitFrontier;
+    private int startDepth;
+    private int exitDepth;
+
+    /**
+     * Creates a new solver for the given maze.
+     *
+     * @param maze not null
+     * @param metrics into which the search is measured, not null
+     */
+    BidirectionalBfsSolver(Maze maze, SolveMetrics metrics) {
+        if (maze == null || metrics == null) {
+            throw new NullPointerException("Solvable maze and solve metrics cannot be null");
+        }
+
+        this.maze = maze;
+        this.metrics = metrics;
+        neighbours = new GridNeighbours(maze);
+        width = maze.getWidth();
+        exitDirections = new byte[maze.getCellCount()];
+        startFrontier = new IntRingBuffer(2 * (maze.getHeight() + width));
+        exitFrontier = new IntRingBuffer(2 * (maze.getHeight() + width));
+    }
+
+    /**
+     * Searches for the shortest path from the start to an exit which is at most the given amount of steps long.
+     * The progress of the maze must have been reset beforehand with maze.resetProgress().
+     *
+     * If an exit was found the maze will be marked as solved, the solution path will be saved into the maze and the
+     * current step count of the maze will be set to the length of the solution.
+     *
+     * @param stepLimit maximum length of the solution
+     * @return true if an exit was found within the step limit, false otherwise
+     */
+    boolean solve(int stepLimit) {
+        int startIndex = maze.getStartIndex();
+        maze.markChecked(startIndex, null);
+        startFrontier.addLast(startIndex);
+
+        for (int exitIndex : maze.findExitIndexes()) {
+            exitDirections[exitIndex] = EXIT;
+            exitFrontier.addLast(exitIndex);
+        }
+
+        while (!startFrontier.isEmpty() && !exitFrontier.isEmpty()) {
+            if ((long) startDepth + exitDepth + 1 > stepLimit) {
+                return false;
+            }
+
+            metrics.addExpandedNodes(Math.min(startFrontier.size(), exitFrontier.size()));
+            int meetingIndex = startFrontier.size() <= exitFrontier.size()
+                    ? expandStartFrontier()
+                    : expandExitFrontier();
+            metrics.updatePeakFrontierSize(startFrontier.size() + exitFrontier.size());
+
+            if (meetingIndex >= 0) {
+                maze.setSolutionStatus(SolutionStatus.SUCCESS);
+                maze.setCurrentStepCount(startDepth + exitDepth);
+                markSolution(meetingIndex);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Expands the frontier of the search from the start by one layer.
+     *
+     * @return index of the first cell which had already been reached from an exit, -1 if there was none
+     */
+    private int expandStartFrontier() {
+        int layerSize = startFrontier.size();
+        startDepth++;
+
+        for (int i = 0; i < layerSize; i++) {
+            int index = startFrontier.removeFirst();
+            int y = index / width;
+            int x = index - y * width;
+
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+                if (neighbour < 0 || !maze.isWalkable(neighbour) || maze.isChecked(neighbour)) {
+                    continue;
+                }
+
+                maze.markChecked(neighbour, DIRECTIONS[d]);
+
+                if (exitDirections[neighbour] != NOT_REACHED) {
+                    return neighbour;
+                }
+
+                startFrontier.addLast(neighbour);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Expands the frontier of the search from the exits by one layer.
+     *
+     * @return index of the first cell which had already been reached from the start, -1 if there was none
+     */
+    private int expandExitFrontier() {
+        int layerSize = exitFrontier.size();
+        exitDepth++;
+
+        for (int i = 0; i < layerSize; i++) {
+            int index = exitFrontier.removeFirst();
+            int y = index / width;
+            int x = index - y * width;
+
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+                if (neighbour < 0 || !maze.isWalkable(neighbour) || exitDirections[neighbour] != NOT_REACHED) {
+                    continue;
+                }
+
+                // The neighbour leads back towards the exit in the opposite direction
+                exitDirections[neighbour] = (byte) (GridNeighbours.opposite(d) + 1);
+
+                if (maze.isChecked(neighbour)) {
+                    return neighbour;
+                }
+
+                exitFrontier.addLast(neighbour);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Marks the solution path into the maze: first the half from the start to the meeting cell by following the
+     * Directions marked into the maze backwards, then the half from the meeting cell to the exit by following the
+     * Directions of the search from the exits.
+     *
+     * @param meetingIndex index of the cell which was reached by both searches
+     */
+    private void markSolution(int meetingIndex) {
+        MazeSolver.markSolution(maze, meetingIndex, metrics);
+        metrics.startPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+
+        int startIndex = maze.getStartIndex();
+        int currentIndex = meetingIndex;
+
+        while (exitDirections[currentIndex] != EXIT) {
+            int direction = exitDirections[currentIndex] - 1;
+
+            if (currentIndex != startIndex) {
+                maze.updateSolutionPath(currentIndex, DIRECTIONS[direction]);
+            }
+
+            currentIndex = neighbours.getNeighbourIndex(currentIndex, direction);
+        }
+
+        metrics.endPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+    }
+}
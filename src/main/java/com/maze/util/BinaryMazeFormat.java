@@ -0,0 +1,358 @@
+package com.maze.util;
+
+import com.maze.domain.Maze;
+import com.maze.domain.Tile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary format for mazes, which takes a quarter of the space of the text format and can be loaded without
+ * validating every character.
+ *
+ * The format consists of:
+ * 1. Header: the magic bytes 0x89 'M' 'Z' 'B', a version byte, and the height, the width, the index of the START tile
+ *    and the amount of EXIT tiles as big-endian ints
+ * 2. Body: the Tile ordinal of every cell in row-major order packed into 2 bits each, four cells per byte starting from
+ *    the lowest bits
+ * 3. Exit table: the index of every EXIT tile in row-major order as big-endian ints
+ *
+ * The first magic byte is not a valid character in a maze text file, so the formats can be told apart from the first
+ * bytes of a file.
+ */
+public class BinaryMazeFormat {
+    /**
+     * File ending used for binary maze files.
+     */
+    public static final String FILE_ENDING = ".mazeb";
+
+    private static final byte[] MAGIC = {(byte) 0x89, 'M', 'Z', 'B'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 1 + 4 * Integer.BYTES;
+    private static final int BITS_PER_CELL = 2;
+    private static final int CELLS_PER_BYTE = Byte.SIZE / BITS_PER_CELL;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    // Amounts of EXIT and START tiles in each possible byte of the body
+    private static final byte[] EXIT_COUNTS = new byte[256];
+    private static final byte[] START_COUNTS = new byte[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            for (int cell = 0; cell < CELLS_PER_BYTE; cell++) {
+                int tile = (b >>> (cell * BITS_PER_CELL)) & 0b11;
+                EXIT_COUNTS[b] += tile == Tile.EXIT.ordinal() ? 1 : 0;
+                START_COUNTS[b] += tile == Tile.START.ordinal() ? 1 : 0;
+            }
+        }
+    }
+
+    private BinaryMazeFormat() {
+        // Empty private constructor for static method class
+    }
+
+    /**
+     * Checks if the file of the given channel starts with the magic bytes of the binary format.
+     *
+     * @param channel of the file, not null
+     * @return true if the file is a binary maze file, false if not
+     * @throws IOException if the file could not be read
+     */
+    public static boolean isBinaryMazeFile(FileChannel channel) throws IOException {
+        if (channel.size() < MAGIC.length) {
+            return false;
+        }
+
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, MAGIC.length).equals(ByteBuffer.wrap(MAGIC));
+    }
+
+    /**
+     * Checks if the given bytes start with the magic bytes of the binary format.
+     *
+     * @param bytes between the position and the limit of the buffer, not modified
+     * @return true if the bytes are a binary maze, false if not
+     */
+    public static boolean isBinaryMaze(ByteBuffer bytes) {
+        if (bytes.remaining() < MAGIC.length) {
+            return false;
+        }
+
+        return bytes.duplicate().limit(bytes.position() + MAGIC.length).equals(ByteBuffer.wrap(MAGIC));
+    }
+
+    /**
+     * Reads a maze from the binary maze file of the given channel by memory-mapping it.
+     *
+     * @param channel of the file, not null
+     * @return Maze read from the file
+     * @throws IOException if the file could not be mapped
+     * @throws IllegalArgumentException if the file is not a valid binary maze file
+     */
+    public static Maze read(FileChannel channel) throws IOException {
+        return read(channel.size(), (position, length) -> channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+    }
+
+    /**
+     * Reads a maze from the given bytes in the binary format, e.g. the body of a request.
+     *
+     * @param bytes between the position and the limit of the buffer, not modified
+     * @return Maze read from the bytes
+     * @throws IllegalArgumentException if the bytes are not a valid binary maze
+     */
+    public static Maze read(ByteBuffer bytes) {
+        ByteBuffer maze = bytes.slice();
+
+        try {
+            return read(maze.limit(), (position, length) ->
+                    maze.duplicate().position((int) position).limit((int) (position + length)).slice());
+        } catch (IOException e) {
+            throw new IllegalStateException("Reading a binary maze from memory cannot fail with an IOException", e);
+        }
+    }
+
+    /**
+     * Gives the region of the given length from the given position of a binary maze, e.g. by memory-mapping it.
+     */
+    private interface RegionReader {
+        ByteBuffer read(long position, long length) throws IOException;
+    }
+
+    /**
+     * Reads a maze from a binary maze of the given size, validating its header, body and exit table.
+     *
+     * @param size of the binary maze in bytes
+     * @param regions gives the header, body and exit table of the binary maze
+     * @return Maze read from the binary maze
+     * @throws IOException thrown by the region reader
+     * @throws IllegalArgumentException if the binary maze is not valid
+     */
+    private static Maze read(long size, RegionReader regions) throws IOException {
+        if (size < HEADER_SIZE) {
+            throw new IllegalArgumentException("Given binary maze file is too short");
+        }
+
+        ByteBuffer header = regions.read(0, HEADER_SIZE);
+        header.position(MAGIC.length);
+
+        if (header.get() != VERSION) {
+            throw new IllegalArgumentException("Given binary maze file has an unsupported version");
+        }
+
+        int height = header.getInt();
+        int width = header.getInt();
+        int startIndex = header.getInt();
+        int exitCount = header.getInt();
+        long cellCount = (long) height * width;
+
+        if (height <= 0 || width <= 0 || cellCount > MazeTextScanner.MAX_TILES || exitCount < 0) {
+            throw new IllegalArgumentException("Given binary maze file has an invalid header");
+        }
+
+        long bodySize = (cellCount + CELLS_PER_BYTE - 1) / CELLS_PER_BYTE;
+
+        if (size != HEADER_SIZE + bodySize + (long) exitCount * Integer.BYTES) {
+            throw new IllegalArgumentException("Given binary maze file has an invalid length");
+        }
+
+        ByteBuffer body = regions.read(HEADER_SIZE, bodySize);
+        byte[] tiles = new byte[(int) cellCount];
+        long foundExitCount = unpackTiles(body, tiles);
+
+        if (foundExitCount != exitCount) {
+            throw new IllegalArgumentException("Given binary maze file has an invalid exit table");
+        }
+
+        ByteBuffer exitTable = regions.read(HEADER_SIZE + bodySize, (long) exitCount * Integer.BYTES);
+
+        for (int i = 0; i < exitCount; i++) {
+            int exitIndex = exitTable.getInt();
+
+            if (exitIndex < 0 || exitIndex >= tiles.length || tiles[exitIndex] != Tile.EXIT.ordinal()) {
+                throw new IllegalArgumentException("Given binary maze file has an invalid exit table");
+            }
+        }
+
+        return new Maze(tiles, height, width, startIndex);
+    }
+
+    /**
+     * Unpacks the Tile ordinals of the given body into the given array and validates that there is exactly one START
+     * tile.
+     *
+     * @return the amount of EXIT tiles
+     */
+    private static long unpackTiles(ByteBuffer body, byte[] tiles) {
+        long exitCount = 0;
+        long startCount = 0;
+        int index = 0;
+
+        for (int i = 0; i < body.limit(); i++) {
+            int b = body.get(i) & 0xFF;
+            exitCount += EXIT_COUNTS[b];
+            startCount += START_COUNTS[b];
+
+            for (int cell = 0; cell < CELLS_PER_BYTE && index < tiles.length; cell++, b >>>= BITS_PER_CELL) {
+                tiles[index++] = (byte) (b & 0b11);
+            }
+
+            if (index == tiles.length && b != 0) {
+                throw new IllegalArgumentException("Given binary maze file has tiles after the last cell");
+            }
+        }
+
+        if (startCount != 1) {
+            throw new IllegalArgumentException("Given maze must have exactly one starting point (marked with '^')");
+        }
+
+        return exitCount;
+    }
+
+    /**
+     * Writes the given maze into a binary maze file, replacing the file if it exists.
+     *
+     * @param maze not null
+     * @param file path of the file to be written, not null
+     * @throws IOException if the file could not be written
+     */
+    public static void write(Maze maze, Path file) throws IOException {
+        if (maze == null || file == null) {
+            throw new NullPointerException("Maze and file cannot be null");
+        }
+
+        TileWriter writer = null;
+
+        try {
+            writer = new TileWriter(file, maze.getHeight(), maze.getWidth(), maze.getStartIndex(),
+                    maze.findExitIndexes());
+            byte[] row = new byte[maze.getWidth()];
+
+            for (int y = 0; y < maze.getHeight(); y++) {
+                for (int x = 0; x < row.length; x++) {
+                    row[x] = (byte) maze.getTile(y * row.length + x).ordinal();
+                }
+
+                writer.writeTiles(row);
+            }
+
+            writer.finish();
+        } finally {
+            IOUtil.close(writer);
+        }
+    }
+
+    /**
+     * Writes a binary maze file a part of the tiles at a time, so that a maze can be written without ever having all of
+     * its tiles in memory (see MazeGenerator). The amount of tiles and the EXIT tiles have to be known beforehand,
+     * since they are a part of the header.
+     */
+    static class TileWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        private final long cellCount;
+        private final int[] exitIndexes;
+        private long writtenCount;
+        private int pendingByte;
+
+        /**
+         * Creates the file, replacing it if it exists, and writes the header into it.
+         *
+         * @param file path of the file to be written, not null
+         * @param height of the maze, positive
+         * @param width of the maze, positive
+         * @param startIndex index of the only START tile
+         * @param exitIndexes indexes of every EXIT tile in ascending order, not null
+         * @throws IOException if the file could not be created
+         */
+        TileWriter(Path file, int height, int width, int startIndex, int[] exitIndexes) throws IOException {
+            if ((long) height * width > MazeTextScanner.MAX_TILES) {
+                throw new IllegalArgumentException(MazeTextScanner.TOO_MANY_TILES_MESSAGE);
+            }
+
+            this.cellCount = (long) height * width;
+            this.exitIndexes = exitIndexes.clone();
+            this.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+
+            buffer.put(MAGIC).put(VERSION)
+                    .putInt(height)
+                    .putInt(width)
+                    .putInt(startIndex)
+                    .putInt(exitIndexes.length);
+        }
+
+        /**
+         * Writes the next tiles of the maze in row-major order.
+         *
+         * @param tiles Tile ordinals of the next cells, not null
+         * @throws IOException if the file could not be written
+         */
+        void writeTiles(byte[] tiles) throws IOException {
+            if (writtenCount + tiles.length > cellCount) {
+                throw new IllegalStateException("Cannot write more than " + cellCount + " tiles");
+            }
+
+            for (byte tile : tiles) {
+                int cell = (int) (writtenCount++ % CELLS_PER_BYTE);
+                pendingByte |= tile << (cell * BITS_PER_CELL);
+
+                if (cell == CELLS_PER_BYTE - 1) {
+                    flushIfFull(channel, buffer, 1);
+                    buffer.put((byte) pendingByte);
+                    pendingByte = 0;
+                }
+            }
+        }
+
+        /**
+         * Writes the last partially filled byte of the body and the exit table. Must be called after all of the tiles
+         * have been written.
+         *
+         * @throws IOException if the file could not be written
+         */
+        void finish() throws IOException {
+            if (writtenCount != cellCount) {
+                throw new IllegalStateException("Only " + writtenCount + " of " + cellCount + " tiles were written");
+            }
+
+            if (writtenCount % CELLS_PER_BYTE != 0) {
+                flushIfFull(channel, buffer, 1);
+                buffer.put((byte) pendingByte);
+            }
+
+            for (int exitIndex : exitIndexes) {
+                flushIfFull(channel, buffer, Integer.BYTES);
+                buffer.putInt(exitIndex);
+            }
+
+            flush(channel, buffer);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the contents of the buffer into the channel if it has less than the given amount of bytes remaining.
+     */
+    private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int bytesNeeded) throws IOException {
+        if (buffer.remaining() < bytesNeeded) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
@@ -0,0 +1,112 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+
+/**
+ * Helper for the index based solving algorithms for finding the cells adjacent to a cell of a Maze without creating
+ * any Coordinates. Directions are referred to by their ordinals.
+ */
+class GridNeighbours {
+    static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int height;
+    private final int width;
+    private final int[] yAppends;
+    private final int[] xAppends;
+    private final int[] indexAppends;
+
+    /**
+     * Creates a new GridNeighbours for the dimensions of the given maze.
+     *
+     * @param maze not null
+     */
+    GridNeighbours(Maze maze) {
+        this(maze.getHeight(), maze.getWidth());
+    }
+
+    /**
+     * Creates a new GridNeighbours for a grid with the given dimensions.
+     *
+     * @param height of the grid
+     * @param width of the grid
+     */
+    GridNeighbours(int height, int width) {
+        this.height = height;
+        this.width = width;
+        yAppends = new int[DIRECTIONS.length];
+        xAppends = new int[DIRECTIONS.length];
+        indexAppends = new int[DIRECTIONS.length];
+
+        for (Direction direction : DIRECTIONS) {
+            int d = direction.ordinal();
+            yAppends[d] = direction.getYAppend();
+            xAppends[d] = direction.getXAppend();
+            indexAppends[d] = direction.getYAppend() * width + direction.getXAppend();
+        }
+    }
+
+    /**
+     * Returns the index of the cell next to the given cell towards the given direction.
+     *
+     * @param index of the cell
+     * @param y coordinate of the cell
+     * @param x coordinate of the cell
+     * @param direction ordinal of the Direction
+     * @return index of the adjacent cell, -1 if it would be out-of-bounds
+     */
+    int getNeighbourIndex(int index, int y, int x, int direction) {
+        int nextY = y + yAppends[direction];
+        int nextX = x + xAppends[direction];
+
+        if (nextY < 0 || nextY >= height || nextX < 0 || nextX >= width) {
+            return -1;
+        }
+
+        return index + indexAppends[direction];
+    }
+
+    /**
+     * Returns the index of the cell next to the given cell towards the given direction.
+     *
+     * @param index of the cell
+     * @param direction ordinal of the Direction
+     * @return index of the adjacent cell, -1 if it would be out-of-bounds
+     */
+    int getNeighbourIndex(int index, int direction) {
+        int y = index / width;
+
+        return getNeighbourIndex(index, y, index - y * width, direction);
+    }
+
+    /**
+     * Returns the index of the cell previous from the given cell in the given direction, i.e. the cell from which the
+     * given cell is reached by moving towards the direction.
+     *
+     * @param index of the cell, the previous cell must not be out-of-bounds
+     * @param direction ordinal of the Direction
+     * @return index of the previous cell
+     */
+    int getPreviousIndex(int index, int direction) {
+        return index - indexAppends[direction];
+    }
+
+    /**
+     * Returns the ordinal of the Direction opposite of the given direction, e.g. DOWN for UP.
+     *
+     * @param direction ordinal of the Direction
+     * @return ordinal of the opposite Direction
+     */
+    static int opposite(int direction) {
+        // Directions are declared clockwise, so the opposite one is always two steps away
+        return (direction + 2) % DIRECTIONS.length;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int getWidth() {
+        return width;
+    }
+}
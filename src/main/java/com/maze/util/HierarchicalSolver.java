@@ -0,0 +1,261 @@
+package com.maze.util;
+
+import com.maze.domain.ClusterIndex;
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HPA* (hierarchical path-finding A*) on the ClusterIndex of the maze.
+ *
+ * The start is connected to the nodes of its cluster, after which A* on the abstract graph of the index finds a route
+ * to the nearest exit cluster by cluster. The route is then refined into cells with a breadth-first search which is
+ * restricted to the clusters along the route, so only a small part of the maze is searched cell by cell.
+ *
+ * The found solution is the shortest one which stays within the clusters of the route, which may be a few steps longer
+ * than the one found by BFS. It is only kept if it fits within the same step limit as the shortest solution would:
+ * if it does not fit within the lowest limit, the maze is searched again with A* capped at the limit below the one it
+ * fits within (or at the largest limit if it fits within none), so that the reported step limit is always the same as
+ * with BFS.
+ *
+ * The index is computed on the first solve of a maze and kept with the maze (see Maze.getClusterIndex), so solving the
+ * same maze again only searches the abstract graph and the clusters of the route.
+ */
+class HierarchicalSolver {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final Maze maze;
+    private final SolveMetrics metrics;
+    private final ClusterIndex index;
+    private final GridNeighbours neighbours;
+    private final int width;
+    private final NearestExitEstimate nearestExitEstimate;
+
+    // Length of the shortest known abstract path from the start for every node, and the node from which it arrives
+    private final int[] distances;
+    private final int[] previousNodes;
+    private final IntPriorityQueue openSet;
+    // Clusters along the abstract path, to which the refining search is restricted
+    private final boolean[] pathClusters;
+    private final IntRingBuffer queue;
+
+    /**
+     * Creates a new solver for the given maze, computing the ClusterIndex of the maze if it has not been computed or
+     * read yet.
+     *
+     * @param maze not null
+     * @param metrics into which the search is measured, not null
+     */
+    HierarchicalSolver(Maze maze, SolveMetrics metrics) {
+        if (maze == null || metrics == null) {
+            throw new NullPointerException("Solvable maze and solve metrics cannot be null");
+        }
+
+        this.maze = maze;
+        this.metrics = metrics;
+        index = maze.getClusterIndex();
+        neighbours = new GridNeighbours(maze);
+        width = maze.getWidth();
+        nearestExitEstimate = new NearestExitEstimate(maze);
+
+        distances = new int[index.getNodeCount()];
+        previousNodes = new int[index.getNodeCount()];
+        openSet = new IntPriorityQueue(Math.min(index.getNodeCount() + 1, 1 << 16));
+        pathClusters = new boolean[index.getClusterCount()];
+        queue = new IntRingBuffer(2 * (maze.getHeight() + width));
+    }
+
+    /**
+     * Searches for a short path from the start to an exit which fits within the same one of the given step limits as
+     * the shortest path would. The progress of the maze must have been reset beforehand with maze.resetProgress().
+     *
+     * If an exit was found the maze will be marked as solved, the solution path will be saved into the maze and the
+     * current step count of the maze will be set to the length of the solution.
+     *
+     * @param limits validated step limits in ascending order
+     * @return true if an exit was found within the largest limit, false otherwise
+     */
+    boolean solve(List<Integer> limits) {
+        int largestLimit = limits.get(limits.size() - 1);
+        int exitNode = searchAbstractGraph();
+
+        if (exitNode == ClusterIndex.NO_NODE) {
+            return false; // No exit can be reached at all
+        }
+
+        if (!refinePath(exitNode, largestLimit)) {
+            // The refined path is too long, but a shorter path outside of the clusters of the route may still fit
+            return solveWithAStar(largestLimit);
+        }
+
+        int lowerLimit = getLimitBelowFittingLimit(limits, maze.getCurrentStepCount());
+
+        if (lowerLimit == 0 || solveWithAStar(lowerLimit)) {
+            return true; // Either the refined path fits within the lowest limit, or a shorter path fits a lower one
+        }
+
+        // Nothing fits within the lower limit, so the refined path fits within the same limit as the shortest path
+        maze.resetProgress(maze.getStepLimit());
+
+        return refinePath(exitNode, largestLimit);
+    }
+
+    /**
+     * Returns the limit below the smallest of the given limits within which a path of the given length fits.
+     *
+     * @return the lower limit, 0 if the path fits within the lowest limit
+     */
+    private static int getLimitBelowFittingLimit(List<Integer> limits, int pathLength) {
+        int lowerLimit = 0;
+
+        for (int limit : limits) {
+            if (pathLength <= limit) {
+                return lowerLimit;
+            }
+
+            lowerLimit = limit;
+        }
+
+        return lowerLimit;
+    }
+
+    private boolean solveWithAStar(int stepLimit) {
+        maze.resetProgress(maze.getStepLimit());
+
+        return new AStarSolver(maze, metrics).solve(stepLimit);
+    }
+
+    /**
+     * Searches the abstract graph with A* from the nodes of the cluster of the start to the nearest exit node.
+     *
+     * @return the exit node, NO_NODE if no exit can be reached
+     */
+    private int searchAbstractGraph() {
+        Arrays.fill(distances, UNREACHED);
+        openSet.clear();
+
+        int startIndex = maze.getStartIndex();
+        int firstNode = index.getFirstNode(index.getCluster(startIndex));
+        int[] startDistances = index.getDistancesToClusterNodes(startIndex);
+
+        for (int i = 0; i < startDistances.length; i++) {
+            if (startDistances[i] >= 0) {
+                queue(firstNode + i, startDistances[i], ClusterIndex.NO_NODE);
+            }
+        }
+
+        while (!openSet.isEmpty()) {
+            long priority = openSet.peekPriority();
+            int node = openSet.removeFirst();
+            int distance = Integer.MAX_VALUE - (int) priority;
+
+            if (distance != distances[node]) {
+                continue; // Stale entry, the node has been queued again with a shorter path
+            }
+
+            if (maze.isExit(index.getCellIndex(node))) {
+                return node;
+            }
+
+            for (int edge = index.getFirstEdge(node); edge < index.getFirstEdge(node + 1); edge++) {
+                long nextDistance = (long) distance + index.getEdgeLength(edge);
+
+                if (nextDistance < distances[index.getEdgeTarget(edge)]) {
+                    queue(index.getEdgeTarget(edge), (int) nextDistance, node);
+                }
+            }
+
+            metrics.addExpandedNodes(1);
+            metrics.updatePeakFrontierSize(openSet.size());
+        }
+
+        return ClusterIndex.NO_NODE;
+    }
+
+    private void queue(int node, int distance, int previousNode) {
+        distances[node] = distance;
+        previousNodes[node] = previousNode;
+        long estimate = (long) distance + nearestExitEstimate.estimateRemainingSteps(index.getCellIndex(node));
+        openSet.add((estimate << Integer.SIZE) | (Integer.MAX_VALUE - distance), node);
+    }
+
+    /**
+     * Searches for the shortest path from the start to an exit within the clusters of the abstract path to the given
+     * exit node with a breadth-first search, which marks the cells with the directions from which they were checked.
+     * Such a path always exists, since the abstract path itself stays within those clusters.
+     *
+     * @return true if the path fits within the step limit and was marked as the solution, false otherwise
+     */
+    private boolean refinePath(int exitNode, int stepLimit) {
+        metrics.startPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+        Arrays.fill(pathClusters, false);
+        pathClusters[index.getCluster(maze.getStartIndex())] = true;
+
+        for (int node = exitNode; node != ClusterIndex.NO_NODE; node = previousNodes[node]) {
+            pathClusters[index.getCluster(index.getCellIndex(node))] = true;
+        }
+
+        queue.clear();
+        maze.markChecked(maze.getStartIndex(), null);
+        queue.addLast(maze.getStartIndex());
+        int exitIndex = -1;
+        int steps = 0;
+
+        while (exitIndex < 0 && steps < stepLimit && !queue.isEmpty()) {
+            steps++;
+
+            for (int layerSize = queue.size(); layerSize > 0 && exitIndex < 0; layerSize--) {
+                exitIndex = expand(queue.removeFirst());
+                metrics.addExpandedNodes(1);
+            }
+
+            metrics.updatePeakFrontierSize(queue.size());
+        }
+
+        metrics.endPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+
+        if (exitIndex < 0) {
+            return false;
+        }
+
+        maze.setSolutionStatus(SolutionStatus.SUCCESS);
+        maze.setCurrentStepCount(steps);
+        MazeSolver.markSolution(maze, exitIndex, metrics);
+
+        return true;
+    }
+
+    /**
+     * Marks and queues the unchecked walkable cells adjacent to the given cell which are within the clusters of the
+     * abstract path.
+     *
+     * @return index of an adjacent exit, -1 if there is none
+     */
+    private int expand(int cell) {
+        int y = cell / width;
+        int x = cell - y * width;
+
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int neighbour = neighbours.getNeighbourIndex(cell, y, x, d);
+
+            if (neighbour < 0 || !maze.isWalkable(neighbour) || maze.isChecked(neighbour)
+                    || !pathClusters[index.getCluster(neighbour)]) {
+                continue;
+            }
+
+            maze.markChecked(neighbour, DIRECTIONS[d]);
+
+            if (maze.isExit(neighbour)) {
+                return neighbour;
+            }
+
+            queue.addLast(neighbour);
+        }
+
+        return -1;
+    }
+}
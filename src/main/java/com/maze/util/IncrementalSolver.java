@@ -0,0 +1,305 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+import com.maze.domain.Tile;
+
+import java.util.Arrays;
+
+/**
+ * Lifelong Planning A* (LPA*) from the exits towards the start, which keeps its search between solves so that after
+ * Tiles of the maze have been changed only the part of the search which the changes affect is repeated.
+ *
+ * For every cell the search keeps g, the distance to the nearest exit as of the last search, and rhs, the distance
+ * which follows from the g values of its neighbours. A cell whose values differ is inconsistent and queued with the key
+ * [min(g, rhs) + Manhattan distance to the start, min(g, rhs)]. The search ends once the start is consistent and no
+ * queued key is lower than that of the start, at which point g of the start is the length of the shortest solution.
+ * Searching from the exits lets every exit act as a source of the search with a distance of 0, and the solution is
+ * read by walking downhill on g from the start.
+ *
+ * A changed Tile only makes the changed cell and its neighbours inconsistent, so repairing the search after a change
+ * takes time proportional to the part of the search which depends on the change instead of the size of the maze. The
+ * first solve searches like A* from the exits.
+ *
+ * Use setTile for changing the maze between the solves, and MazeSolver.attemptToSolveMaze(IncrementalSolver, List) for
+ * solving it. If the maze is changed directly with Maze.setTile, the next solve starts over from scratch.
+ */
+public class IncrementalSolver {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Halved so that adding a step or the heuristic to it cannot overflow
+    private static final int UNREACHED = Integer.MAX_VALUE / 2;
+
+    private final Maze maze;
+    private final GridNeighbours neighbours;
+    private final int width;
+    private final int startY;
+    private final int startX;
+
+    private final int[] distances;
+    private final int[] rhsDistances;
+    private final IntPriorityQueue openSet;
+
+    // Modification count of the maze which the search describes, -1 before the first search
+    private int searchedModificationCount = -1;
+    // Cells of the solution path marked into the maze by the previous solve
+    private int[] markedPath = new int[0];
+
+    /**
+     * Creates a new incremental solver for the given maze. Nothing is searched before the first solve.
+     *
+     * @param maze not null
+     */
+    public IncrementalSolver(Maze maze) {
+        if (maze == null) {
+            throw new NullPointerException("Solvable maze cannot be null");
+        }
+
+        this.maze = maze;
+        neighbours = new GridNeighbours(maze);
+        width = maze.getWidth();
+        startY = maze.getStartIndex() / width;
+        startX = maze.getStartIndex() % width;
+
+        distances = new int[maze.getCellCount()];
+        rhsDistances = new int[maze.getCellCount()];
+        openSet = new IntPriorityQueue(2 * (maze.getHeight() + width));
+    }
+
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Changes the Tile of the cell found at the given index between SPACE and BLOCK (see Maze.setTile), and marks the
+     * cell and its neighbours to be repaired on the next solve.
+     *
+     * @param index not out-of-bounds
+     * @param tile SPACE or BLOCK
+     * @throws IllegalArgumentException if the tile is not SPACE or BLOCK, or the Tile of the cell is not either
+     */
+    public void setTile(int index, Tile tile) {
+        boolean upToDate = searchedModificationCount == maze.getModificationCount();
+        maze.setTile(index, tile);
+
+        if (!upToDate) {
+            return; // The next solve starts over anyway
+        }
+
+        searchedModificationCount = maze.getModificationCount();
+        updateCell(index);
+        int y = index / width;
+        int x = index - y * width;
+
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+            if (neighbour >= 0) {
+                updateCell(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Resets the progress of the maze before a solve. Only the previously marked solution path is cleared if the
+     * maze has been solved with this solver before, as nothing else is marked into the maze.
+     *
+     * @param stepLimit New maximum step limit of the maze
+     */
+    void resetProgress(int stepLimit) {
+        if (searchedModificationCount < 0) {
+            maze.resetProgress(stepLimit);
+        } else {
+            maze.resetProgress(stepLimit, markedPath);
+        }
+
+        markedPath = new int[0];
+    }
+
+    /**
+     * Repairs the search after the changes since the previous solve, or searches from scratch on the first solve, and
+     * marks the shortest solution into the maze if it is at most the given amount of steps long. The progress of the
+     * maze must have been reset beforehand with resetProgress().
+     *
+     * @param stepLimit maximum length of the solution
+     * @param metrics into which the repaired cells and the path reconstruction are measured, not null
+     * @return true if an exit was found within the step limit, false otherwise
+     */
+    boolean solve(int stepLimit, SolveMetrics metrics) {
+        if (searchedModificationCount != maze.getModificationCount()) {
+            startSearch();
+        }
+
+        computeShortestPaths(metrics);
+        int startIndex = maze.getStartIndex();
+
+        if (distances[startIndex] == UNREACHED || distances[startIndex] > stepLimit) {
+            return false;
+        }
+
+        markPath(distances[startIndex], metrics);
+        maze.setSolutionStatus(SolutionStatus.SUCCESS);
+        maze.setCurrentStepCount(distances[startIndex]);
+
+        return true;
+    }
+
+    /**
+     * Forgets any previous search and queues the exits as the sources of a new one.
+     */
+    private void startSearch() {
+        Arrays.fill(distances, UNREACHED);
+        Arrays.fill(rhsDistances, UNREACHED);
+        openSet.clear();
+
+        for (int exitIndex : maze.findExitIndexes()) {
+            rhsDistances[exitIndex] = 0;
+            openSet.add(key(exitIndex), exitIndex);
+        }
+
+        searchedModificationCount = maze.getModificationCount();
+    }
+
+    /**
+     * Expands the inconsistent cells in the order of their keys until the start is consistent and no queued key is
+     * lower than that of the start.
+     */
+    private void computeShortestPaths(SolveMetrics metrics) {
+        int startIndex = maze.getStartIndex();
+
+        while (!openSet.isEmpty()) {
+            long key = openSet.peekPriority();
+
+            if (key >= key(startIndex) && distances[startIndex] == rhsDistances[startIndex]) {
+                break;
+            }
+
+            int index = openSet.removeFirst();
+
+            if (distances[index] == rhsDistances[index] || key != key(index)) {
+                continue; // Stale entry, the cell has become consistent or been queued again with another key
+            }
+
+            if (distances[index] > rhsDistances[index]) {
+                // A shorter path was found, which may shorten the paths of the neighbours in turn
+                distances[index] = rhsDistances[index];
+                updateNeighbours(index, true);
+            } else {
+                // The previous path was cut, so the cell and every neighbour which depended on it have to be recomputed
+                distances[index] = UNREACHED;
+                updateCell(index);
+                updateNeighbours(index, false);
+            }
+
+            metrics.addExpandedNodes(1);
+            metrics.updatePeakFrontierSize(openSet.size());
+        }
+    }
+
+    private void updateNeighbours(int index, boolean shortened) {
+        int y = index / width;
+        int x = index - y * width;
+
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+            if (neighbour < 0 || !maze.isWalkable(neighbour) || maze.isExit(neighbour)) {
+                continue;
+            }
+
+            if (shortened) {
+                if (distances[index] + 1 < rhsDistances[neighbour]) {
+                    rhsDistances[neighbour] = distances[index] + 1;
+                    queueIfInconsistent(neighbour);
+                }
+            } else {
+                updateCell(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the rhs distance of the given cell from the distances of its neighbours and queues the cell if it
+     * became inconsistent. The exits always have the rhs distance 0.
+     */
+    private void updateCell(int index) {
+        if (maze.isExit(index)) {
+            return;
+        }
+
+        int rhsDistance = UNREACHED;
+
+        if (maze.isWalkable(index)) {
+            int y = index / width;
+            int x = index - y * width;
+
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+                if (neighbour >= 0 && maze.isWalkable(neighbour)) {
+                    rhsDistance = Math.min(rhsDistance, distances[neighbour] + 1);
+                }
+            }
+        }
+
+        rhsDistances[index] = Math.min(rhsDistance, UNREACHED);
+        queueIfInconsistent(index);
+    }
+
+    private void queueIfInconsistent(int index) {
+        if (distances[index] != rhsDistances[index]) {
+            openSet.add(key(index), index);
+        }
+    }
+
+    /**
+     * Returns the key of the given cell: the estimated length of a solution through it in the high bits, and its
+     * distance to the nearest exit in the low bits to break ties.
+     */
+    private long key(int index) {
+        long distance = Math.min(distances[index], rhsDistances[index]);
+        int y = index / width;
+        int x = index - y * width;
+
+        return ((distance + Math.abs(y - startY) + Math.abs(x - startX)) << Integer.SIZE) | distance;
+    }
+
+    /**
+     * Marks the solution path into the maze by walking from the start to the neighbour which is one step closer to an
+     * exit until an exit is reached.
+     */
+    private void markPath(int length, SolveMetrics metrics) {
+        metrics.startPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+        markedPath = new int[length];
+        int index = maze.getStartIndex();
+
+        for (int step = 0; step < length; step++) {
+            int y = index / width;
+            int x = index - y * width;
+            int next = -1;
+            int d = 0;
+
+            for (; d < DIRECTIONS.length && next < 0; d++) {
+                int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+                if (neighbour >= 0 && maze.isWalkable(neighbour) && distances[neighbour] == length - step - 1) {
+                    next = neighbour;
+                }
+            }
+
+            if (next < 0) {
+                throw new IllegalStateException("Incremental search left no path from cell " + index);
+            }
+
+            // The START and EXIT cells are not part of the marked solution path
+            if (step > 0) {
+                maze.updateSolutionPath(index, DIRECTIONS[d - 1]);
+            }
+
+            markedPath[step] = next;
+            index = next;
+        }
+
+        metrics.endPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+    }
+}
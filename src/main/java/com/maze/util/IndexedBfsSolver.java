@@ -0,0 +1,202 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+import com.maze.jfr.MazeLayerEvent;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search which works on primitive cell indexes of the Maze instead of Coordinates and Pairs, so that the
+ * hot loop does not allocate any objects per cell. The frontiers are kept in preallocated IntRingBuffers which are
+ * reused for every layer.
+ *
+ * Produces exactly the same solution path as the original algorithm in MazeSolver. The original algorithm keeps every
+ * cell once per parent it was reached from in its frontier List, which means that:
+ *      1. The exit which is found first is the first exit in the order in which the cells were FIRST reached
+ *      2. The Direction stored for any other cell is the Direction from the parent from which it was LAST reached
+ *
+ * Instead of keeping the duplicates this solver keeps each layer in two orders: the order of first occurrences (for
+ * finding the same exit) and the order of last occurrences (for storing the same Directions). Expanding a layer in
+ * either order gives the next layer in that same order, so both can be kept up to date without any duplicates.
+ */
+class IndexedBfsSolver {
+    private static final Direction[] DIRECTIONS = GridNeighbours.DIRECTIONS;
+
+    private final Maze maze;
+    private final SolveMetrics metrics;
+    private final GridNeighbours neighbours;
+    private final int width;
+
+    // Cells of the next layer which have been reached but not yet marked into the maze, one bit per cell
+    private final long[] reachedInNextLayer;
+
+    /*
+     * Between the calls to generateNextLayer() and markNextLayer() firstOrder contains the unmarked next layer and
+     * lastOrder contains the current (already marked) layer. Afterwards both contain the next layer.
+     */
+    private final IntRingBuffer firstOrder;
+    private final IntRingBuffer lastOrder;
+
+    private int exitIndex;
+    private Direction exitDirection;
+    private boolean exhausted;
+
+    /**
+     * Creates a new solver for the given maze. The buffers are allocated once here and reused on every reset().
+     *
+     * @param maze not null
+     * @param metrics into which the search is measured, not null
+     */
+    IndexedBfsSolver(Maze maze, SolveMetrics metrics) {
+        if (maze == null || metrics == null) {
+            throw new NullPointerException("Solvable maze and solve metrics cannot be null");
+        }
+
+        this.maze = maze;
+        this.metrics = metrics;
+        neighbours = new GridNeighbours(maze);
+        width = maze.getWidth();
+
+        reachedInNextLayer = new long[(maze.getCellCount() + Long.SIZE - 1) / Long.SIZE];
+        firstOrder = new IntRingBuffer(2 * (maze.getHeight() + width));
+        lastOrder = new IntRingBuffer(2 * (maze.getHeight() + width));
+    }
+
+    /**
+     * Starts the search over from the starting cell. The progress of the maze must have been reset beforehand with
+     * maze.resetProgress().
+     */
+    void reset() {
+        Arrays.fill(reachedInNextLayer, 0L);
+        firstOrder.clear();
+        lastOrder.clear();
+        exitIndex = -1;
+        exitDirection = null;
+
+        int startIndex = maze.getStartIndex();
+        maze.markChecked(startIndex, null);
+        firstOrder.addLast(startIndex);
+        lastOrder.addLast(startIndex);
+
+        generateNextLayer();
+    }
+
+    /**
+     * Continues the search one layer at a time until an exit has been found, the step limit of the maze has been
+     * exceeded or there are no more cells to check. If the step limit was exceeded, the search can be resumed from the
+     * same layer by raising the step limit of the maze and calling this method again.
+     *
+     * If an exit was found the maze will be marked as solved and the solution path will be saved into the maze.
+     *
+     * @return true if an exit was found within the step limit, false otherwise
+     */
+    boolean solve() {
+        while (!exhausted) {
+            if (maze.isOverStepLimit()) {
+                return false;
+            }
+
+            if (exitIndex >= 0) {
+                maze.markChecked(exitIndex, exitDirection);
+                maze.setSolutionStatus(SolutionStatus.SUCCESS);
+                MazeSolver.markSolution(maze, exitIndex, metrics);
+
+                return true;
+            }
+
+            markNextLayer();
+            generateNextLayer();
+        }
+
+        return false;
+    }
+
+    /**
+     * Reaches all of the valid cells adjacent to the current layer in the order of first occurrences, and keeps the
+     * first exit found along with the Direction from which it was first reached. The reached cells replace the current
+     * layer in firstOrder and the step count of the maze is incremented by one.
+     */
+    private void generateNextLayer() {
+        var event = new MazeLayerEvent();
+        event.begin();
+        int layerSize = firstOrder.size();
+
+        for (int i = 0; i < layerSize; i++) {
+            int index = firstOrder.get(i);
+            int y = index / width;
+            int x = index - y * width;
+
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+                if (neighbour < 0 || !maze.isWalkable(neighbour) || maze.isChecked(neighbour)
+                        || isReachedInNextLayer(neighbour)) {
+                    continue;
+                }
+
+                reachedInNextLayer[neighbour >>> 6] |= 1L << neighbour;
+                firstOrder.addLast(neighbour);
+
+                if (exitIndex < 0 && maze.isExit(neighbour)) {
+                    exitIndex = neighbour;
+                    exitDirection = DIRECTIONS[d];
+                }
+            }
+        }
+
+        firstOrder.discardFirst(layerSize);
+        metrics.addExpandedNodes(layerSize);
+        metrics.updatePeakFrontierSize(firstOrder.size());
+        maze.setCurrentStepCount(maze.getCurrentStepCount() + 1);
+        exhausted = firstOrder.isEmpty();
+        MazeSolver.commitLayerEvent(event, SolverEngine.INDEXED_BFS, maze.getCurrentStepCount(), maze.getStepLimit(),
+                layerSize, firstOrder.size());
+    }
+
+    /**
+     * Marks the reached cells of the next layer into the maze as checked, along with the Direction from the parent from
+     * which they were last reached. This is done by going through the current layer backwards in the order of last
+     * occurrences, so that the first time a cell is reached is its last occurrence. The marked cells replace the
+     * current layer in lastOrder, in the order of last occurrences.
+     */
+    private void markNextLayer() {
+        int layerSize = lastOrder.size();
+
+        for (int i = layerSize - 1; i >= 0; i--) {
+            int index = lastOrder.get(i);
+            int y = index / width;
+            int x = index - y * width;
+
+            for (int d = DIRECTIONS.length - 1; d >= 0; d--) {
+                int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+                if (neighbour < 0 || !isReachedInNextLayer(neighbour)) {
+                    continue;
+                }
+
+                reachedInNextLayer[neighbour >>> 6] &= ~(1L << neighbour);
+                maze.markChecked(neighbour, DIRECTIONS[d]);
+                lastOrder.addLast(neighbour);
+            }
+        }
+
+        lastOrder.discardFirst(layerSize);
+        lastOrder.reverse(0, lastOrder.size());
+    }
+
+    /**
+     * Returns boolean based on if the search has run out of cells to check, in which case raising the step limit of
+     * the maze will not help.
+     *
+     * @return true if there are no more cells to check, false otherwise
+     */
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    private boolean isReachedInNextLayer(int index) {
+        return (reachedInNextLayer[index >>> 6] & (1L << index)) != 0;
+    }
+}
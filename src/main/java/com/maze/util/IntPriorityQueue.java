@@ -0,0 +1,148 @@
+package com.maze.util;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of primitive int values ordered by primitive long priorities.
+ * Used by the best-first solving algorithms for their open sets of cell indexes so that no object is allocated per
+ * queued cell. Entries are never updated in place: a cell whose priority improves is simply added again and the stale
+ * entry is skipped by the caller when it is eventually removed.
+ */
+public class IntPriorityQueue {
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private long[] priorities;
+    private int[] values;
+    private int size;
+
+    /**
+     * Creates a new IntPriorityQueue which can hold the given amount of entries before having to grow.
+     *
+     * @param initialCapacity not negative
+     */
+    public IntPriorityQueue(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative");
+        }
+
+        int capacity = Math.max(MINIMUM_CAPACITY, initialCapacity);
+        priorities = new long[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * Adds the given value with the given priority. Lower priorities are removed first.
+     *
+     * @param priority of the value
+     * @param value to be added
+     */
+    public void add(long priority, int value) {
+        if (size == values.length) {
+            grow();
+        }
+
+        int position = size++;
+
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+
+            if (priorities[parent] <= priority) {
+                break;
+            }
+
+            priorities[position] = priorities[parent];
+            values[position] = values[parent];
+            position = parent;
+        }
+
+        priorities[position] = priority;
+        values[position] = value;
+    }
+
+    /**
+     * Returns the lowest priority in the queue without removing its entry.
+     *
+     * @return the lowest priority in the queue
+     * @throws IllegalStateException if the queue is empty
+     */
+    public long peekPriority() {
+        if (size == 0) {
+            throw new IllegalStateException("Cannot peek into an empty queue");
+        }
+
+        return priorities[0];
+    }
+
+    /**
+     * Removes the entry with the lowest priority and returns its value.
+     *
+     * @return the value with the lowest priority
+     * @throws IllegalStateException if the queue is empty
+     */
+    public int removeFirst() {
+        if (size == 0) {
+            throw new IllegalStateException("Cannot remove from an empty queue");
+        }
+
+        int first = values[0];
+        size--;
+
+        if (size > 0) {
+            siftDown(priorities[size], values[size]);
+        }
+
+        return first;
+    }
+
+    /**
+     * Removes all entries from the queue while keeping its current capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Places the given entry into the root of the heap and moves it down until the heap is in order again.
+     */
+    private void siftDown(long priority, int value) {
+        int position = 0;
+        int half = size >>> 1;
+
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+
+            if (right < size && priorities[right] < priorities[child]) {
+                child = right;
+            }
+
+            if (priority <= priorities[child]) {
+                break;
+            }
+
+            priorities[position] = priorities[child];
+            values[position] = values[child];
+            position = child;
+        }
+
+        priorities[position] = priority;
+        values[position] = value;
+    }
+
+    private void grow() {
+        if (values.length > Integer.MAX_VALUE / 2) {
+            throw new IllegalStateException("Queue cannot grow beyond " + values.length + " entries");
+        }
+
+        priorities = Arrays.copyOf(priorities, values.length * 2);
+        values = Arrays.copyOf(values, values.length * 2);
+    }
+}
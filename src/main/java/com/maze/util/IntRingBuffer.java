@@ -0,0 +1,143 @@
+package com.maze.util;
+
+/**
+ * A growable first-in-first-out ring buffer of primitive ints.
+ * Used by the solving algorithms for their frontiers of cell indexes so that no object is allocated per cell. The
+ * backing array is only reallocated when the buffer runs out of capacity, after which it is reused for the rest of the
+ * solve.
+ */
+public class IntRingBuffer {
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private int[] elements;
+    private int mask;
+    private int head;
+    private int size;
+
+    /**
+     * Creates a new IntRingBuffer which can hold at least the given amount of ints before having to grow.
+     *
+     * @param initialCapacity not negative
+     */
+    public IntRingBuffer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative");
+        }
+
+        int capacity = Math.max(MINIMUM_CAPACITY, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1);
+        elements = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Appends the given value to the end of the buffer.
+     *
+     * @param value to be appended
+     */
+    public void addLast(int value) {
+        if (size == elements.length) {
+            grow();
+        }
+
+        elements[(head + size) & mask] = value;
+        size++;
+    }
+
+    /**
+     * Removes and returns the first value of the buffer.
+     *
+     * @return the first value of the buffer
+     * @throws IllegalStateException if the buffer is empty
+     */
+    public int removeFirst() {
+        if (size == 0) {
+            throw new IllegalStateException("Cannot remove from an empty buffer");
+        }
+
+        int value = elements[head];
+        head = (head + 1) & mask;
+        size--;
+
+        return value;
+    }
+
+    /**
+     * Returns the value at the given position, counted from the start of the buffer.
+     *
+     * @param position between 0 (inclusive) and size() (exclusive)
+     * @return the value at the given position
+     */
+    public int get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of bounds for size " + size);
+        }
+
+        return elements[(head + position) & mask];
+    }
+
+    /**
+     * Discards the given amount of values from the start of the buffer.
+     *
+     * @param count between 0 and size() (both inclusive)
+     */
+    public void discardFirst(int count) {
+        if (count < 0 || count > size) {
+            throw new IndexOutOfBoundsException("Cannot discard " + count + " values from buffer of size " + size);
+        }
+
+        head = (head + count) & mask;
+        size -= count;
+    }
+
+    /**
+     * Reverses the order of the values between the given positions, counted from the start of the buffer.
+     *
+     * @param from position of the first value to be reversed (inclusive)
+     * @param to position after the last value to be reversed (exclusive), not over size()
+     */
+    public void reverse(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Cannot reverse range " + from + "-" + to + " of size " + size);
+        }
+
+        for (int i = head + from, j = head + to - 1; i < j; i++, j--) {
+            int temp = elements[i & mask];
+            elements[i & mask] = elements[j & mask];
+            elements[j & mask] = temp;
+        }
+    }
+
+    /**
+     * Removes all values from the buffer while keeping its current capacity.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Doubles the capacity of the buffer while keeping the order of the values.
+     */
+    private void grow() {
+        if (elements.length > Integer.MAX_VALUE / 2) {
+            throw new IllegalStateException("Buffer cannot grow beyond " + elements.length + " values");
+        }
+
+        int[] grown = new int[elements.length * 2];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+
+        elements = grown;
+        mask = grown.length - 1;
+        head = 0;
+    }
+}
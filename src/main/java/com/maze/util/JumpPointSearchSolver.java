@@ -0,0 +1,376 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+
+import java.util.Arrays;
+
+/**
+ * Jump Point Search from the starting cell towards the nearest exit, for the four Directions of the grid.
+ *
+ * This is A* (see AStarSolver) in which a cell is not expanded into its adjacent cells but into the cells where a
+ * straight line from it must turn: the search "jumps" along each direction over cells through which any shortest path
+ * would just continue straight, and stops only at jump points, i.e. at an exit or at a cell with a forced neighbour
+ * (a side cell which opens up right after a BLOCK tile, so that a path may have to turn there). When moving vertically
+ * every cell is also scanned horizontally in both directions, and it is a jump point if either scan finds one. A jump
+ * point reached horizontally is expanded upwards, downwards and straight ahead, and one reached vertically to the left,
+ * to the right and straight ahead. The start is expanded in all four directions.
+ *
+ * The cost of a jump is its length in steps, so the solution is equally short as the one found by BFS. Only the jump
+ * points enter the open set, which on large open areas is a tiny fraction of the cells A* would queue, while in narrow
+ * corridors nearly every turn is a jump point and the search is about as fast as A*. Once an exit is found the
+ * solution path is filled in cell by cell between the jump points.
+ *
+ * Since the horizontal scans make up most of the work, the cells where a horizontal jump stops (BLOCK tiles and jump
+ * points) are precomputed for both directions into one bit per cell, so that a scan checks 64 cells at a time.
+ */
+class JumpPointSearchSolver {
+    private static final int UNREACHED = Integer.MAX_VALUE;
+    private static final int NO_JUMP_POINT = -1;
+
+    private final Maze maze;
+    private final SolveMetrics metrics;
+    private final int height;
+    private final int width;
+
+    private final NearestExitEstimate nearestExitEstimate;
+
+    // Bit for every cell at which a jump to the right (or left) stops, each row starting from a new long
+    private final int wordsPerRow;
+    private final long[] rightStops;
+    private final long[] leftStops;
+
+    // Length of the shortest known path from the start for every jump point, the Direction in which the path arrives
+    // is kept as the trace of the jump point in the maze
+    private final int[] costs;
+    private final IntPriorityQueue openSet;
+
+    /**
+     * Creates a new solver for the given maze.
+     *
+     * @param maze not null
+     * @param metrics into which the search is measured, not null
+     */
+    JumpPointSearchSolver(Maze maze, SolveMetrics metrics) {
+        if (maze == null || metrics == null) {
+            throw new NullPointerException("Solvable maze and solve metrics cannot be null");
+        }
+
+        this.maze = maze;
+        this.metrics = metrics;
+        height = maze.getHeight();
+        width = maze.getWidth();
+
+        nearestExitEstimate = new NearestExitEstimate(maze);
+        wordsPerRow = (width + Long.SIZE - 1) / Long.SIZE;
+        rightStops = new long[height * wordsPerRow];
+        leftStops = new long[height * wordsPerRow];
+        markHorizontalStops();
+        costs = new int[maze.getCellCount()];
+        openSet = new IntPriorityQueue(2 * (height + width));
+    }
+
+    /**
+     * Searches for the shortest path from the start to an exit which is at most the given amount of steps long.
+     * The progress of the maze must have been reset beforehand with maze.resetProgress().
+     *
+     * If an exit was found the maze will be marked as solved, the solution path will be saved into the maze and the
+     * current step count of the maze will be set to the length of the solution.
+     *
+     * @param stepLimit maximum length of the solution
+     * @return true if an exit was found within the step limit, false otherwise
+     */
+    boolean solve(int stepLimit) {
+        Arrays.fill(costs, UNREACHED);
+        openSet.clear();
+
+        int startIndex = maze.getStartIndex();
+        costs[startIndex] = 0;
+        maze.markChecked(startIndex, null);
+        openSet.add(priority(nearestExitEstimate.estimateRemainingSteps(startIndex), 0), startIndex);
+
+        while (!openSet.isEmpty()) {
+            long priority = openSet.peekPriority();
+            int index = openSet.removeFirst();
+            int cost = Integer.MAX_VALUE - (int) priority;
+
+            if (cost != costs[index]) {
+                continue; // Stale entry, the jump point has been queued again with a shorter path
+            }
+
+            if (maze.isExit(index)) {
+                markPathBetweenJumpPoints(index, cost);
+                maze.setSolutionStatus(SolutionStatus.SUCCESS);
+                maze.setCurrentStepCount(cost);
+                MazeSolver.markSolution(maze, index, metrics);
+
+                return true;
+            }
+
+            expand(index, cost, stepLimit);
+            metrics.addExpandedNodes(1);
+            metrics.updatePeakFrontierSize(openSet.size());
+        }
+
+        return false;
+    }
+
+    /**
+     * Jumps from the given jump point in the directions allowed by the direction from which it was reached, and queues
+     * every jump point found to which a shorter path was found, unless the path could not reach an exit within the
+     * step limit.
+     */
+    private void expand(int index, int cost, int stepLimit) {
+        int y = index / width;
+        int x = index - y * width;
+        Direction arrival = maze.getDirection(index);
+        int dy = arrival != null ? arrival.getYAppend() : 0;
+        int dx = arrival != null ? arrival.getXAppend() : 0;
+
+        if (dy == 0) { // Reached horizontally (or the start), so there is no need to turn back vertically
+            queueJumpPoint(index, cost, jumpVertically(index, y, x, -1), Direction.UP, stepLimit);
+            queueJumpPoint(index, cost, jumpVertically(index, y, x, 1), Direction.DOWN, stepLimit);
+        } else {
+            queueJumpPoint(index, cost, jumpVertically(index, y, x, dy), arrival, stepLimit);
+        }
+
+        if (dx == 0) { // Reached vertically (or the start), so there is no need to turn back horizontally
+            queueJumpPoint(index, cost, jumpHorizontally(y, x, -1), Direction.LEFT, stepLimit);
+            queueJumpPoint(index, cost, jumpHorizontally(y, x, 1), Direction.RIGHT, stepLimit);
+        } else {
+            queueJumpPoint(index, cost, jumpHorizontally(y, x, dx), arrival, stepLimit);
+        }
+    }
+
+    private void queueJumpPoint(int from, int fromCost, int jumpPoint, Direction direction, int stepLimit) {
+        if (jumpPoint == NO_JUMP_POINT) {
+            return;
+        }
+
+        int nextCost = fromCost + distance(from, jumpPoint);
+
+        if (nextCost >= costs[jumpPoint]) {
+            return;
+        }
+
+        long estimate = (long) nextCost + nearestExitEstimate.estimateRemainingSteps(jumpPoint);
+
+        if (estimate > stepLimit) {
+            return;
+        }
+
+        costs[jumpPoint] = nextCost;
+        maze.markChecked(jumpPoint, direction);
+        openSet.add(priority(estimate, nextCost), jumpPoint);
+    }
+
+    /**
+     * Sets the bits of the cells at which a horizontal jump stops: BLOCK tiles, exits and cells with a forced
+     * neighbour when reached in the direction of the jump. The forced neighbours are found 64 cells at a time from the
+     * walkable cells of the rows above and below.
+     */
+    private void markHorizontalStops() {
+        long[] walkable = new long[height * wordsPerRow];
+        long[] exits = new long[height * wordsPerRow];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0, index = y * width; x < width; x++, index++) {
+                int word = y * wordsPerRow + x / Long.SIZE;
+
+                if (maze.isWalkable(index)) {
+                    walkable[word] |= 1L << x; // Shifts by x % 64
+                }
+
+                if (maze.isExit(index)) {
+                    exits[word] |= 1L << x;
+                }
+            }
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                int word = y * wordsPerRow + w;
+                long forcedRight = 0;
+                long forcedLeft = 0;
+
+                for (int sideY = y - 1; sideY <= y + 1; sideY += 2) {
+                    if (sideY < 0 || sideY >= height) {
+                        continue;
+                    }
+
+                    int sideWord = sideY * wordsPerRow + w;
+                    long side = walkable[sideWord];
+                    // Whether the side cell one column to the left (or right) of each cell is walkable
+                    long sideOfPrevious = (side << 1)
+                            | (w > 0 ? walkable[sideWord - 1] >>> (Long.SIZE - 1) : 0);
+                    long sideOfNext = (side >>> 1)
+                            | (w < wordsPerRow - 1 ? walkable[sideWord + 1] << (Long.SIZE - 1) : 0);
+                    forcedRight |= side & ~sideOfPrevious;
+                    forcedLeft |= side & ~sideOfNext;
+                }
+
+                // A jump to the right never reaches the first cell of a row, nor a jump to the left the last one
+                if (w == 0) {
+                    forcedRight &= ~1L;
+                }
+
+                if (w == (width - 1) / Long.SIZE) {
+                    forcedLeft &= ~(1L << (width - 1));
+                }
+
+                long inRow = w < wordsPerRow - 1 || width % Long.SIZE == 0 ? -1L : (1L << width) - 1;
+                long blockedOrExit = (~walkable[word] | exits[word]) & inRow;
+                rightStops[word] = blockedOrExit | (forcedRight & walkable[word]);
+                leftStops[word] = blockedOrExit | (forcedLeft & walkable[word]);
+            }
+        }
+    }
+
+    /**
+     * Moves from the given cell horizontally in the given direction until a jump point is found.
+     *
+     * @return index of the jump point, NO_JUMP_POINT if a BLOCK tile or the edge of the maze was reached first
+     */
+    private int jumpHorizontally(int y, int x, int dx) {
+        int stopX = dx > 0 ? findNextStop(y, x + 1) : findPreviousStop(y, x - 1);
+
+        if (stopX < 0) {
+            return NO_JUMP_POINT;
+        }
+
+        int stop = y * width + stopX;
+
+        return maze.isWalkable(stop) ? stop : NO_JUMP_POINT;
+    }
+
+    /**
+     * Returns the column of the first right stop at or after the given column of the given row, -1 if there is none.
+     */
+    private int findNextStop(int y, int x) {
+        if (x >= width) {
+            return -1;
+        }
+
+        int rowWord = y * wordsPerRow;
+        int word = rowWord + x / Long.SIZE;
+        long bits = rightStops[word] & (-1L << x);
+
+        while (bits == 0) {
+            if (++word == rowWord + wordsPerRow) {
+                return -1;
+            }
+
+            bits = rightStops[word];
+        }
+
+        return (word - rowWord) * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the column of the last left stop at or before the given column of the given row, -1 if there is none.
+     */
+    private int findPreviousStop(int y, int x) {
+        if (x < 0) {
+            return -1;
+        }
+
+        int rowWord = y * wordsPerRow;
+        int word = rowWord + x / Long.SIZE;
+        long bits = leftStops[word] & (-1L >>> (Long.SIZE - 1 - x % Long.SIZE));
+
+        while (bits == 0) {
+            if (word-- == rowWord) {
+                return -1;
+            }
+
+            bits = leftStops[word];
+        }
+
+        return (word - rowWord) * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(bits);
+    }
+
+    /**
+     * Moves from the given cell vertically in the given direction until a jump point is found, including a cell from
+     * which a horizontal jump finds one.
+     *
+     * @return index of the jump point, NO_JUMP_POINT if a BLOCK tile or the edge of the maze was reached first
+     */
+    private int jumpVertically(int index, int y, int x, int dy) {
+        while (true) {
+            y += dy;
+            index += dy * width;
+
+            if (y < 0 || y >= height || !maze.isWalkable(index)) {
+                return NO_JUMP_POINT;
+            }
+
+            if (maze.isExit(index) || isForcedHorizontally(index, x, dy, -1) || isForcedHorizontally(index, x, dy, 1)
+                    || jumpHorizontally(y, x, -1) != NO_JUMP_POINT
+                    || jumpHorizontally(y, x, 1) != NO_JUMP_POINT) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the cell to the left or right (side -1 or 1) of the given cell, reached vertically in direction
+     * dy, is walkable while the one next to the previous cell of the column is not.
+     */
+    private boolean isForcedHorizontally(int index, int x, int dy, int side) {
+        int sideX = x + side;
+
+        if (sideX < 0 || sideX >= width) {
+            return false;
+        }
+
+        int sideIndex = index + side;
+
+        return maze.isWalkable(sideIndex) && !maze.isWalkable(sideIndex - dy * width);
+    }
+
+    /**
+     * Marks every cell of the path from the start to the given exit with the direction from which it was entered, so
+     * that MazeSolver.markSolution can follow the path back cell by cell. From each jump point the path is followed
+     * back against the direction of its arrival until a jump point with a matching path length, i.e. the one from
+     * which it was reached (or an equally short alternative), is met.
+     */
+    private void markPathBetweenJumpPoints(int exitIndex, int exitCost) {
+        metrics.startPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+
+        for (int index = exitIndex, cost = exitCost; cost > 0; ) {
+            Direction direction = maze.getDirection(index);
+            int step = direction.getYAppend() * width + direction.getXAppend();
+            int previous = index - step;
+            cost--;
+
+            while (costs[previous] != cost) {
+                maze.markChecked(previous, direction);
+                previous -= step;
+                cost--;
+            }
+
+            index = previous;
+        }
+
+        metrics.endPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+    }
+
+    /**
+     * Returns the length of the straight jump between the given cells.
+     */
+    private int distance(int from, int to) {
+        int fromY = from / width;
+        int toY = to / width;
+
+        return Math.abs(toY - fromY) + Math.abs((to - toY * width) - (from - fromY * width));
+    }
+
+    /**
+     * Packs the estimated total length and the length so far into a single priority so that the lowest estimate comes
+     * first and ties are broken in favour of the longer path so far.
+     */
+    private static long priority(long estimate, int cost) {
+        return (estimate << Integer.SIZE) | (Integer.MAX_VALUE - cost);
+    }
+}
@@ -0,0 +1,163 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.JunctionGraph;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm on the JunctionGraph of the maze, from the node of the starting cell to the nearest exit.
+ *
+ * Every corridor is crossed with a single edge instead of a step per cell, so the search takes time proportional to
+ * the amount of junctions and dead ends rather than the amount of cells. Once an exit is found only the corridors of
+ * the found path are walked through again in order to mark the solution path cell by cell. The solution is equally
+ * short as the one found by BFS, but among several equally short paths a different one may be chosen.
+ *
+ * The graph is computed on the first solve of a maze and kept with the maze (see Maze.getJunctionGraph), so solving
+ * the same maze again only searches the graph.
+ */
+class JunctionGraphSolver {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final Maze maze;
+    private final SolveMetrics metrics;
+    private final JunctionGraph graph;
+
+    // Length of the shortest known path from the start for every node
+    private final int[] distances;
+    // Node from which the shortest known path arrives to every node, and the Direction ordinal in which it leaves it
+    private final int[] previousNodes;
+    private final byte[] leavingDirections;
+    private final IntPriorityQueue openSet;
+
+    /**
+     * Creates a new solver for the given maze, computing the JunctionGraph of the maze if it has not been computed
+     * yet.
+     *
+     * @param maze not null
+     * @param metrics into which the search is measured, not null
+     */
+    JunctionGraphSolver(Maze maze, SolveMetrics metrics) {
+        if (maze == null || metrics == null) {
+            throw new NullPointerException("Solvable maze and solve metrics cannot be null");
+        }
+
+        this.maze = maze;
+        this.metrics = metrics;
+        graph = maze.getJunctionGraph();
+        distances = new int[graph.getNodeCount()];
+        previousNodes = new int[graph.getNodeCount()];
+        leavingDirections = new byte[graph.getNodeCount()];
+        openSet = new IntPriorityQueue(Math.min(graph.getNodeCount(), 1 << 16));
+    }
+
+    /**
+     * Searches for the shortest path from the start to an exit which is at most the given amount of steps long.
+     * The progress of the maze must have been reset beforehand with maze.resetProgress().
+     *
+     * If an exit was found the maze will be marked as solved, the solution path will be saved into the maze and the
+     * current step count of the maze will be set to the length of the solution.
+     *
+     * @param stepLimit maximum length of the solution
+     * @return true if an exit was found within the step limit, false otherwise
+     */
+    boolean solve(int stepLimit) {
+        Arrays.fill(distances, UNREACHED);
+        openSet.clear();
+
+        int startNode = graph.getNode(maze.getStartIndex());
+        distances[startNode] = 0;
+        previousNodes[startNode] = JunctionGraph.NO_NODE;
+        openSet.add(0, startNode);
+
+        while (!openSet.isEmpty()) {
+            long distance = openSet.peekPriority();
+            int node = openSet.removeFirst();
+
+            if (distance != distances[node]) {
+                continue; // Stale entry, the node has been queued again with a shorter path
+            }
+
+            if (maze.isExit(graph.getCellIndex(node))) {
+                markPath(node);
+                maze.setSolutionStatus(SolutionStatus.SUCCESS);
+                maze.setCurrentStepCount((int) distance);
+                MazeSolver.markSolution(maze, graph.getCellIndex(node), metrics);
+
+                return true;
+            }
+
+            expand(node, (int) distance, stepLimit);
+            metrics.addExpandedNodes(1);
+            metrics.updatePeakFrontierSize(openSet.size());
+        }
+
+        return false;
+    }
+
+    /**
+     * Queues all of the neighbouring nodes of the given node to which a shorter path was found through the given node,
+     * unless the path is longer than the step limit.
+     */
+    private void expand(int node, int distance, int stepLimit) {
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int neighbour = graph.getNeighbour(node, DIRECTIONS[d]);
+
+            if (neighbour == JunctionGraph.NO_NODE) {
+                continue;
+            }
+
+            long nextDistance = (long) distance + graph.getEdgeLength(node, DIRECTIONS[d]);
+
+            if (nextDistance > stepLimit || nextDistance >= distances[neighbour]) {
+                continue;
+            }
+
+            distances[neighbour] = (int) nextDistance;
+            previousNodes[neighbour] = node;
+            leavingDirections[neighbour] = (byte) d;
+            openSet.add(nextDistance, neighbour);
+        }
+    }
+
+    /**
+     * Marks every cell of the path from the start to the given exit node with the direction from which it was entered,
+     * by walking through the corridors of the path, so that MazeSolver.markSolution can follow the path back cell by
+     * cell.
+     */
+    private void markPath(int exitNode) {
+        metrics.startPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+        int width = maze.getWidth();
+
+        for (int node = exitNode; previousNodes[node] != JunctionGraph.NO_NODE; node = previousNodes[node]) {
+            int previousNode = previousNodes[node];
+            int previous = graph.getCellIndex(previousNode);
+
+            for (int cell : graph.getCorridor(previousNode, DIRECTIONS[leavingDirections[node]])) {
+                maze.markChecked(cell, getDirection(previous, cell, width));
+                previous = cell;
+            }
+        }
+
+        metrics.endPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+    }
+
+    /**
+     * Returns the Direction of the step between the given adjacent cells.
+     */
+    private static Direction getDirection(int from, int to, int width) {
+        int step = to - from;
+
+        // Vertical steps are checked first, since in a maze one cell wide they are also 1 or -1
+        if (step == width) {
+            return Direction.DOWN;
+        } else if (step == -width) {
+            return Direction.UP;
+        }
+
+        return step > 0 ? Direction.RIGHT : Direction.LEFT;
+    }
+}
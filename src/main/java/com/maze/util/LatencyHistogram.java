@@ -0,0 +1,95 @@
+package com.maze.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in power-of-two buckets of microseconds, from which the percentiles are estimated as the upper
+ * bound of the bucket they fall into. Recording a duration takes constant time and memory regardless of how many
+ * durations have been recorded.
+ *
+ * All of the methods are safe to call from several threads at once.
+ */
+public class LatencyHistogram {
+    private static final int BUCKET_COUNT = Long.SIZE;
+    private static final double NANOS_PER_MICRO = 1_000.0;
+    private static final double MICROS_PER_MILLI = 1_000.0;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    // Amount of durations, bucket i counting the durations from 2^(i-1) to 2^i - 1 whole microseconds
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Adds the given duration into the histogram.
+     *
+     * @param nanos duration in nanoseconds, negative durations are counted as 0
+     */
+    public void record(long nanos) {
+        long duration = Math.max(0, nanos);
+        count.increment();
+        totalNanos.add(duration);
+        maxNanos.accumulate(duration);
+        long micros = (long) (duration / NANOS_PER_MICRO);
+        buckets.incrementAndGet(BUCKET_COUNT - Long.numberOfLeadingZeros(micros));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the average of the recorded durations.
+     *
+     * @return the average in milliseconds, 0 if nothing has been recorded
+     */
+    public double getAverageMillis() {
+        return totalNanos.sum() / Math.max(1.0, getCount()) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the longest of the recorded durations.
+     *
+     * @return the longest duration in milliseconds, 0 if nothing has been recorded
+     */
+    public double getMaxMillis() {
+        return maxNanos.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Estimates the duration under which the given fraction of the recorded durations fall.
+     *
+     * @param percentile between 0 and 100
+     * @return upper bound of the duration in milliseconds, 0 if nothing has been recorded
+     */
+    public double getMillisPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+
+        long total = 0;
+        long[] counts = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        long rank = (long) Math.ceil(percentile / 100 * total);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+
+            if (seen >= rank && seen > 0) {
+                return Math.min((1L << i) / MICROS_PER_MILLI, getMaxMillis());
+            }
+        }
+
+        return 0;
+    }
+}
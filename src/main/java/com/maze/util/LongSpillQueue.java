@@ -0,0 +1,185 @@
+package com.maze.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A first-in-first-out queue of primitive longs which keeps at most two fixed-size blocks of the queue in memory and
+ * spills the rest into a temporary file, so that the frontier of a search on a maze larger than the available memory
+ * does not have to fit in memory either.
+ *
+ * The values are removed from the head block and appended to the tail block. When the tail block is full it is written
+ * to the end of the file, and when the head block runs out the next block is read from the start of the unread part of
+ * the file, or the tail block becomes the head block if nothing has been spilled. The file is only created once the
+ * queue first grows beyond two blocks, and it is deleted when the queue is closed.
+ */
+class LongSpillQueue implements Closeable {
+    private final Path directory;
+    private final int blockSize;
+    private final ByteBuffer transferBuffer;
+    private final LongBuffer transferLongs;
+
+    private long[] headBlock;
+    private int headPosition;
+    private int headSize;
+    private long[] tailBlock;
+    private int tailSize;
+    private long size;
+
+    // Spilled blocks between the head and the tail block, null until the first block is spilled
+    private FileChannel spillFile;
+    private long readPosition;
+    private long writePosition;
+
+    /**
+     * Creates a new empty queue.
+     *
+     * @param directory in which the temporary file is created if the queue grows beyond two blocks, not null
+     * @param blockSize amount of values in a block, positive
+     */
+    LongSpillQueue(Path directory, int blockSize) {
+        if (directory == null) {
+            throw new NullPointerException("Spill directory cannot be null");
+        }
+
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+
+        this.directory = directory;
+        this.blockSize = blockSize;
+        headBlock = new long[blockSize];
+        tailBlock = new long[blockSize];
+        transferBuffer = ByteBuffer.allocateDirect(blockSize * Long.BYTES);
+        transferLongs = transferBuffer.asLongBuffer();
+    }
+
+    /**
+     * Appends the given value to the end of the queue.
+     *
+     * @param value to be appended
+     * @throws IOException if the tail block could not be written into the temporary file
+     */
+    void addLast(long value) throws IOException {
+        if (tailSize == blockSize) {
+            if (headPosition == headSize && readPosition == writePosition) {
+                swapTailIntoHead(); // Nothing in between, so no need to go through the file
+            } else {
+                spillTail();
+            }
+        }
+
+        tailBlock[tailSize++] = value;
+        size++;
+    }
+
+    /**
+     * Removes and returns the first value of the queue.
+     *
+     * @return the first value of the queue
+     * @throws IOException if the next block could not be read from the temporary file
+     * @throws IllegalStateException if the queue is empty
+     */
+    long removeFirst() throws IOException {
+        if (size == 0) {
+            throw new IllegalStateException("Cannot remove from an empty queue");
+        }
+
+        if (headPosition == headSize) {
+            if (readPosition < writePosition) {
+                readHead();
+            } else {
+                swapTailIntoHead();
+            }
+        }
+
+        size--;
+
+        return headBlock[headPosition++];
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every value from the queue. The temporary file is kept for reuse.
+     */
+    void clear() {
+        headPosition = 0;
+        headSize = 0;
+        tailSize = 0;
+        size = 0;
+        readPosition = 0;
+        writePosition = 0;
+    }
+
+    private void swapTailIntoHead() {
+        long[] block = headBlock;
+        headBlock = tailBlock;
+        headSize = tailSize;
+        headPosition = 0;
+        tailBlock = block;
+        tailSize = 0;
+    }
+
+    private void spillTail() throws IOException {
+        if (spillFile == null) {
+            Path file = Files.createTempFile(directory, "frontier", ".tmp");
+            spillFile = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        transferLongs.clear();
+        transferLongs.put(tailBlock, 0, tailSize);
+        transferBuffer.clear().limit(tailSize * Long.BYTES);
+
+        while (transferBuffer.hasRemaining()) {
+            writePosition += spillFile.write(transferBuffer, writePosition);
+        }
+
+        tailSize = 0;
+    }
+
+    private void readHead() throws IOException {
+        int byteCount = (int) Math.min((long) blockSize * Long.BYTES, writePosition - readPosition);
+        transferBuffer.clear().limit(byteCount);
+
+        while (transferBuffer.hasRemaining()) {
+            int read = spillFile.read(transferBuffer, readPosition);
+
+            if (read < 0) {
+                throw new IOException("Temporary frontier file ended unexpectedly");
+            }
+
+            readPosition += read;
+        }
+
+        transferLongs.clear();
+        transferLongs.get(headBlock, 0, byteCount / Long.BYTES);
+        headSize = byteCount / Long.BYTES;
+        headPosition = 0;
+
+        if (readPosition == writePosition) {
+            // Every spilled block has been read, so the file can be filled again from the start
+            readPosition = 0;
+            writePosition = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOUtil.close(spillFile);
+        spillFile = null;
+    }
+}
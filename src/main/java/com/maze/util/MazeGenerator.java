@@ -0,0 +1,556 @@
+package com.maze.util;
+
+import com.maze.domain.Maze;
+import com.maze.domain.Tile;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Creates mazes of any size and MazeTopology from a seed, so that the same maze can be recreated for load and scaling
+ * tests instead of being stored.
+ *
+ * The maze is created a row at a time and only a few rows worth of state are kept in memory, so maze files much larger
+ * than the heap can be written straight to disk in either the text or the binary format.
+ *
+ * Every maze is surrounded by BLOCK tiles and has its START at (1, 1). The passages are carved on the largest grid of
+ * odd height and width which fits the maze, so a maze of even height or width has an extra row or column of BLOCK
+ * tiles at the bottom or on the right. The cells at odd coordinates of the grid are walkable in every topology. The
+ * first EXIT is at the far end of the maze from the START and any further exits are placed on randomly chosen cells
+ * at odd coordinates.
+ */
+public class MazeGenerator {
+    private static final byte BLOCK = (byte) Tile.BLOCK.ordinal();
+    private static final byte SPACE = (byte) Tile.SPACE.ordinal();
+    private static final byte EXIT = (byte) Tile.EXIT.ordinal();
+    private static final byte START = (byte) Tile.START.ordinal();
+
+    // Chars of the Tiles by their ordinals
+    private static final byte[] TILE_CHARS = new byte[Tile.values().length];
+
+    static {
+        for (Tile tile : Tile.values()) {
+            TILE_CHARS[tile.ordinal()] = (byte) tile.getChar();
+        }
+    }
+
+    // Distance between the walls of consecutive rooms of the ROOMS topology
+    private static final int ROOM_PERIOD = 8;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final MazeTopology topology;
+    private final int height;
+    private final int width;
+    private final int exitCount;
+    private final long seed;
+
+    // Height and width of the carved grid, i.e. the height and width of the maze rounded down to odd numbers
+    private final int gridHeight;
+    private final int gridWidth;
+
+    /**
+     * Carves the passages of a topology a row at a time.
+     */
+    private interface RowCarver {
+        /**
+         * Carves the passages of the next row of the grid.
+         *
+         * @param y of the row, called for every row of the grid in order starting from 0
+         * @param row filled with BLOCK tiles, into which the SPACE tiles of the row are set
+         */
+        void carveRow(int y, byte[] row);
+    }
+
+    /**
+     * Creates a new generator. Nothing is generated until one of the generate or write methods is called, and every one
+     * of them creates the same maze.
+     *
+     * @param topology shape of the maze, not null
+     * @param height of the maze, at least 3
+     * @param width of the maze, at least 3
+     * @param exitCount amount of EXIT tiles in the maze, at least 1
+     * @param seed of the random choices made while creating the maze
+     * @throws IllegalArgumentException if the maze is too small to have a START and the given amount of exits, or too
+     *                                  large to be parsed
+     */
+    public MazeGenerator(MazeTopology topology, int height, int width, int exitCount, long seed) {
+        if (topology == null) {
+            throw new NullPointerException("Maze topology cannot be null");
+        }
+
+        if (height < 3 || width < 3) {
+            throw new IllegalArgumentException("Generated maze must be at least 3x3");
+        }
+
+        if ((long) height * width > MazeTextScanner.MAX_TILES) {
+            throw new IllegalArgumentException("Generated maze cannot have more than " + MazeTextScanner.MAX_TILES
+                    + " tiles");
+        }
+
+        this.topology = topology;
+        this.height = height;
+        this.width = width;
+        this.exitCount = exitCount;
+        this.seed = seed;
+        this.gridHeight = height % 2 == 1 ? height : height - 1;
+        this.gridWidth = width % 2 == 1 ? width : width - 1;
+
+        int maxExitCount = getOddCellCount() - 1;
+
+        if (maxExitCount < 1) {
+            throw new IllegalArgumentException("Generated maze of " + height + "x" + width
+                    + " is too small to have both a start and an exit");
+        }
+
+        if (exitCount < 1 || exitCount > maxExitCount) {
+            throw new IllegalArgumentException("Generated maze of " + height + "x" + width + " must have between 1 and "
+                    + maxExitCount + " exits");
+        }
+    }
+
+    /**
+     * Creates the maze in memory.
+     *
+     * @return the created maze
+     */
+    public Maze generate() {
+        var rows = new RowGenerator();
+        byte[] tiles = new byte[height * width];
+
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(rows.nextRow(), 0, tiles, y * width, width);
+        }
+
+        return new Maze(tiles, height, width, getStartIndex());
+    }
+
+    /**
+     * Writes the maze into a maze text file a row at a time, replacing the file if it exists.
+     *
+     * @param file path of the file to be written, not null
+     * @throws IOException if the file could not be written
+     */
+    public void writeTextFile(Path file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("File cannot be null");
+        }
+
+        OutputStream output = null;
+
+        try {
+            output = new BufferedOutputStream(Files.newOutputStream(file), WRITE_BUFFER_SIZE);
+            var rows = new RowGenerator();
+            byte[] line = new byte[width + 1];
+            line[width] = '\n';
+
+            for (int y = 0; y < height; y++) {
+                byte[] row = rows.nextRow();
+
+                for (int x = 0; x < width; x++) {
+                    line[x] = TILE_CHARS[row[x]];
+                }
+
+                output.write(line);
+            }
+        } finally {
+            IOUtil.close(output);
+        }
+    }
+
+    /**
+     * Writes the maze into a binary maze file (see BinaryMazeFormat) a row at a time, replacing the file if it exists.
+     *
+     * @param file path of the file to be written, not null
+     * @throws IOException if the file could not be written
+     */
+    public void writeBinaryFile(Path file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("File cannot be null");
+        }
+
+        BinaryMazeFormat.TileWriter writer = null;
+
+        try {
+            var rows = new RowGenerator();
+            writer = new BinaryMazeFormat.TileWriter(file, height, width, getStartIndex(), rows.exitIndexes);
+
+            for (int y = 0; y < height; y++) {
+                writer.writeTiles(rows.nextRow());
+            }
+
+            writer.finish();
+        } finally {
+            IOUtil.close(writer);
+        }
+    }
+
+    /**
+     * Produces the rows of the maze in order, with the START and the exits set on top of the carved passages.
+     */
+    private class RowGenerator {
+        private final RowCarver carver = createCarver(new Random(seed));
+        private final int[] exitIndexes = createExitIndexes(new Random(~seed));
+        private final byte[] row = new byte[width];
+        private int y;
+        private int nextExit;
+
+        /**
+         * Returns the next row of the maze.
+         *
+         * @return Tile ordinals of the row, overwritten by the following call
+         */
+        private byte[] nextRow() {
+            Arrays.fill(row, BLOCK);
+
+            if (y < gridHeight) {
+                carver.carveRow(y, row);
+            }
+
+            if (y == 1) {
+                row[1] = START;
+            }
+
+            while (nextExit < exitIndexes.length && exitIndexes[nextExit] / width == y) {
+                row[exitIndexes[nextExit++] % width] = EXIT;
+            }
+
+            y++;
+
+            return row;
+        }
+    }
+
+    private RowCarver createCarver(Random random) {
+        switch (topology) {
+            case PERFECT:
+                return new EllerCarver(random);
+            case ROOMS:
+                return new RoomsCarver(random);
+            case OPEN:
+                return this::carveOpenRow;
+            case SPIRAL:
+                return this::carveSpiralRow;
+            case CORRIDOR:
+                return this::carveCorridorRow;
+            default:
+                throw new IllegalArgumentException("Unsupported maze topology " + topology);
+        }
+    }
+
+    private int getStartIndex() {
+        return width + 1;
+    }
+
+    private int getOddCellCount() {
+        return (gridHeight / 2) * (gridWidth / 2);
+    }
+
+    /**
+     * Returns the index of the first exit, which is where the path from the START ends in the SPIRAL and CORRIDOR
+     * topologies, and the opposite corner of the START otherwise.
+     */
+    private int getFirstExitIndex() {
+        int lastY = gridHeight - 2;
+        int lastX = gridWidth - 2;
+
+        if (topology == MazeTopology.SPIRAL) {
+            int innermostRing = getInnermostSpiralRing();
+
+            // Too small spirals are just a single loop around the maze
+            if (innermostRing > 1) {
+                return innermostRing * width + innermostRing;
+            }
+        } else if (topology == MazeTopology.CORRIDOR && (gridHeight / 2) % 2 == 0) {
+            // With an even amount of passages the corridor ends on the left
+            return lastY * width + 1;
+        }
+
+        return lastY * width + lastX;
+    }
+
+    /**
+     * Creates the indexes of the exits in ascending order. The cells of the further exits are drawn with Floyd's
+     * algorithm, which draws every cell at most once without a retry.
+     */
+    private int[] createExitIndexes(Random random) {
+        int firstExitIndex = getFirstExitIndex();
+        int oddColumnCount = gridWidth / 2;
+        int firstExitCell = (firstExitIndex / width / 2) * oddColumnCount + (firstExitIndex % width) / 2;
+
+        // Cells at odd coordinates numbered in row-major order, excluding the START (0) and the first exit
+        int candidateCount = getOddCellCount() - 2;
+        Set<Integer> chosen = new HashSet<>();
+
+        for (int i = candidateCount - (exitCount - 1); i < candidateCount; i++) {
+            int candidate = random.nextInt(i + 1);
+            chosen.add(chosen.contains(candidate) ? i : candidate);
+        }
+
+        int[] exitIndexes = new int[exitCount];
+        exitIndexes[0] = firstExitIndex;
+        int exit = 1;
+
+        for (int candidate : chosen) {
+            int cell = candidate + 1 >= firstExitCell ? candidate + 2 : candidate + 1;
+            exitIndexes[exit++] = (2 * (cell / oddColumnCount) + 1) * width + 2 * (cell % oddColumnCount) + 1;
+        }
+
+        Arrays.sort(exitIndexes);
+
+        return exitIndexes;
+    }
+
+    private void carveOpenRow(int y, byte[] row) {
+        if (y > 0 && y < gridHeight - 1) {
+            Arrays.fill(row, 1, gridWidth - 1, SPACE);
+        }
+    }
+
+    /**
+     * Carves every odd row fully open and connects consecutive odd rows alternately at the right and the left end.
+     */
+    private void carveCorridorRow(int y, byte[] row) {
+        if (y == 0 || y == gridHeight - 1) {
+            return;
+        }
+
+        if (y % 2 == 1) {
+            Arrays.fill(row, 1, gridWidth - 1, SPACE);
+        } else {
+            row[(y / 2) % 2 == 1 ? gridWidth - 2 : 1] = SPACE;
+        }
+    }
+
+    /**
+     * Carves a spiral out of concentric rings, where the ring of a cell is its distance to the closest edge of the grid.
+     * The odd rings are passages and the even rings are walls. Every passage ring is entered at its top left corner
+     * through a gap in the wall around it, blocked right next to that corner, and left two cells right of the corner
+     * through a gap in the wall inside it, so that the path runs around every ring before entering the next one.
+     */
+    private void carveSpiralRow(int y, byte[] row) {
+        int innermostRing = (Math.min(gridHeight, gridWidth) - 1) / 2;
+
+        for (int x = 0; x < gridWidth; x++) {
+            int ring = Math.min(Math.min(y, x), Math.min(gridHeight - 1 - y, gridWidth - 1 - x));
+            boolean turningPoint = y == ring && x == ring + 1;
+
+            if (ring % 2 == 1) {
+                row[x] = turningPoint && ring + 2 <= innermostRing ? BLOCK : SPACE;
+            } else {
+                row[x] = turningPoint && ring >= 2 && ring + 1 <= innermostRing ? SPACE : BLOCK;
+            }
+        }
+    }
+
+    /**
+     * Returns the innermost odd ring of the SPIRAL topology, i.e. the ring where the spiral ends.
+     */
+    private int getInnermostSpiralRing() {
+        int innermostRing = (Math.min(gridHeight, gridWidth) - 1) / 2;
+
+        return innermostRing % 2 == 1 ? innermostRing : innermostRing - 1;
+    }
+
+    /**
+     * Carves a perfect maze with Eller's algorithm, which handles the cells at odd coordinates a row at a time and only
+     * remembers which set of connected cells every cell of the current row belongs to.
+     *
+     * Within a row, neighbouring cells of different sets are joined at random, and every set continues down into the
+     * next row from at least one randomly chosen cell. Cells which do not continue down start new sets in the next row.
+     * In the last row all of the remaining sets are joined, which connects every cell by exactly one path.
+     */
+    private class EllerCarver implements RowCarver {
+        private final Random random;
+        private final int columnCount = gridWidth / 2;
+
+        // Set of every cell of the current row, the sets being numbered from 0 to columnCount - 1
+        private final int[] sets = new int[columnCount];
+        private final int[] parents = new int[columnCount];
+        private final boolean[] openRight = new boolean[columnCount];
+        private final boolean[] openDown = new boolean[columnCount];
+
+        // Per set: whether any of its cells continues down, amount of its cells, and its cell chosen to continue down
+        private final boolean[] continuesDown = new boolean[columnCount];
+        private final int[] cellCounts = new int[columnCount];
+        private final int[] chosenCells = new int[columnCount];
+        private final boolean[] usedSets = new boolean[columnCount];
+
+        private EllerCarver(Random random) {
+            this.random = random;
+
+            for (int column = 0; column < columnCount; column++) {
+                sets[column] = column;
+            }
+        }
+
+        @Override
+        public void carveRow(int y, byte[] row) {
+            if (y == 0 || y == gridHeight - 1) {
+                return;
+            }
+
+            if (y % 2 == 0) {
+                for (int column = 0; column < columnCount; column++) {
+                    row[2 * column + 1] = openDown[column] ? SPACE : BLOCK;
+                }
+
+                return;
+            }
+
+            boolean lastRow = y == gridHeight - 2;
+            joinCells(lastRow);
+
+            for (int column = 0; column < columnCount; column++) {
+                row[2 * column + 1] = SPACE;
+
+                if (openRight[column]) {
+                    row[2 * column + 2] = SPACE;
+                }
+            }
+
+            if (!lastRow) {
+                chooseCellsContinuingDown();
+                startNextRow();
+            }
+        }
+
+        private void joinCells(boolean lastRow) {
+            for (int set = 0; set < columnCount; set++) {
+                parents[set] = set;
+            }
+
+            for (int column = 0; column < columnCount - 1; column++) {
+                int leftSet = findRoot(sets[column]);
+                int rightSet = findRoot(sets[column + 1]);
+                openRight[column] = leftSet != rightSet && (lastRow || random.nextBoolean());
+
+                if (openRight[column]) {
+                    parents[rightSet] = leftSet;
+                }
+            }
+
+            for (int column = 0; column < columnCount; column++) {
+                sets[column] = findRoot(sets[column]);
+            }
+        }
+
+        private int findRoot(int set) {
+            while (parents[set] != set) {
+                parents[set] = parents[parents[set]];
+                set = parents[set];
+            }
+
+            return set;
+        }
+
+        private void chooseCellsContinuingDown() {
+            Arrays.fill(continuesDown, false);
+            Arrays.fill(cellCounts, 0);
+
+            for (int column = 0; column < columnCount; column++) {
+                int set = sets[column];
+                openDown[column] = random.nextBoolean();
+                continuesDown[set] |= openDown[column];
+
+                // Reservoir sampling, so that every cell of the set is equally likely to be chosen
+                if (random.nextInt(++cellCounts[set]) == 0) {
+                    chosenCells[set] = column;
+                }
+            }
+
+            for (int column = 0; column < columnCount; column++) {
+                int set = sets[column];
+
+                if (!continuesDown[set]) {
+                    openDown[chosenCells[set]] = true;
+                    continuesDown[set] = true;
+                }
+            }
+        }
+
+        /**
+         * Gives every cell of the next row which is not connected to the cell above it a new set, reusing the numbers
+         * of the sets which did not continue down.
+         */
+        private void startNextRow() {
+            Arrays.fill(usedSets, false);
+
+            for (int column = 0; column < columnCount; column++) {
+                if (openDown[column]) {
+                    usedSets[sets[column]] = true;
+                }
+            }
+
+            int nextFreeSet = 0;
+
+            for (int column = 0; column < columnCount; column++) {
+                if (!openDown[column]) {
+                    while (usedSets[nextFreeSet]) {
+                        nextFreeSet++;
+                    }
+
+                    sets[column] = nextFreeSet++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Carves a grid of rooms separated by walls at every ROOM_PERIOD cells, with a door at a random position of every
+     * wall between two rooms. The doors of the walls between the rooms of a row of rooms are chosen when entering the
+     * row of rooms, and the doors of the walls below are chosen when carving the wall.
+     */
+    private class RoomsCarver implements RowCarver {
+        private final Random random;
+
+        // Row of the door in every inner vertical wall of the current row of rooms
+        private final int[] doorRows = new int[(gridWidth - 2) / ROOM_PERIOD];
+
+        private RoomsCarver(Random random) {
+            this.random = random;
+        }
+
+        @Override
+        public void carveRow(int y, byte[] row) {
+            if (y == 0 || y == gridHeight - 1) {
+                return;
+            }
+
+            if (y % ROOM_PERIOD == 0) {
+                for (int x = 1; x < gridWidth - 1; x += ROOM_PERIOD) {
+                    row[chooseOddPosition(x, Math.min(x + ROOM_PERIOD - 2, gridWidth - 2))] = SPACE;
+                }
+
+                return;
+            }
+
+            if (y % ROOM_PERIOD == 1) {
+                for (int wall = 0; wall < doorRows.length; wall++) {
+                    doorRows[wall] = chooseOddPosition(y, Math.min(y + ROOM_PERIOD - 2, gridHeight - 2));
+                }
+            }
+
+            Arrays.fill(row, 1, gridWidth - 1, SPACE);
+
+            for (int wall = 0; wall < doorRows.length; wall++) {
+                if (doorRows[wall] != y) {
+                    row[(wall + 1) * ROOM_PERIOD] = BLOCK;
+                }
+            }
+        }
+
+        /**
+         * Chooses a random odd position between the given odd positions, both included.
+         */
+        private int chooseOddPosition(int first, int last) {
+            return first + 2 * random.nextInt((last - first) / 2 + 1);
+        }
+    }
+}
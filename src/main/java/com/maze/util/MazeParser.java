@@ -2,9 +2,15 @@ package com.maze.util;
 
 import com.maze.domain.Maze;
 import com.maze.domain.Tile;
+import com.maze.jfr.MazeParseEvent;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 public class MazeParser {
@@ -14,7 +20,6 @@ public class MazeParser {
         }
     }
 
-
     private MazeParser() {
         // Empty private constructor for static method class
     }
@@ -28,19 +33,53 @@ public class MazeParser {
      * @throws IOException thrown by IOUtil.close().
      */
     public static Maze parseMaze(String filepath) throws IOException {
+        return parseMaze(filepath, ParserMode.READER);
+    }
+
+    /**
+     * Creates a maze from parsing individual tiles from a file found from the given filepath, reading the file in the
+     * given way. Files in the binary maze format (see BinaryMazeFormat) are recognized and read in every mode.
+     *
+     * @param filepath not null
+     * @param mode how the file is read, not null
+     * @return Maze parsed from the file found at the given filepath.
+     *         null if file was not found at given filepath or the file was in invalid syntax.
+     * @throws IOException thrown by IOUtil.close().
+     */
+    public static Maze parseMaze(String filepath, ParserMode mode) throws IOException {
         if (filepath == null) {
             throw new NullPointerException("Given filepath cannot be null");
         }
 
-        File file = new File(filepath);
+        if (mode == null) {
+            throw new NullPointerException("Given parser mode cannot be null");
+        }
+
+        var event = new MazeParseEvent();
+        event.begin();
+        Maze maze = null;
         BufferedReader reader = null;
+        FileChannel channel = null;
 
         try {
-            reader = new BufferedReader(new FileReader(file));
-            var tilesPerLine = parseTilesFromFile(reader);
+            if (mode == ParserMode.READER) {
+                reader = new BufferedReader(new FileReader(new File(filepath)));
+            }
+
+            channel = FileChannel.open(Path.of(filepath));
 
-            return createMaze(tilesPerLine);
-        } catch (FileNotFoundException e) {
+            // Binary maze files are recognized regardless of the mode, since they are never read line by line
+            if (BinaryMazeFormat.isBinaryMazeFile(channel)) {
+                maze = BinaryMazeFormat.read(channel);
+            } else if (mode != ParserMode.READER) {
+                maze = parseMappedMaze(channel, mode == ParserMode.PARALLEL);
+            } else {
+                var tilesPerLine = parseTilesFromFile(reader);
+                maze = createMaze(tilesPerLine);
+            }
+
+            return maze;
+        } catch (FileNotFoundException | NoSuchFileException e) {
             Printer.println("\nDid not manage to find file " + filepath);
 
             return null;
@@ -49,8 +88,164 @@ public class MazeParser {
 
             return null;
         } finally {
+            commitParseEvent(event, filepath, mode, getSize(channel), maze);
             IOUtil.close(reader);
+            IOUtil.close(channel);
+        }
+    }
+
+    /**
+     * Creates a maze from the given bytes of a maze text file or a binary maze file, e.g. the body of a request. The
+     * text is decoded in a single pass like in the MAPPED mode.
+     *
+     * @param bytes between the position and the limit of the buffer, not modified
+     * @return Maze parsed from the bytes
+     * @throws IllegalArgumentException if the bytes were in invalid syntax, with a message describing why
+     */
+    public static Maze parseMaze(ByteBuffer bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("Given bytes cannot be null");
         }
+
+        var event = new MazeParseEvent();
+        event.begin();
+        Maze maze = null;
+
+        try {
+            maze = BinaryMazeFormat.isBinaryMaze(bytes) ? BinaryMazeFormat.read(bytes) : parseTextMaze(bytes);
+
+            return maze;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        } finally {
+            commitParseEvent(event, null, ParserMode.MAPPED, bytes.remaining(), maze);
+        }
+    }
+
+    /**
+     * Commits the given Flight Recorder event for parsing a maze, if it is enabled.
+     *
+     * @param event started at the beginning of the parsing
+     * @param filepath of the parsed file, null if the maze was parsed from memory
+     * @param mode in which the file was read
+     * @param fileSize size of the file in bytes, -1 if the file could not be opened
+     * @param maze parsed from the file, null if the file could not be parsed
+     */
+    private static void commitParseEvent(MazeParseEvent event, String filepath, ParserMode mode, long fileSize,
+                                         Maze maze) {
+        event.end();
+
+        if (!event.shouldCommit()) {
+            return;
+        }
+
+        event.file = filepath;
+        event.parserMode = mode.name();
+        event.parsed = maze != null;
+        event.fileSize = fileSize;
+
+        if (maze != null) {
+            event.height = maze.getHeight();
+            event.width = maze.getWidth();
+        }
+
+        event.commit();
+    }
+
+    /**
+     * Returns the size of the file of the given channel for the parse event.
+     *
+     * @return the size in bytes, -1 if the channel is null or its size could not be read
+     */
+    private static long getSize(FileChannel channel) {
+        try {
+            return channel != null ? channel.size() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Creates a maze by decoding the given bytes of a maze text file in a single pass.
+     *
+     * @param bytes between the position and the limit of the buffer, not modified
+     * @return Maze parsed from the bytes
+     * @throws InvalidFileSyntaxException if there are no bytes or the maze does not have exactly one START tile
+     */
+    private static Maze parseTextMaze(ByteBuffer bytes) {
+        if (!bytes.hasRemaining()) {
+            throw new InvalidFileSyntaxException("Given file cannot be empty");
+        }
+
+        int width = MazeTextScanner.findFirstLineWidth(bytes);
+        byte[] tiles = new byte[MazeTextScanner.estimateTileCount(bytes.remaining(), width)];
+        var scanner = new MazeTextScanner(width, tiles, 0, true);
+        scanner.scan(bytes);
+        scanner.finish();
+
+        return createMaze(scanner.getTiles(), scanner.getRowCount(), width, scanner.getStartCount(),
+                scanner.getStartIndex());
+    }
+
+    /**
+     * Creates a maze by memory-mapping the file of the given channel and decoding the bytes directly into the cells of
+     * the maze, either in a single pass or concurrently in newline-aligned chunks on the common ForkJoinPool.
+     *
+     * @param channel of the file, not null
+     * @param parallel true if the file is decoded concurrently in chunks, false if in a single pass
+     * @return Maze parsed from the file
+     * @throws IOException if the file could not be mapped
+     * @throws InvalidFileSyntaxException if the file is empty or the maze does not have exactly one START tile
+     */
+    private static Maze parseMappedMaze(FileChannel channel, boolean parallel) throws IOException {
+        long size = channel.size();
+
+        if (size == 0) {
+            throw new InvalidFileSyntaxException("Given file cannot be empty");
+        }
+
+        int width = MazeTextScanner.findFirstLineWidth(channel, size);
+
+        if (parallel) {
+            var scanner = new ParallelMazeScanner(channel, width, ForkJoinPool.commonPool());
+            scanner.scan();
+
+            return createMaze(scanner.getTiles(), scanner.getRowCount(), width, scanner.getStartCount(),
+                    scanner.getStartIndex());
+        }
+
+        byte[] tiles = new byte[MazeTextScanner.estimateTileCount(size, width)];
+        var scanner = new MazeTextScanner(width, tiles, 0, true);
+        scanner.scan(channel, 0, size);
+        scanner.finish();
+
+        return createMaze(scanner.getTiles(), scanner.getRowCount(), width, scanner.getStartCount(),
+                scanner.getStartIndex());
+    }
+
+    /**
+     * Creates a Maze from packed tiles decoded straight from a file.
+     *
+     * @param tiles Tile ordinals of every cell in row-major order
+     * @param height amount of rows decoded from the file
+     * @param width of every row
+     * @param startCount amount of START tiles decoded from the file
+     * @param startIndex index of a START tile
+     * @return Maze created from the tiles
+     * @throws InvalidFileSyntaxException if no rows were decoded or the tiles do not contain exactly one START tile
+     */
+    private static Maze createMaze(byte[] tiles, int height, int width, int startCount, int startIndex) {
+        if (height == 0) {
+            throw new InvalidFileSyntaxException("Given file cannot be empty");
+        }
+
+        if (startCount != 1) {
+            throw new InvalidFileSyntaxException("Given maze must have exactly one starting point (marked with '^')");
+        }
+
+        return new Maze(tiles, height, width, startIndex);
     }
 
     /**
@@ -89,7 +284,7 @@ public class MazeParser {
         int width = tilesPerLine.get(0).size();
 
         if (!allRowsSameLength(tilesPerLine, width)) {
-            throw new InvalidFileSyntaxException("Given file must have rows of equal length");
+            throw new InvalidFileSyntaxException(MazeTextScanner.UNEQUAL_ROWS_MESSAGE);
         }
 
         return new Maze(createTileMatrix(tilesPerLine));
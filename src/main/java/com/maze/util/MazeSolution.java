@@ -0,0 +1,324 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+import com.maze.domain.Tile;
+
+/**
+ * Result of solving a maze, detached from the Maze itself so that it can be kept around (e.g. in a SolutionCache)
+ * without keeping the cells of the maze in memory.
+ *
+ * In the GRID format the solution graphic is kept as one packed byte per cell instead of as a String, so that it takes
+ * half of the memory of the graphic and can be rendered for both the console and a file in a single pass (see
+ * SolutionWriter.writeSolution). In the PATH format only the encoded solution path is kept (see SolutionPath).
+ */
+public class MazeSolution {
+    // Cell layout: bits 0-1 hold the Tile ordinal, bits 2-4 hold the solution path Direction ordinal + 1 (0 = none)
+    static final int TILE_MASK = 0b11;
+    static final int DIRECTION_SHIFT = 2;
+    static final int CELL_CODE_COUNT = 1 << (DIRECTION_SHIFT + 3);
+
+    private static final Tile[] TILES = Tile.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final SolutionStatus solutionStatus;
+    private final SolutionFormat solutionFormat;
+    private final int stepLimit;
+    private final int stepCount;
+    private final int height;
+    private final int width;
+    private final byte[] cells;
+    private final String solutionPath;
+
+    /**
+     * Creates a new solution from a solution graphic.
+     *
+     * @param solutionStatus status of the solving, not null
+     * @param stepLimit step limit within which the maze was (or was not) solvable
+     * @param stepCount length of the solution, only meaningful if the status is SUCCESS
+     * @param solutionAscii solution graphic for file output (see SolutionWriter.createSolutionAscii), null unless the
+     *                      status is SUCCESS
+     * @throws IllegalArgumentException if the status is SUCCESS and the graphic is missing, not rectangular or has
+     *                                  characters which do not represent a tile or a Direction
+     */
+    public MazeSolution(SolutionStatus solutionStatus, int stepLimit, int stepCount, String solutionAscii) {
+        this(solutionStatus, SolutionFormat.GRID, stepLimit, stepCount, getGraphicWidth(solutionAscii),
+                parseCells(solutionStatus, solutionAscii), null);
+    }
+
+    /**
+     * Creates a new solution in the given format.
+     *
+     * @param solutionStatus status of the solving, not null
+     * @param solutionFormat format of the solution text, not null
+     * @param stepLimit step limit within which the maze was (or was not) solvable
+     * @param stepCount length of the solution, only meaningful if the status is SUCCESS
+     * @param solutionText solution graphic for file output in the GRID format or the encoded solution path in the
+     *                     PATH format, null unless the status is SUCCESS
+     * @throws IllegalArgumentException if the status is SUCCESS and the text is missing or invalid
+     */
+    public MazeSolution(SolutionStatus solutionStatus, SolutionFormat solutionFormat, int stepLimit, int stepCount,
+                        String solutionText) {
+        this(solutionStatus, solutionFormat, stepLimit, stepCount,
+                solutionFormat == SolutionFormat.GRID ? getGraphicWidth(solutionText) : 0,
+                solutionFormat == SolutionFormat.GRID ? parseCells(solutionStatus, solutionText) : null,
+                solutionFormat == SolutionFormat.PATH ? checkSolutionPath(solutionStatus, solutionText) : null);
+    }
+
+    /**
+     * Creates a new solution from packed cells.
+     *
+     * @param solutionStatus status of the solving, not null
+     * @param solutionFormat format of the solution, not null
+     * @param stepLimit step limit within which the maze was (or was not) solvable
+     * @param stepCount length of the solution, only meaningful if the status is SUCCESS
+     * @param width of the solution graphic
+     * @param cells packed cells of the solution graphic in row-major order, null unless the status is SUCCESS and the
+     *              format is GRID
+     * @param solutionPath encoded solution path, null unless the status is SUCCESS and the format is PATH
+     */
+    private MazeSolution(SolutionStatus solutionStatus, SolutionFormat solutionFormat, int stepLimit, int stepCount,
+                         int width, byte[] cells, String solutionPath) {
+        if (solutionStatus == null || solutionFormat == null) {
+            throw new NullPointerException("Solution status and format cannot be null");
+        }
+
+        this.solutionStatus = solutionStatus;
+        this.solutionFormat = solutionFormat;
+        this.solutionPath = solutionPath;
+        this.stepLimit = stepLimit;
+        this.stepCount = stepCount;
+        this.width = cells != null ? width : 0;
+        this.height = cells != null && width > 0 ? cells.length / width : 0;
+        this.cells = cells;
+    }
+
+    private static int getGraphicWidth(String solutionAscii) {
+        if (solutionAscii == null) {
+            return 0;
+        }
+
+        int firstNewline = solutionAscii.indexOf('\n');
+
+        return firstNewline >= 0 ? firstNewline : solutionAscii.length();
+    }
+
+    /**
+     * Packs the cells of the given solution graphic.
+     *
+     * @param solutionStatus status of the solving
+     * @param solutionAscii solution graphic, null unless the status is SUCCESS
+     * @return the packed cells, null if the graphic is null
+     * @throws IllegalArgumentException if the status is SUCCESS and the graphic is missing, not rectangular or has
+     *                                  characters which do not represent a tile or a Direction
+     */
+    private static byte[] parseCells(SolutionStatus solutionStatus, String solutionAscii) {
+        if (solutionStatus == SolutionStatus.SUCCESS && solutionAscii == null) {
+            throw new IllegalArgumentException("Successful solution must have a solution graphic");
+        }
+
+        if (solutionAscii == null) {
+            return null;
+        }
+
+        int width = getGraphicWidth(solutionAscii);
+        int height = (solutionAscii.length() + 1) / (width + 1);
+
+        if (width == 0 || height * (width + 1) - 1 != solutionAscii.length()) {
+            throw new IllegalArgumentException("Solution graphic must be rectangular and not empty");
+        }
+
+        byte[] cells = new byte[height * width];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                cells[y * width + x] = parseCell(solutionAscii.charAt(y * (width + 1) + x));
+            }
+        }
+
+        return cells;
+    }
+
+    private static String checkSolutionPath(SolutionStatus solutionStatus, String solutionPath) {
+        if (solutionStatus == SolutionStatus.SUCCESS && (solutionPath == null || solutionPath.isBlank())) {
+            throw new IllegalArgumentException("Successful solution must have a solution path");
+        }
+
+        return solutionPath;
+    }
+
+    /**
+     * Creates a solution from the current result of the given maze in the GRID format.
+     *
+     * @param maze which has been attempted to be solved, not null
+     * @return the result of the maze
+     */
+    public static MazeSolution of(Maze maze) {
+        return of(maze, SolutionFormat.GRID);
+    }
+
+    /**
+     * Creates a solution from the current result of the given maze in the given format. In the PATH format the time
+     * taken depends only on the length of the solution, not on the area of the maze.
+     *
+     * @param maze which has been attempted to be solved, not null
+     * @param solutionFormat not null
+     * @return the result of the maze
+     */
+    public static MazeSolution of(Maze maze, SolutionFormat solutionFormat) {
+        if (maze == null || solutionFormat == null) {
+            throw new NullPointerException("Maze and solution format cannot be null");
+        }
+
+        SolutionStatus status = maze.getSolutionStatus();
+
+        if (status != SolutionStatus.SUCCESS) {
+            return new MazeSolution(status, solutionFormat, maze.getStepLimit(), maze.getCurrentStepCount(), 0, null,
+                    null);
+        }
+
+        if (solutionFormat == SolutionFormat.PATH) {
+            return new MazeSolution(status, solutionFormat, maze.getStepLimit(), maze.getCurrentStepCount(), 0, null,
+                    SolutionPath.encode(maze));
+        }
+
+        byte[] cells = new byte[maze.getCellCount()];
+
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) encodeCell(maze.getTile(i), maze.getDirectionFromSolutionPath(i));
+        }
+
+        return new MazeSolution(status, solutionFormat, maze.getStepLimit(), maze.getCurrentStepCount(),
+                maze.getWidth(), cells, null);
+    }
+
+    /**
+     * Packs the given Tile and solution path Direction into a cell.
+     *
+     * @param tile not null
+     * @param direction towards the exit, null if the cell is not part of the solution path
+     * @return the packed cell, less than CELL_CODE_COUNT
+     */
+    static int encodeCell(Tile tile, Direction direction) {
+        return tile.ordinal() | (direction != null ? (direction.ordinal() + 1) << DIRECTION_SHIFT : 0);
+    }
+
+    /**
+     * Returns the packed cell for a character of a solution graphic, for either console or file output.
+     *
+     * @param ch character of the graphic
+     * @return the packed cell
+     * @throws IllegalArgumentException if the character does not represent a tile or a Direction
+     */
+    private static byte parseCell(char ch) {
+        for (Direction direction : DIRECTIONS) {
+            if (ch == direction.getArrowChar() || ch == direction.getLetterChar()) {
+                return (byte) encodeCell(Tile.SPACE, direction);
+            }
+        }
+
+        try {
+            return (byte) encodeCell(Tile.parseTile(ch), null);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Solution graphic has an invalid character '" + ch + "'");
+        }
+    }
+
+    public SolutionStatus getSolutionStatus() {
+        return solutionStatus;
+    }
+
+    public SolutionFormat getSolutionFormat() {
+        return solutionFormat;
+    }
+
+    /**
+     * Returns the encoded solution path, see SolutionPath.
+     *
+     * @return the encoded path, null if the maze was not solved or the format is GRID
+     */
+    public String getSolutionPath() {
+        return solutionPath;
+    }
+
+    public int getStepLimit() {
+        return stepLimit;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Returns the height of the solution graphic.
+     *
+     * @return amount of rows, 0 if the maze was not solved or the format is PATH
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the width of the solution graphic.
+     *
+     * @return amount of tiles in a row, 0 if the maze was not solved or the format is PATH
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the packed cell at the given index, see encodeCell.
+     *
+     * @param index y * width + x
+     * @return the packed cell
+     */
+    int getCell(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Returns the solution graphic, like SolutionWriter.createSolutionAscii(maze, forPrint) would. Prefer
+     * SolutionWriter.writeSolution for writing the graphic out, which does not create the whole graphic at once.
+     *
+     * @param forPrint Boolean for determining if the graphic is for console (true) or file (false) output.
+     * @return the solution graphic, null if the maze was not solved or the format is PATH
+     */
+    public String getSolutionAscii(boolean forPrint) {
+        if (cells == null) {
+            return null;
+        }
+
+        var stringBuilder = new StringBuilder(height * (width + 1));
+
+        for (int y = 0; y < height; y++) {
+            if (y > 0) {
+                stringBuilder.append('\n'); // No newline for final line
+            }
+
+            for (int x = 0; x < width; x++) {
+                stringBuilder.append(getCellChar(cells[y * width + x], forPrint));
+            }
+        }
+
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Returns the character of the given packed cell in the solution graphic.
+     *
+     * @param cell packed cell
+     * @param forPrint true for a letter (console output), false for an arrow (file output) on the solution path
+     * @return the character
+     */
+    static char getCellChar(int cell, boolean forPrint) {
+        int direction = (cell >>> DIRECTION_SHIFT) - 1;
+
+        if (direction < 0) {
+            return TILES[cell & TILE_MASK].getChar();
+        }
+
+        return forPrint ? DIRECTIONS[direction].getLetterChar() : DIRECTIONS[direction].getArrowChar();
+    }
+}
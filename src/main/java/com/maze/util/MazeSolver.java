@@ -1,15 +1,27 @@
 package com.maze.util;
 
 import com.maze.domain.*;
+import com.maze.jfr.MazeLayerEvent;
+import com.maze.jfr.MazeSolveEvent;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class MazeSolver {
-    private static final List<Integer> LIMITS = List.of(20, 150, 200);
+    /**
+     * Step limit which is never exceeded, i.e. the solution length is bounded only by the size of the maze.
+     */
+    public static final int UNBOUNDED_LIMIT = Integer.MAX_VALUE;
+
+    /**
+     * Step limits which are used when no other limits are given.
+     */
+    public static final List<Integer> DEFAULT_LIMITS = List.of(20, 150, 200);
 
     private MazeSolver() {
         // Private empty constructor for static method class
@@ -18,6 +30,7 @@ public class MazeSolver {
     /**
      * Attempts to solve the given maze within limits of 20, 150 or 200.
      * See method solveMaze for the actual solving algorithm.
+     * See method attemptToSolveMaze(Maze, SolverEngine, List) for solving with other limits.
      *
      * Will mark maze.solutionStatus as one of the following depending on solving result:
      *      SolutionStatus.SUCCESS if maze was solvable within any of the limits
@@ -27,27 +40,445 @@ public class MazeSolver {
      * @param maze Maze to be solved, not null
      */
     public static void attemptToSolveMaze(Maze maze) {
+        attemptToSolveMaze(maze, SolverEngine.BFS);
+    }
+
+    /**
+     * Attempts to solve the given maze within limits of 20, 150 or 200 using the given solving algorithm.
+     * See method attemptToSolveMaze(Maze) for how the result is marked into the maze.
+     *
+     * @param maze Maze to be solved, not null
+     * @param engine Algorithm used for solving the maze, not null
+     */
+    public static void attemptToSolveMaze(Maze maze, SolverEngine engine) {
+        attemptToSolveMaze(maze, engine, DEFAULT_LIMITS);
+    }
+
+    /**
+     * Attempts to solve the given maze within the given step limits using the given solving algorithm. The limits are
+     * tried in the given order and the first limit within which the maze was solvable is left as maze.getStepLimit().
+     * UNBOUNDED_LIMIT can be used as the last limit in order to not restrict the solution length at all.
+     *
+     * The progress of the solving algorithm is kept when moving on to the next limit, i.e. the search simply continues
+     * from where the previous limit stopped it instead of starting over. Therefore trying all of the limits costs only
+     * as much as a single search within the largest limit.
+     * See method attemptToSolveMaze(Maze) for how the result is marked into the maze.
+     *
+     * @param maze Maze to be solved, not null
+     * @param engine Algorithm used for solving the maze, not null
+     * @param limits Non-empty List of positive step limits in ascending order, not null
+     * @return metrics of the solve
+     * @throws IllegalArgumentException if the limits are empty, not positive or not in ascending order
+     */
+    public static SolveMetrics attemptToSolveMaze(Maze maze, SolverEngine engine, List<Integer> limits) {
+        if (engine == null) {
+            throw new NullPointerException("Solver engine cannot be null");
+        }
+
+        var metrics = new SolveMetrics(engine);
+        attemptToSolveMaze(maze, engine, limits, metrics);
+
+        return metrics;
+    }
+
+    /**
+     * Attempts to solve the given maze like attemptToSolveMaze(Maze, SolverEngine, List), measuring the solve into the
+     * given metrics. The caller may measure the other phases, such as parsing, into the same metrics.
+     *
+     * @param maze Maze to be solved, not null
+     * @param engine Algorithm used for solving the maze, not null
+     * @param limits Non-empty List of positive step limits in ascending order, not null
+     * @param metrics into which the SOLVE and PATH_RECONSTRUCTION phases and the search counters are measured, not null
+     * @throws IllegalArgumentException if the limits are empty, not positive or not in ascending order
+     */
+    public static void attemptToSolveMaze(Maze maze, SolverEngine engine, List<Integer> limits, SolveMetrics metrics) {
+        if (maze == null) {
+            throw new NullPointerException("Solvable maze cannot be null");
+        }
+
+        if (engine == null) {
+            throw new NullPointerException("Solver engine cannot be null");
+        }
+
+        if (metrics == null) {
+            throw new NullPointerException("Solve metrics cannot be null");
+        }
+
+        validateLimits(limits);
+        var event = new MazeSolveEvent();
+        event.begin();
+        metrics.startPhase(SolveMetrics.Phase.SOLVE);
+
+        try {
+            maze.resetProgress(limits.get(0));
+
+            if (engine == SolverEngine.BFS || engine == SolverEngine.INDEXED_BFS) {
+                solveWithinEscalatingLimits(maze, engine, limits, metrics);
+            } else {
+                solveWithinLargestLimit(maze, engine, limits, metrics);
+            }
+        } catch (Exception e) {
+            maze.setSolutionStatus(SolutionStatus.ERROR);
+            Printer.println("The following error occurred during maze solving: " + e.getMessage());
+        } finally {
+            metrics.endPhase(SolveMetrics.Phase.SOLVE);
+            metrics.setResult(maze.getSolutionStatus(), maze.getCurrentStepCount());
+            commitSolveEvent(event, maze, metrics);
+        }
+    }
+
+    /**
+     * Attempts to solve the maze of the given IncrementalSolver within the given step limits like
+     * attemptToSolveMaze(Maze, SolverEngine, List), repairing the search of the previous solve with the solver after
+     * the Tiles changed through IncrementalSolver.setTile instead of starting over. Only the solution path of the
+     * previous solve is cleared from the maze, so the maze should not be solved by other means in between.
+     *
+     * @param solver Incremental solver of the maze to be solved, not null
+     * @param limits Non-empty List of positive step limits in ascending order, not null
+     * @return metrics of the solve
+     * @throws IllegalArgumentException if the limits are empty, not positive or not in ascending order
+     */
+    public static SolveMetrics attemptToSolveMaze(IncrementalSolver solver, List<Integer> limits) {
+        if (solver == null) {
+            throw new NullPointerException("Incremental solver cannot be null");
+        }
+
+        validateLimits(limits);
+        Maze maze = solver.getMaze();
+        var metrics = new SolveMetrics(SolverEngine.INCREMENTAL);
+        var event = new MazeSolveEvent();
+        event.begin();
+        metrics.startPhase(SolveMetrics.Phase.SOLVE);
+
+        try {
+            solver.resetProgress(limits.get(0));
+            raiseToFittingLimit(maze, limits, solver.solve(limits.get(limits.size() - 1), metrics));
+        } catch (Exception e) {
+            maze.setSolutionStatus(SolutionStatus.ERROR);
+            Printer.println("The following error occurred during maze solving: " + e.getMessage());
+        } finally {
+            metrics.endPhase(SolveMetrics.Phase.SOLVE);
+            metrics.setResult(maze.getSolutionStatus(), maze.getCurrentStepCount());
+            commitSolveEvent(event, maze, metrics);
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Attempts to solve the given maze, which is kept in a memory-mapped file instead of on the heap, within the given
+     * step limits with a breadth-first search. The frontier of the search is spilled into a temporary file in the given
+     * directory when it does not fit in memory, so mazes larger than the available memory can be solved. The result is
+     * marked into the maze like with attemptToSolveMaze(Maze), and the first limit within which the maze was solvable
+     * is left as maze.getStepLimit().
+     *
+     * Every cell of the maze is gone through once to reset the progress of any earlier solve before the search.
+     *
+     * @param maze Maze to be solved, not null
+     * @param limits Non-empty List of positive step limits in ascending order, not null
+     * @param spillDirectory Directory for the temporary frontier file, not null
+     * @throws IllegalArgumentException if the limits are empty, not positive or not in ascending order
+     */
+    public static void attemptToSolveMaze(TiledMaze maze, List<Integer> limits, Path spillDirectory) {
         if (maze == null) {
             throw new NullPointerException("Solvable maze cannot be null");
         }
 
+        validateLimits(limits);
+        var event = new MazeSolveEvent();
+        event.begin();
+        TiledBfsSolver solver = null;
+
         try {
-            for (int limit : LIMITS) {
-                maze.resetProgress(limit);
-                boolean solvableWithinLimit = solveMaze(maze);
+            maze.resetProgress(limits.get(0));
+            solver = new TiledBfsSolver(maze, spillDirectory);
+            boolean solvable = solver.solve(limits.get(limits.size() - 1));
+            int fittingLimit = limits.get(limits.size() - 1);
 
-                if (solvableWithinLimit) {
-                    return;
-                }
+            for (int i = limits.size() - 1; solvable && i >= 0 && maze.getCurrentStepCount() <= limits.get(i); i--) {
+                fittingLimit = limits.get(i);
             }
+
+            maze.raiseStepLimit(fittingLimit);
         } catch (Exception e) {
             maze.setSolutionStatus(SolutionStatus.ERROR);
             Printer.println("The following error occurred during maze solving: " + e.getMessage());
+        } finally {
+            closeTiledSolver(solver);
+            commitTiledSolveEvent(event, maze, solver);
+        }
+    }
+
+    private static void closeTiledSolver(TiledBfsSolver solver) {
+        try {
+            IOUtil.close(solver);
+        } catch (IOException e) {
+            Printer.println("Error while deleting the temporary frontier file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Commits the given Flight Recorder event for solving a tiled maze, if it is enabled. The counts which do not fit
+     * in the int fields of the event are capped.
+     *
+     * @param event started at the beginning of the solve
+     * @param maze which was solved
+     * @param solver which solved the maze, null if it could not be created
+     */
+    private static void commitTiledSolveEvent(MazeSolveEvent event, TiledMaze maze, TiledBfsSolver solver) {
+        event.end();
+
+        if (!event.shouldCommit()) {
+            return;
+        }
+
+        event.engine = "TILED_BFS";
+        event.height = maze.getHeight();
+        event.width = maze.getWidth();
+        event.stepLimit = maze.getStepLimit();
+        event.status = String.valueOf(maze.getSolutionStatus());
+        event.stepCount = (int) Math.min(Integer.MAX_VALUE, maze.getCurrentStepCount());
+        event.cellsVisited = solver != null ? solver.getExpandedCells() : 0;
+        event.peakFrontierSize = solver != null ? (int) Math.min(Integer.MAX_VALUE, solver.getPeakFrontierSize()) : 0;
+        event.commit();
+    }
+
+    /**
+     * Commits the given Flight Recorder event for solving a maze, if it is enabled.
+     *
+     * @param event started at the beginning of the solve
+     * @param maze which was solved
+     * @param metrics of the finished solve
+     */
+    private static void commitSolveEvent(MazeSolveEvent event, Maze maze, SolveMetrics metrics) {
+        event.end();
+
+        if (!event.shouldCommit()) {
+            return;
         }
+
+        event.engine = metrics.getEngine().name();
+        event.height = maze.getHeight();
+        event.width = maze.getWidth();
+        event.stepLimit = maze.getStepLimit();
+        event.status = String.valueOf(metrics.getSolutionStatus());
+        event.stepCount = metrics.getStepCount();
+        event.cellsVisited = metrics.getExpandedNodes();
+        event.peakFrontierSize = metrics.getPeakFrontierSize();
+        event.limitRestarts = metrics.getLimitRestarts();
+        event.commit();
     }
 
     /**
-     * The main Maze solving algorithm, designed to run recursively.
+     * Commits the given Flight Recorder event for expanding a layer of a breadth-first search, if it is enabled.
+     *
+     * @param event started at the beginning of the expansion
+     * @param engine which expanded the layer
+     * @param layer distance of the reached cells from the start
+     * @param stepLimit within which the search is running
+     * @param cellsVisited amount of cells in the expanded layer
+     * @param frontierSize amount of reached cells
+     */
+    static void commitLayerEvent(MazeLayerEvent event, SolverEngine engine, int layer, int stepLimit,
+                                 int cellsVisited, int frontierSize) {
+        event.end();
+
+        if (!event.shouldCommit()) {
+            return;
+        }
+
+        event.engine = engine.name();
+        event.layer = layer;
+        event.stepLimit = stepLimit;
+        event.cellsVisited = cellsVisited;
+        event.frontierSize = frontierSize;
+        event.commit();
+    }
+
+    /**
+     * Solves the maze with one of the layer-by-layer breadth-first searches, raising the step limit of the maze to the
+     * next limit whenever the search exceeds the current one and continuing the search from where it stopped.
+     *
+     * @param maze Maze to be solved, with its progress reset to the first limit
+     * @param engine BFS or INDEXED_BFS
+     * @param limits validated step limits
+     * @param metrics into which the search is measured
+     */
+    private static void solveWithinEscalatingLimits(Maze maze, SolverEngine engine, List<Integer> limits,
+                                                    SolveMetrics metrics) {
+        IndexedBfsSolver indexedBfsSolver = null;
+
+        if (engine == SolverEngine.INDEXED_BFS) {
+            indexedBfsSolver = new IndexedBfsSolver(maze, metrics);
+            indexedBfsSolver.reset();
+        }
+
+        for (int i = 0; i < limits.size(); i++) {
+            if (i > 0) {
+                metrics.addLimitRestart();
+            }
+
+            maze.raiseStepLimit(limits.get(i));
+            boolean solvableWithinLimit;
+            boolean exhausted;
+
+            if (indexedBfsSolver != null) {
+                solvableWithinLimit = indexedBfsSolver.solve();
+                exhausted = indexedBfsSolver.isExhausted();
+            } else {
+                solvableWithinLimit = solveMaze(maze, metrics);
+                exhausted = maze.getCurrentCoordinatesAndDirections().isEmpty();
+            }
+
+            if (solvableWithinLimit) {
+                return;
+            }
+
+            if (exhausted) {
+                break;
+            }
+        }
+
+        // No further limit can help, so the maze is reported as unsolvable within the largest one
+        maze.raiseStepLimit(limits.get(limits.size() - 1));
+    }
+
+    /**
+     * Solves the maze with one of the solving algorithms which find the shortest solution directly instead of layer
+     * by layer. The search is bounded by the largest limit, after which the step limit of the maze is raised to the
+     * smallest limit within which the found solution fits.
+     *
+     * @param maze Maze to be solved, with its progress reset to the first limit
+     * @param engine any other engine than BFS or INDEXED_BFS
+     * @param limits validated step limits
+     * @param metrics into which the search is measured
+     */
+    private static void solveWithinLargestLimit(Maze maze, SolverEngine engine, List<Integer> limits,
+                                                SolveMetrics metrics) {
+        int largestLimit = limits.get(limits.size() - 1);
+        boolean solvable;
+
+        switch (engine) {
+            case A_STAR:
+                solvable = new AStarSolver(maze, metrics).solve(largestLimit);
+                break;
+            case BIDIRECTIONAL_BFS:
+                solvable = new BidirectionalBfsSolver(maze, metrics).solve(largestLimit);
+                break;
+            case PARALLEL_BFS:
+                solvable = new ParallelBfsSolver(maze, metrics).solve(largestLimit);
+                break;
+            case EXIT_DISTANCE_FIELD:
+                solvable = solveWithExitDistanceField(maze, largestLimit, metrics);
+                break;
+            case JUMP_POINT_SEARCH:
+                solvable = new JumpPointSearchSolver(maze, metrics).solve(largestLimit);
+                break;
+            case JUNCTION_GRAPH:
+                solvable = new JunctionGraphSolver(maze, metrics).solve(largestLimit);
+                break;
+            case HIERARCHICAL:
+                solvable = new HierarchicalSolver(maze, metrics).solve(limits);
+                break;
+            case INCREMENTAL:
+                solvable = new IncrementalSolver(maze).solve(largestLimit, metrics);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported solver engine " + engine);
+        }
+
+        raiseToFittingLimit(maze, limits, solvable);
+    }
+
+    /**
+     * Raises the step limit of the maze to the smallest of the given limits within which the found solution fits, or to
+     * the largest limit if no solution was found.
+     *
+     * @param maze Maze which was solved within the largest limit
+     * @param limits validated step limits
+     * @param solvable whether a solution was found
+     */
+    private static void raiseToFittingLimit(Maze maze, List<Integer> limits, boolean solvable) {
+        if (!solvable) {
+            maze.raiseStepLimit(limits.get(limits.size() - 1));
+
+            return;
+        }
+
+        for (int limit : limits) {
+            if (maze.getCurrentStepCount() <= limit) {
+                maze.raiseStepLimit(limit);
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Solves the maze by following the Directions of its ExitDistanceField from the start to the nearest exit.
+     *
+     * If an exit was found within the step limit the maze will be marked as solved, the solution path will be saved
+     * into the maze and the current step count of the maze will be set to the length of the solution.
+     *
+     * @param maze Maze to be solved
+     * @param stepLimit maximum length of the solution
+     * @param metrics into which the followed cells and the path reconstruction are measured
+     * @return true if an exit was found within the step limit, false otherwise
+     */
+    private static boolean solveWithExitDistanceField(Maze maze, int stepLimit, SolveMetrics metrics) {
+        ExitDistanceField field = maze.getExitDistanceField();
+        int startIndex = maze.getStartIndex();
+        int distance = field.getDistanceToExit(startIndex);
+
+        if (distance < 0 || distance > stepLimit) {
+            return false;
+        }
+
+        metrics.startPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+
+        // The START and EXIT cells are not part of the marked solution path
+        for (int index = field.getNextIndex(startIndex); !maze.isExit(index); index = field.getNextIndex(index)) {
+            maze.updateSolutionPath(index, field.getDirectionToExit(index));
+        }
+
+        metrics.endPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+        metrics.addExpandedNodes(distance);
+
+        maze.setSolutionStatus(SolutionStatus.SUCCESS);
+        maze.setCurrentStepCount(distance);
+
+        return true;
+    }
+
+    /**
+     * Checks that the given step limits can be used for solving a maze.
+     *
+     * @param limits List of step limits, not null
+     * @throws IllegalArgumentException if the limits are empty, not positive or not in ascending order
+     */
+    private static void validateLimits(List<Integer> limits) {
+        if (limits == null) {
+            throw new NullPointerException("Step limits cannot be null");
+        }
+
+        if (limits.isEmpty()) {
+            throw new IllegalArgumentException("At least one step limit must be given");
+        }
+
+        int previousLimit = 0;
+
+        for (Integer limit : limits) {
+            if (limit == null || limit <= previousLimit) {
+                throw new IllegalArgumentException("Step limits must be positive and in ascending order: " + limits);
+            }
+
+            previousLimit = limit;
+        }
+    }
+
+    /**
+     * The main Maze solving algorithm, designed to run iteratively one layer of Coordinates at a time so that the
+     * length of the solution is not bounded by the call stack.
      *
      * Logic is that starting from the starting Coordinates each adjacent Coordinates will be marked as tried as well
      * as their direction from the original Starting coordinate. The process will then be repeated for each of these
@@ -62,31 +493,39 @@ public class MazeSolver {
      * solved -flag or the solution path.
      *
      * @param maze the maze to be solved
-     * @return True if an exit was found within the maximum step limit (either in current or further recursions),
-     *         false otherwise.
+     * @param metrics into which the expanded Coordinates and the path reconstruction are measured
+     * @return True if an exit was found within the maximum step limit, false otherwise.
      */
-    private static boolean solveMaze(Maze maze) {
-        if (maze.isOverStepLimit()) {
-            return false;
-        }
+    private static boolean solveMaze(Maze maze, SolveMetrics metrics) {
+        while (!maze.isOverStepLimit()) {
+            var event = new MazeLayerEvent();
+            event.begin();
+            Coordinates exitCoordinates = markCurrentStepCountsAndDirections(maze);
+
+            if (exitCoordinates != null) {
+                maze.setSolutionStatus(SolutionStatus.SUCCESS);
+                metrics.startPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+                markSolution(maze, exitCoordinates);
+                metrics.endPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+
+                return true;
+            }
 
-        Coordinates exitCoordinates = markCurrentStepCountsAndDirections(maze);
+            int layerSize = maze.getCurrentCoordinatesAndDirections().size();
+            metrics.addExpandedNodes(layerSize);
 
-        if (exitCoordinates == null) {
-            setupMazeForNextRecursion(maze);
+            setupMazeForNextIteration(maze);
+            metrics.updatePeakFrontierSize(maze.getCurrentCoordinatesAndDirections().size());
+            commitLayerEvent(event, SolverEngine.BFS, maze.getCurrentStepCount(), maze.getStepLimit(), layerSize,
+                    maze.getCurrentCoordinatesAndDirections().size());
 
             if (maze.getCurrentCoordinatesAndDirections().isEmpty()) {
                 // Could not find any more traversable coordinates;
                 return false;
             }
-
-            return solveMaze(maze);
-        } else {
-            maze.setSolutionStatus(SolutionStatus.SUCCESS);
-            markSolution(maze, exitCoordinates, null);
-
-            return true;
         }
+
+        return false;
     }
 
     /**
@@ -126,7 +565,7 @@ public class MazeSolver {
      *
      * @param maze current Maze in the solving algorithm.
      */
-    private static void setupMazeForNextRecursion(Maze maze) {
+    private static void setupMazeForNextIteration(Maze maze) {
         maze.setCurrentCoordinatesAndDirections(getValidAdjacentCoordinatesAndDirections(maze));
         maze.setCurrentStepCount(maze.getCurrentStepCount() + 1);
     }
@@ -178,7 +617,7 @@ public class MazeSolver {
     }
 
     /**
-     * Checks if the given Coordinates are valid to be checked in the next recursion of the solving algorithm.
+     * Checks if the given Coordinates are valid to be checked in the next iteration of the solving algorithm.
      * Coordinates are valid if they are in bounds, have not been already checked and are not Coordinates for a BLOCK
      * Tile in the maze.
      *
@@ -199,14 +638,14 @@ public class MazeSolver {
 
     /**
      * Marks the fastest path found from the entrance to an exit to the given Maze object.
-     * The path is marked recursively by going the solution path backwards from the found exit back to the entrance.
+     * The path is marked iteratively by going the solution path backwards from the found exit back to the entrance.
      *
      * The solution path is found by checking from which Direction were the current Coordinates arrived from the
      * previous Coordinates, and then going forward opposite of that Direction, repeating until the entrance is found.
      *
-     * The solution path is marked in a HashMap<Coordinates, Direction> where each solution path Coordinates are a key
-     * paired with the Direction POINTING TOWARDS THE NEXT COORDINATES in the solution Path. This is done so that the
-     * solution path print will be easier to look at.
+     * The solution path is marked into the Maze where each solution path Coordinates are paired with the Direction
+     * POINTING TOWARDS THE NEXT COORDINATES in the solution Path. This is done so that the solution path print will be
+     * easier to look at.
      *
      * E.g. if we have a simple maze like this
      *
@@ -232,28 +671,54 @@ public class MazeSolver {
      * #^#####
      *
      * @param maze Current Maze in the solving algorithm.
-     * @param currentCoordinates Current coordinates when traversing through the solution path
-     * @param previousDirection Direction pointing towards the next Coordinates in the solution path (NOTE: the param
-     *                          is named previousDirection because the method is traversing the solution path backwards
-     *                          from the exit back to the entrance).
+     * @param exitCoordinates Coordinates of the exit which was found by the solving algorithm.
      */
-    private static void markSolution(Maze maze, Coordinates currentCoordinates, Direction previousDirection) {
-        if (maze.getTileForCoordinates(currentCoordinates) == Tile.START) {
-            return;
-        }
-
-        if (previousDirection != null) {
-            maze.updateSolutionPath(currentCoordinates, previousDirection);
-        }
-
-        Direction currentDirection = maze.getDirectionForCoordinates(currentCoordinates);
+    private static void markSolution(Maze maze, Coordinates exitCoordinates) {
+        Coordinates currentCoordinates = exitCoordinates;
         /*
          * NOTE: This method is traversing the solution path backwards, from the exit back to the entrance.
          * Therefore the variables are named "previousDirection" and "nextCoordinates" to reflect the method traversal
          * order (if we were traversing the solution path from the entrance they would be referred to as "nextDirection"
          * and "previousCoordinates" respectively) and not the actual solution path order.
          */
-        Coordinates nextCoordinates = Direction.getPreviousCoordinates(currentDirection, currentCoordinates);
-        markSolution(maze, nextCoordinates, currentDirection);
+        Direction previousDirection = null;
+
+        while (maze.getTileForCoordinates(currentCoordinates) != Tile.START) {
+            if (previousDirection != null) {
+                maze.updateSolutionPath(currentCoordinates, previousDirection);
+            }
+
+            Direction currentDirection = maze.getDirectionForCoordinates(currentCoordinates);
+            Coordinates nextCoordinates = Direction.getPreviousCoordinates(currentDirection, currentCoordinates);
+
+            currentCoordinates = nextCoordinates;
+            previousDirection = currentDirection;
+        }
+    }
+
+    /**
+     * Index based counterpart of markSolution(Maze, Coordinates) for the solving algorithms which work on cell indexes.
+     *
+     * @param maze Maze in which the solving algorithm has marked the Directions from which the cells were checked.
+     * @param exitIndex index of the exit cell which was found by the solving algorithm.
+     * @param metrics into which the path reconstruction is measured.
+     */
+    static void markSolution(Maze maze, int exitIndex, SolveMetrics metrics) {
+        metrics.startPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
+        int width = maze.getWidth();
+        int currentIndex = exitIndex;
+        Direction previousDirection = null;
+
+        while (maze.getTile(currentIndex) != Tile.START) {
+            if (previousDirection != null) {
+                maze.updateSolutionPath(currentIndex, previousDirection);
+            }
+
+            Direction currentDirection = maze.getDirection(currentIndex);
+            currentIndex -= currentDirection.getYAppend() * width + currentDirection.getXAppend();
+            previousDirection = currentDirection;
+        }
+
+        metrics.endPhase(SolveMetrics.Phase.PATH_RECONSTRUCTION);
     }
 }
@@ -0,0 +1,328 @@
+package com.maze.util;
+
+import com.maze.domain.Tile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Decodes the bytes of a maze text file directly into packed tiles (Tile ordinals in row-major order) with a lookup
+ * table, validating the row widths and counting the START tiles along the way.
+ *
+ * Lines may end with "\n", "\r" or "\r\n", like with BufferedReader.readLine(). The bytes can be fed in several parts,
+ * e.g. one window of a memory-mapped file at a time, since the scanner keeps its state between the calls.
+ */
+class MazeTextScanner {
+    static final String UNEQUAL_ROWS_MESSAGE = "Given file must have rows of equal length";
+
+    // Array size limit of the JVM
+    static final int MAX_TILES = Integer.MAX_VALUE - 8;
+    static final String TOO_MANY_TILES_MESSAGE = "Given file has more than " + MAX_TILES + " tiles";
+
+    // Largest part of a file which is memory-mapped at once
+    static final int MAPPED_WINDOW_SIZE = 1 << 30;
+    static final byte NOT_A_TILE = -1;
+    private static final byte[] TILE_CODES = new byte[256];
+
+    static {
+        Arrays.fill(TILE_CODES, NOT_A_TILE);
+
+        for (Tile tile : Tile.values()) {
+            TILE_CODES[tile.getChar()] = (byte) tile.ordinal();
+        }
+    }
+
+    private final int width;
+    private final boolean growable;
+    private byte[] tiles;
+    private int tileCount;
+    private int rowCount;
+    private int column;
+    private boolean skipLineFeed;
+    private int startCount;
+    private int startIndex = -1;
+
+    /**
+     * Creates a new scanner which writes the decoded tiles into the given array starting from the given row.
+     *
+     * @param width which every row must have
+     * @param tiles array into which the tiles are written
+     * @param firstRow row of the maze from which the scanned bytes start
+     * @param growable true if the array may be replaced by a larger one when it runs out of space, false if running
+     *                 out of space means that there are more rows than expected
+     */
+    MazeTextScanner(int width, byte[] tiles, int firstRow, boolean growable) {
+        this.width = width;
+        this.tiles = tiles;
+        this.growable = growable;
+        tileCount = firstRow * width;
+    }
+
+    /**
+     * Returns the Tile ordinal which the given byte of a maze text file represents.
+     *
+     * @param b byte of the file
+     * @return the Tile ordinal, NOT_A_TILE if the byte does not represent a Tile
+     */
+    static byte decodeTile(byte b) {
+        return TILE_CODES[b & 0xFF];
+    }
+
+    /**
+     * Returns the width of the first line of the given file, i.e. the amount of bytes before the first line break.
+     *
+     * @param channel of the file, not null
+     * @param size of the file in bytes
+     * @return the width of the first line, or the size of the file if there is no line break
+     * @throws IOException if the file could not be mapped
+     * @throws IllegalArgumentException if the first line is too long to be a row of a maze
+     */
+    static int findFirstLineWidth(FileChannel channel, long size) throws IOException {
+        long lineBreak = findLineBreak(channel, 0, size);
+
+        if (lineBreak > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Given file has a row longer than " + Integer.MAX_VALUE + " tiles");
+        }
+
+        return (int) lineBreak;
+    }
+
+    /**
+     * Returns the width of the first line of the given bytes of a maze text file, like findFirstLineWidth(FileChannel,
+     * long) does for a file.
+     *
+     * @param buffer bytes of the maze text file between its position and limit, not modified
+     * @return the width of the first line, or the amount of bytes if there is no line break
+     */
+    static int findFirstLineWidth(ByteBuffer buffer) {
+        for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+            byte b = buffer.get(i);
+
+            if (b == '\n' || b == '\r') {
+                return i - buffer.position();
+            }
+        }
+
+        return buffer.remaining();
+    }
+
+    /**
+     * Returns the position where the first row starting after the given position in the given file starts, i.e. the
+     * position right after the next line break. A "\r\n" line break is never split in two.
+     *
+     * @param channel of the file, not null
+     * @param position from which the next line break is searched (inclusive)
+     * @param size of the file in bytes
+     * @return the start position of the next row, or the size of the file if there are no more line breaks
+     * @throws IOException if the file could not be mapped
+     */
+    static long findNextRowStart(FileChannel channel, long position, long size) throws IOException {
+        long lineBreak = findLineBreak(channel, position, size);
+
+        if (lineBreak == size) {
+            return size;
+        }
+
+        if (lineBreak + 1 < size) {
+            ByteBuffer lineBreakBytes = mapWindow(channel, lineBreak, lineBreak + 2);
+
+            if (lineBreakBytes.get(0) == '\r' && lineBreakBytes.get(1) == '\n') {
+                return lineBreak + 2;
+            }
+        }
+
+        return lineBreak + 1;
+    }
+
+    /**
+     * Returns the position of the first line break at or after the given position in the given file.
+     */
+    private static long findLineBreak(FileChannel channel, long position, long size) throws IOException {
+        for (long windowStart = position; windowStart < size; windowStart += MAPPED_WINDOW_SIZE) {
+            ByteBuffer window = mapWindow(channel, windowStart, size);
+
+            for (int i = 0; i < window.limit(); i++) {
+                byte b = window.get(i);
+
+                if (b == '\n' || b == '\r') {
+                    return windowStart + i;
+                }
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Counts the rows in the given part of the given file, which starts at the start of a row. A "\r\n" line break
+     * counts as a single one, and a last line without a line break is counted as well.
+     *
+     * @param channel of the file, not null
+     * @param from start position of the part (inclusive)
+     * @param to end position of the part (exclusive)
+     * @return the amount of rows in the part
+     * @throws IOException if the file could not be mapped
+     */
+    static long countRows(FileChannel channel, long from, long to) throws IOException {
+        long rowCount = 0;
+        byte previous = '\n';
+
+        for (long windowStart = from; windowStart < to; windowStart += MAPPED_WINDOW_SIZE) {
+            ByteBuffer window = mapWindow(channel, windowStart, to);
+
+            for (int i = 0; i < window.limit(); i++) {
+                byte b = window.get(i);
+
+                if (b == '\r' || (b == '\n' && previous != '\r')) {
+                    rowCount++;
+                }
+
+                previous = b;
+            }
+        }
+
+        return previous == '\n' || previous == '\r' ? rowCount : rowCount + 1;
+    }
+
+    /**
+     * Returns the amount of tiles which will be enough for a maze text file of the given size when all of its rows
+     * are of the given width.
+     *
+     * @param byteCount size of the file
+     * @param width of the rows
+     * @return upper bound for the amount of tiles in the file
+     */
+    static int estimateTileCount(long byteCount, int width) {
+        long rows = (byteCount + width) / (width + 1); // Every row but the last one takes at least width + 1 bytes
+
+        return (int) Math.min(rows * width, MAX_TILES);
+    }
+
+    /**
+     * Decodes the given part of the given file by memory-mapping it a window at a time.
+     *
+     * @param channel of the file, not null
+     * @param from start position of the part (inclusive)
+     * @param to end position of the part (exclusive)
+     * @throws IOException if the file could not be mapped
+     * @throws java.util.NoSuchElementException if there is a character which does not represent a Tile
+     * @throws IllegalArgumentException if the rows are not of equal width
+     */
+    void scan(FileChannel channel, long from, long to) throws IOException {
+        for (long windowStart = from; windowStart < to; windowStart += MAPPED_WINDOW_SIZE) {
+            scan(mapWindow(channel, windowStart, to));
+        }
+    }
+
+    /**
+     * Decodes the bytes between the position and the limit of the given buffer. Does not modify the buffer.
+     *
+     * @param buffer bytes of the maze text file
+     * @throws java.util.NoSuchElementException if there is a character which does not represent a Tile
+     * @throws IllegalArgumentException if the rows are not of equal width
+     */
+    void scan(ByteBuffer buffer) {
+        for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+            byte b = buffer.get(i);
+            byte code = TILE_CODES[b & 0xFF];
+
+            if (code != NOT_A_TILE) {
+                if (column == width) {
+                    throw new IllegalArgumentException(UNEQUAL_ROWS_MESSAGE);
+                }
+
+                if (tileCount == tiles.length) {
+                    growTiles();
+                }
+
+                if (code == Tile.START.ordinal()) {
+                    startCount++;
+                    startIndex = tileCount;
+                }
+
+                tiles[tileCount++] = code;
+                column++;
+                skipLineFeed = false;
+            } else if (b == '\n') {
+                if (!skipLineFeed) {
+                    endRow();
+                }
+
+                skipLineFeed = false;
+            } else if (b == '\r') {
+                endRow();
+                skipLineFeed = true; // '\n' right after '\r' belongs to the same line break
+            } else {
+                Tile.parseTile((char) (b & 0xFF)); // Throws an exception describing the invalid character
+            }
+        }
+    }
+
+    /**
+     * Ends the scanning at the end of the file. The last line is counted as a row if it has any tiles, even if it does
+     * not end in a line break.
+     *
+     * @throws IllegalArgumentException if the last row is not of equal width to the others
+     */
+    void finish() {
+        if (column > 0) {
+            endRow();
+        }
+    }
+
+    private void endRow() {
+        if (column != width) {
+            throw new IllegalArgumentException(UNEQUAL_ROWS_MESSAGE);
+        }
+
+        rowCount++;
+        column = 0;
+    }
+
+    private void growTiles() {
+        if (!growable) {
+            throw new IllegalArgumentException(UNEQUAL_ROWS_MESSAGE);
+        }
+
+        if (tiles.length >= MAX_TILES) {
+            throw new IllegalArgumentException(TOO_MANY_TILES_MESSAGE);
+        }
+
+        tiles = Arrays.copyOf(tiles, (int) Math.min(MAX_TILES, Math.max(16L, tiles.length * 2L)));
+    }
+
+    /**
+     * Maps the part of the given file from the given position up to the given end position, or at most
+     * MAPPED_WINDOW_SIZE bytes of it.
+     */
+    private static ByteBuffer mapWindow(FileChannel channel, long position, long end) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPED_WINDOW_SIZE, end - position));
+    }
+
+    /**
+     * Returns the decoded tiles, trimmed to the amount of tiles decoded if the array was growable.
+     *
+     * @return the decoded tiles
+     */
+    byte[] getTiles() {
+        if (growable && tiles.length != tileCount) {
+            tiles = Arrays.copyOf(tiles, tileCount);
+        }
+
+        return tiles;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    int getStartCount() {
+        return startCount;
+    }
+
+    int getStartIndex() {
+        return startIndex;
+    }
+}
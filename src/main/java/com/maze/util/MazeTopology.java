@@ -0,0 +1,28 @@
+package com.maze.util;
+
+/**
+ * Enum for selecting the shape of the mazes created by MazeGenerator.
+ */
+public enum MazeTopology {
+    /**
+     * Maze with exactly one path between any two cells, carved a row at a time with Eller's algorithm.
+     */
+    PERFECT,
+    /**
+     * Grid of 7x7 rooms, each of which has a door to all of its neighbouring rooms, so that there are many equally short
+     * paths through the maze.
+     */
+    ROOMS,
+    /**
+     * Single open room without any inner walls.
+     */
+    OPEN,
+    /**
+     * Corridor spiralling from the outer edge into the middle of the maze, where the exit is.
+     */
+    SPIRAL,
+    /**
+     * Single corridor winding back and forth through every other row, which makes the solution as long as possible.
+     */
+    CORRIDOR
+}
@@ -0,0 +1,114 @@
+package com.maze.util;
+
+import com.maze.domain.Maze;
+
+import java.util.Arrays;
+
+/**
+ * Heuristic for the informed searches (A* and Jump Point Search): the Manhattan distance from a cell to the nearest
+ * exit, ignoring BLOCK tiles. Since every step costs one and moves one cell horizontally or vertically, the estimate
+ * never overestimates and is consistent.
+ */
+class NearestExitEstimate {
+    // With more exits than this the nearest exit distances are precomputed for every cell instead of checked per exit
+    private static final int MAX_EXITS_CHECKED_PER_CELL = 16;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final int width;
+    private final int[] exitYs;
+    private final int[] exitXs;
+    private final int[] exitDistances;
+
+    /**
+     * Creates the estimate for the exits of the given maze.
+     *
+     * @param maze not null
+     */
+    NearestExitEstimate(Maze maze) {
+        width = maze.getWidth();
+        int[] exitIndexes = maze.findExitIndexes();
+
+        if (exitIndexes.length <= MAX_EXITS_CHECKED_PER_CELL) {
+            exitYs = new int[exitIndexes.length];
+            exitXs = new int[exitIndexes.length];
+
+            for (int i = 0; i < exitIndexes.length; i++) {
+                exitYs[i] = exitIndexes[i] / width;
+                exitXs[i] = exitIndexes[i] % width;
+            }
+
+            exitDistances = null;
+        } else {
+            exitYs = null;
+            exitXs = null;
+            exitDistances = computeManhattanDistancesToExits(maze, exitIndexes);
+        }
+    }
+
+    /**
+     * Returns the Manhattan distance from the given cell to the nearest exit.
+     *
+     * @param index of the cell
+     * @return the distance, Integer.MAX_VALUE if the maze has no exits
+     */
+    int estimateRemainingSteps(int index) {
+        if (exitDistances != null) {
+            return exitDistances[index];
+        }
+
+        int y = index / width;
+        int x = index - y * width;
+        int nearest = UNREACHED;
+
+        for (int i = 0; i < exitYs.length; i++) {
+            nearest = Math.min(nearest, Math.abs(exitYs[i] - y) + Math.abs(exitXs[i] - x));
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Computes the Manhattan distance to the nearest exit for every cell with two sweeps over the grid: the first one
+     * propagates the distances downwards and to the right and the second one upwards and to the left.
+     *
+     * @param maze of the exits
+     * @param exitIndexes indexes of all of the exits of the maze
+     * @return the Manhattan distance to the nearest exit for every cell
+     */
+    private static int[] computeManhattanDistancesToExits(Maze maze, int[] exitIndexes) {
+        int height = maze.getHeight();
+        int width = maze.getWidth();
+        int[] distances = new int[maze.getCellCount()];
+        Arrays.fill(distances, UNREACHED / 2); // Halved so that adding to it cannot overflow
+
+        for (int exitIndex : exitIndexes) {
+            distances[exitIndex] = 0;
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0, i = y * width; x < width; x++, i++) {
+                if (y > 0) {
+                    distances[i] = Math.min(distances[i], distances[i - width] + 1);
+                }
+
+                if (x > 0) {
+                    distances[i] = Math.min(distances[i], distances[i - 1] + 1);
+                }
+            }
+        }
+
+        for (int y = height - 1; y >= 0; y--) {
+            for (int x = width - 1, i = y * width + x; x >= 0; x--, i--) {
+                if (y < height - 1) {
+                    distances[i] = Math.min(distances[i], distances[i + width] + 1);
+                }
+
+                if (x < width - 1) {
+                    distances[i] = Math.min(distances[i], distances[i + 1] + 1);
+                }
+            }
+        }
+
+        return distances;
+    }
+}
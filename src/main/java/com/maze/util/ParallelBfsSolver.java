@@ -0,0 +1,228 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+import com.maze.jfr.MazeLayerEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Level-synchronous breadth-first search which expands each layer on several threads of a ForkJoinPool.
+ *
+ * Every layer is split into chunks which are expanded concurrently. The threads claim cells by marking them as checked
+ * atomically in the shared maze, so each cell ends up in exactly one chunk's output. Each chunk writes into its own
+ * preallocated buffer, and the buffers are then copied into the next layer at offsets given by their sizes, so no
+ * locks are needed anywhere.
+ *
+ * The solution is equally short as the one found by BFS, but since the threads race for the cells, the chosen path
+ * among several equally short ones may vary from run to run. Layers smaller than a single chunk are expanded in the
+ * calling thread.
+ */
+class ParallelBfsSolver {
+    private static final Direction[] DIRECTIONS = GridNeighbours.DIRECTIONS;
+    private static final int MINIMUM_CHUNK_SIZE = 4096;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Maze maze;
+    private final SolveMetrics metrics;
+    private final GridNeighbours neighbours;
+    private final int width;
+    private final ForkJoinPool pool;
+
+    private int[] frontier = new int[MINIMUM_CHUNK_SIZE];
+    private int frontierSize;
+    private int[] nextFrontier = new int[MINIMUM_CHUNK_SIZE];
+
+    // Every cell has at most as many new neighbours as there are Directions, which bounds the size of each output
+    private int[][] chunkOutputs = new int[0][];
+    private int[] chunkOutputSizes = new int[0];
+    private int[] chunkOutputOffsets = new int[0];
+
+    private final AtomicInteger exitIndex = new AtomicInteger(-1);
+
+    /**
+     * Creates a new solver for the given maze which runs on the common ForkJoinPool.
+     *
+     * @param maze not null
+     * @param metrics into which the search is measured, not null
+     */
+    ParallelBfsSolver(Maze maze, SolveMetrics metrics) {
+        this(maze, metrics, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new solver for the given maze which runs on the given ForkJoinPool.
+     *
+     * @param maze not null
+     * @param metrics into which the search is measured, not null
+     * @param pool not null
+     */
+    ParallelBfsSolver(Maze maze, SolveMetrics metrics, ForkJoinPool pool) {
+        if (maze == null || metrics == null) {
+            throw new NullPointerException("Solvable maze and solve metrics cannot be null");
+        }
+
+        if (pool == null) {
+            throw new NullPointerException("ForkJoinPool cannot be null");
+        }
+
+        this.maze = maze;
+        this.metrics = metrics;
+        this.pool = pool;
+        neighbours = new GridNeighbours(maze);
+        width = maze.getWidth();
+    }
+
+    /**
+     * Searches for the shortest path from the start to an exit which is at most the given amount of steps long.
+     * The progress of the maze must have been reset beforehand with maze.resetProgress().
+     *
+     * If an exit was found the maze will be marked as solved, the solution path will be saved into the maze and the
+     * current step count of the maze will be set to the length of the solution.
+     *
+     * @param stepLimit maximum length of the solution
+     * @return true if an exit was found within the step limit, false otherwise
+     */
+    boolean solve(int stepLimit) {
+        int startIndex = maze.getStartIndex();
+        maze.markChecked(startIndex, null);
+        frontier[0] = startIndex;
+        frontierSize = 1;
+        int depth = 0;
+
+        while (frontierSize > 0 && depth < stepLimit) {
+            var event = new MazeLayerEvent();
+            event.begin();
+            int layerSize = frontierSize;
+            metrics.addExpandedNodes(layerSize);
+            expandLayer();
+            metrics.updatePeakFrontierSize(frontierSize);
+            depth++;
+            MazeSolver.commitLayerEvent(event, SolverEngine.PARALLEL_BFS, depth, stepLimit, layerSize, frontierSize);
+
+            int foundExitIndex = exitIndex.get();
+
+            if (foundExitIndex >= 0) {
+                maze.setSolutionStatus(SolutionStatus.SUCCESS);
+                maze.setCurrentStepCount(depth);
+                MazeSolver.markSolution(maze, foundExitIndex, metrics);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Expands the current frontier into the next one by splitting it into chunks which are expanded concurrently and
+     * then concatenating their outputs.
+     */
+    private void expandLayer() {
+        int chunkCount = Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD,
+                frontierSize / MINIMUM_CHUNK_SIZE));
+        int chunkSize = (frontierSize + chunkCount - 1) / chunkCount;
+        ensureChunkOutputCapacity(chunkCount, chunkSize * DIRECTIONS.length);
+
+        runChunks(chunkCount, chunk -> expandChunk(chunk, chunk * chunkSize,
+                Math.min(frontierSize, (chunk + 1) * chunkSize)));
+
+        int nextFrontierSize = 0;
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            chunkOutputOffsets[chunk] = nextFrontierSize;
+            nextFrontierSize += chunkOutputSizes[chunk];
+        }
+
+        if (nextFrontier.length < nextFrontierSize) {
+            nextFrontier = new int[Math.max(nextFrontierSize, nextFrontier.length * 2)];
+        }
+
+        runChunks(chunkCount, chunk -> System.arraycopy(chunkOutputs[chunk], 0, nextFrontier,
+                chunkOutputOffsets[chunk], chunkOutputSizes[chunk]));
+
+        int[] expandedFrontier = frontier;
+        frontier = nextFrontier;
+        nextFrontier = expandedFrontier;
+        frontierSize = nextFrontierSize;
+    }
+
+    /**
+     * Claims all of the unchecked walkable cells adjacent to the given part of the current frontier into the output of
+     * the given chunk. Stops early if an exit has already been found by any of the chunks.
+     *
+     * @param chunk number of the chunk
+     * @param from position of the first cell of the chunk in the frontier (inclusive)
+     * @param to position after the last cell of the chunk in the frontier (exclusive)
+     */
+    private void expandChunk(int chunk, int from, int to) {
+        int[] output = chunkOutputs[chunk];
+        int outputSize = 0;
+
+        for (int i = from; i < to && exitIndex.get() < 0; i++) {
+            int index = frontier[i];
+            int y = index / width;
+            int x = index - y * width;
+
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int neighbour = neighbours.getNeighbourIndex(index, y, x, d);
+
+                if (neighbour < 0 || !maze.isWalkable(neighbour) || !maze.tryMarkChecked(neighbour, DIRECTIONS[d])) {
+                    continue;
+                }
+
+                output[outputSize++] = neighbour;
+
+                if (maze.isExit(neighbour)) {
+                    exitIndex.compareAndSet(-1, neighbour);
+                }
+            }
+        }
+
+        chunkOutputSizes[chunk] = outputSize;
+    }
+
+    /**
+     * Runs the given action for every chunk number, concurrently in the pool if there is more than one chunk.
+     *
+     * @param chunkCount amount of chunks
+     * @param action to be run for each chunk number
+     */
+    private void runChunks(int chunkCount, IntConsumer action) {
+        if (chunkCount == 1) {
+            action.accept(0);
+
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunkCount);
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int chunkNumber = chunk;
+            tasks.add(ForkJoinTask.adapt(() -> action.accept(chunkNumber)));
+        }
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    private void ensureChunkOutputCapacity(int chunkCount, int capacity) {
+        if (chunkOutputs.length < chunkCount) {
+            chunkOutputs = Arrays.copyOf(chunkOutputs, chunkCount);
+            chunkOutputSizes = new int[chunkCount];
+            chunkOutputOffsets = new int[chunkCount];
+        }
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (chunkOutputs[chunk] == null || chunkOutputs[chunk].length < capacity) {
+                chunkOutputs[chunk] = new int[capacity];
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.maze.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Decodes a maze text file into packed tiles concurrently on several threads of a ForkJoinPool.
+ *
+ * The file is split into chunks which start right after a line break, so that every chunk consists of whole rows.
+ * First the rows of every chunk are counted concurrently, which gives the row of the maze at which each chunk starts.
+ * Then every chunk is decoded concurrently by its own MazeTextScanner straight into its own part of the shared tile
+ * array, validating the row widths along the way. Finally the START tiles found by the chunks are combined.
+ *
+ * If several chunks have invalid syntax, the error of the chunk nearest to the start of the file is reported, like
+ * when decoding the file in a single pass.
+ */
+class ParallelMazeScanner {
+    private static final long MINIMUM_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int width;
+    private final ForkJoinPool pool;
+
+    // Chunk i covers the bytes from chunkStarts[i] (inclusive) to chunkStarts[i + 1] (exclusive)
+    private long[] chunkStarts;
+    private long[] chunkFirstRows;
+
+    private byte[] tiles;
+    private int rowCount;
+    private int startCount;
+    private int startIndex = -1;
+
+    /**
+     * Creates a new scanner for the file of the given channel.
+     *
+     * @param channel of the file, not null
+     * @param width which every row must have, i.e. the width of the first line of the file
+     * @param pool on which the chunks are decoded, not null
+     * @throws IOException if the size of the file could not be read
+     */
+    ParallelMazeScanner(FileChannel channel, int width, ForkJoinPool pool) throws IOException {
+        if (channel == null) {
+            throw new NullPointerException("File channel cannot be null");
+        }
+
+        if (pool == null) {
+            throw new NullPointerException("ForkJoinPool cannot be null");
+        }
+
+        this.channel = channel;
+        this.width = width;
+        this.pool = pool;
+        size = channel.size();
+    }
+
+    /**
+     * Decodes the whole file.
+     *
+     * @throws IOException if the file could not be mapped
+     * @throws java.util.NoSuchElementException if there is a character which does not represent a Tile
+     * @throws IllegalArgumentException if the rows are not of equal width or there are too many tiles
+     */
+    void scan() throws IOException {
+        splitIntoChunks();
+        int chunkCount = chunkStarts.length - 1;
+
+        long[] chunkRowCounts = new long[chunkCount];
+        runChunks(chunkCount, chunk -> chunkRowCounts[chunk] = MazeTextScanner.countRows(channel,
+                chunkStarts[chunk], chunkStarts[chunk + 1]));
+
+        chunkFirstRows = new long[chunkCount];
+        long totalRowCount = 0;
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            chunkFirstRows[chunk] = totalRowCount;
+            totalRowCount += chunkRowCounts[chunk];
+        }
+
+        if (totalRowCount > MazeTextScanner.MAX_TILES / Math.max(1, width)) {
+            throw new IllegalArgumentException(MazeTextScanner.TOO_MANY_TILES_MESSAGE);
+        }
+
+        tiles = new byte[(int) (totalRowCount * width)];
+        rowCount = (int) totalRowCount;
+
+        MazeTextScanner[] scanners = new MazeTextScanner[chunkCount];
+        runChunks(chunkCount, chunk -> scanners[chunk] = scanChunk(chunk));
+
+        for (MazeTextScanner scanner : scanners) {
+            startCount += scanner.getStartCount();
+
+            if (scanner.getStartCount() > 0) {
+                startIndex = scanner.getStartIndex();
+            }
+        }
+    }
+
+    /**
+     * Splits the file into chunks of roughly equal size which all start right after a line break, i.e. at the start of
+     * a row. Chunks which would be empty due to rows longer than the chunk size are left out.
+     */
+    private void splitIntoChunks() throws IOException {
+        long chunkCount = Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD, size / MINIMUM_CHUNK_SIZE));
+        long chunkSize = (size + chunkCount - 1) / chunkCount;
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        long previousStart = 0;
+
+        for (long chunk = 1; chunk < chunkCount; chunk++) {
+            long start = MazeTextScanner.findNextRowStart(channel, Math.max(previousStart, chunk * chunkSize - 1),
+                    size);
+
+            if (start > previousStart && start < size) {
+                starts.add(start);
+                previousStart = start;
+            }
+        }
+
+        starts.add(size);
+        chunkStarts = starts.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Decodes the given chunk into its own part of the shared tile array.
+     *
+     * @param chunk number of the chunk
+     * @return the scanner which decoded the chunk
+     */
+    private MazeTextScanner scanChunk(int chunk) throws IOException {
+        var scanner = new MazeTextScanner(width, tiles, (int) chunkFirstRows[chunk], false);
+        scanner.scan(channel, chunkStarts[chunk], chunkStarts[chunk + 1]);
+        scanner.finish();
+
+        return scanner;
+    }
+
+    /**
+     * Runs the given action for every chunk number concurrently in the pool. If the action fails for any chunks, the
+     * exception of the first of those chunks is thrown once all of the chunks have finished.
+     *
+     * @param chunkCount amount of chunks
+     * @param action to be run for each chunk number
+     * @throws IOException if the action threw one for any chunk
+     */
+    private void runChunks(int chunkCount, ChunkAction action) throws IOException {
+        Exception[] exceptions = new Exception[chunkCount];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunkCount);
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int chunkNumber = chunk;
+            tasks.add(ForkJoinTask.adapt(() -> {
+                try {
+                    action.run(chunkNumber);
+                } catch (IOException | RuntimeException e) {
+                    exceptions[chunkNumber] = e;
+                }
+            }));
+        }
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+        for (Exception exception : exceptions) {
+            if (exception instanceof IOException) {
+                throw (IOException) exception;
+            } else if (exception != null) {
+                throw (RuntimeException) exception;
+            }
+        }
+    }
+
+    /**
+     * Returns the decoded tiles, i.e. Tile ordinals of every cell in row-major order.
+     *
+     * @return the decoded tiles
+     */
+    byte[] getTiles() {
+        return tiles;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    int getStartCount() {
+        return startCount;
+    }
+
+    int getStartIndex() {
+        return startIndex;
+    }
+
+    private interface ChunkAction {
+        void run(int chunk) throws IOException;
+    }
+}
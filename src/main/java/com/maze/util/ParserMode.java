@@ -0,0 +1,21 @@
+package com.maze.util;
+
+/**
+ * Enum for selecting how MazeParser reads a maze file.
+ */
+public enum ParserMode {
+    /**
+     * The original parser which reads the file line by line through a BufferedReader into Tile objects.
+     */
+    READER,
+    /**
+     * Memory-maps the file and decodes its bytes straight into the packed cells of the maze in a single pass, without
+     * creating any objects per line or per tile. Meant for very large maze files.
+     */
+    MAPPED,
+    /**
+     * Memory-maps the file like MAPPED, but splits it into chunks at line breaks and decodes the chunks concurrently on
+     * the common ForkJoinPool, so that the parsing time of huge maze files scales with the amount of processor cores.
+     */
+    PARALLEL
+}
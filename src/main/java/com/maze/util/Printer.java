@@ -1,5 +1,8 @@
 package com.maze.util;
 
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
 public class Printer {
     private Printer() {
         // Empty private constructor for static method class
@@ -27,4 +30,14 @@ public class Printer {
     public static void print(String msg) {
         System.out.print(msg);
     }
+
+    /**
+     * Returns a channel which writes into the console, for writing large outputs without creating them as Strings.
+     * The channel must not be closed.
+     *
+     * @return channel into the console
+     */
+    public static WritableByteChannel getChannel() {
+        return Channels.newChannel(System.out);
+    }
 }
@@ -0,0 +1,346 @@
+package com.maze.util;
+
+import com.maze.domain.SolutionStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of maze solutions keyed by the contents of the maze file, so that solving an identical file again needs
+ * neither parsing nor solving.
+ *
+ * The key of a file is a fast 64-bit hash of its bytes together with its length, the solver engine, the step limits and
+ * the solution format.
+ * Two different files with the same key are considered practically impossible.
+ *
+ * The solutions are kept in memory in least recently used order, and the least recently used ones are evicted once the
+ * cached solution graphics have more than the given amount of tiles in total. Optionally the solutions are also stored
+ * as files in a directory, which is checked whenever a solution is not found from memory, so that the cache survives
+ * restarts of the application.
+ *
+ * All of the methods are safe to call from several threads at once.
+ */
+public class SolutionCache {
+    // Largest part of a file which is memory-mapped at once while hashing
+    private static final int HASH_WINDOW_SIZE = 1 << 30;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final String DISK_FILE_SUFFIX = ".solution";
+
+    private final long maxCachedTiles;
+    private final Path directory;
+    private final LinkedHashMap<Key, MazeSolution> solutions = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedTiles;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Identifies the solution of a maze file solved with a certain engine within certain step limits, in a certain
+     * format.
+     */
+    public static class Key {
+        private final long contentHash;
+        private final long contentLength;
+        private final SolverEngine engine;
+        private final List<Integer> limits;
+        private final SolutionFormat format;
+
+        private Key(long contentHash, long contentLength, SolverEngine engine, List<Integer> limits,
+                    SolutionFormat format) {
+            this.contentHash = contentHash;
+            this.contentLength = contentLength;
+            this.engine = engine;
+            this.limits = List.copyOf(limits);
+            this.format = format;
+        }
+
+        /**
+         * Returns a representation of the key which can be used as a file name.
+         *
+         * @return e.g. "00f1d3a2b4c5e6f7-1234-BFS-20_150_200", followed by "-PATH" in the PATH format
+         */
+        @Override
+        public String toString() {
+            return String.format("%016x-%d-%s-%s%s", contentHash, contentLength, engine,
+                    limits.stream().map(String::valueOf).collect(Collectors.joining("_")),
+                    format == SolutionFormat.PATH ? "-" + format : "");
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) other;
+
+            return contentHash == key.contentHash && contentLength == key.contentLength && engine == key.engine
+                    && limits.equals(key.limits) && format == key.format;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(contentHash) * 31 + engine.hashCode();
+        }
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxCachedTiles maximum total amount of tiles in the solution graphics kept in memory, positive
+     * @param directory directory in which the solutions are also stored, null if the solutions are kept in memory only
+     * @throws IOException if the directory could not be created
+     */
+    public SolutionCache(long maxCachedTiles, Path directory) throws IOException {
+        if (maxCachedTiles <= 0) {
+            throw new IllegalArgumentException("Maximum amount of cached tiles must be positive");
+        }
+
+        this.maxCachedTiles = maxCachedTiles;
+        this.directory = directory == null ? null : Files.createDirectories(directory);
+    }
+
+    /**
+     * Creates the key for the given maze file by hashing its contents.
+     *
+     * @param filepath not null
+     * @param engine used for solving the maze, not null
+     * @param limits used for solving the maze, not null
+     * @param format of the solution, not null
+     * @return key for the solution of the file, null if the file does not exist
+     * @throws IOException if the file could not be read
+     */
+    public static Key createKey(String filepath, SolverEngine engine, List<Integer> limits, SolutionFormat format)
+            throws IOException {
+        if (filepath == null || engine == null || limits == null || format == null) {
+            throw new NullPointerException("File path, engine, limits and format of a cache key cannot be null");
+        }
+
+        FileChannel channel = null;
+
+        try {
+            channel = FileChannel.open(Path.of(filepath));
+
+            return new Key(hashContents(channel), channel.size(), engine, limits, format);
+        } catch (NoSuchFileException e) {
+            return null;
+        } finally {
+            IOUtil.close(channel);
+        }
+    }
+
+    /**
+     * Creates the key for the given contents of a maze file, e.g. the body of a request. The key is the same as the one
+     * created from a file with the same contents.
+     *
+     * @param contents bytes between the position and the limit of the buffer, not modified
+     * @param engine used for solving the maze, not null
+     * @param limits used for solving the maze, not null
+     * @param format of the solution, not null
+     * @return key for the solution of the contents
+     */
+    public static Key createKey(ByteBuffer contents, SolverEngine engine, List<Integer> limits, SolutionFormat format) {
+        if (contents == null || engine == null || limits == null || format == null) {
+            throw new NullPointerException("Contents, engine, limits and format of a cache key cannot be null");
+        }
+
+        long size = contents.remaining();
+
+        return new Key(mixHash(hashWindow(size, contents.slice())), size, engine, limits, format);
+    }
+
+    /**
+     * Hashes the contents of the file of the given channel 8 bytes at a time by multiplying and rotating, and finally
+     * mixes the bits of the result so that small differences spread over the whole hash.
+     */
+    private static long hashContents(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long hash = size;
+
+        for (long position = 0; position < size; position += HASH_WINDOW_SIZE) {
+            hash = hashWindow(hash, channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(HASH_WINDOW_SIZE, size - position)));
+        }
+
+        return mixHash(hash);
+    }
+
+    /**
+     * Continues the given hash with the bytes of the given window, which is consumed.
+     */
+    private static long hashWindow(long hash, ByteBuffer window) {
+        window.order(ByteOrder.LITTLE_ENDIAN);
+
+        while (window.remaining() >= Long.BYTES) {
+            hash = Long.rotateLeft((hash ^ window.getLong()) * HASH_MULTIPLIER, 27);
+        }
+
+        while (window.hasRemaining()) {
+            hash = Long.rotateLeft((hash ^ window.get()) * HASH_MULTIPLIER, 27);
+        }
+
+        return hash;
+    }
+
+    private static long mixHash(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+    /**
+     * Returns the cached solution for the given key, looking it up from the directory if it is not kept in memory.
+     * Counts a hit or a miss.
+     *
+     * @param key not null
+     * @return the cached solution, null if there is none
+     */
+    public MazeSolution get(Key key) {
+        if (key == null) {
+            throw new NullPointerException("Cache key cannot be null");
+        }
+
+        MazeSolution solution;
+
+        synchronized (solutions) {
+            solution = solutions.get(key);
+        }
+
+        if (solution == null && directory != null) {
+            solution = readFromDirectory(key);
+
+            if (solution != null) {
+                putIntoMemory(key, solution);
+            }
+        }
+
+        (solution != null ? hits : misses).increment();
+
+        return solution;
+    }
+
+    /**
+     * Caches the given solution for the given key. Solutions with the status ERROR are not cached.
+     *
+     * @param key not null
+     * @param solution not null
+     */
+    public void put(Key key, MazeSolution solution) {
+        if (key == null || solution == null) {
+            throw new NullPointerException("Cache key and solution cannot be null");
+        }
+
+        if (solution.getSolutionStatus() == SolutionStatus.ERROR) {
+            return;
+        }
+
+        putIntoMemory(key, solution);
+
+        if (directory != null) {
+            writeIntoDirectory(key, solution);
+        }
+    }
+
+    private void putIntoMemory(Key key, MazeSolution solution) {
+        synchronized (solutions) {
+            MazeSolution replaced = solutions.put(key, solution);
+            cachedTiles += getTileCount(solution) - (replaced != null ? getTileCount(replaced) : 0);
+            Iterator<Map.Entry<Key, MazeSolution>> leastRecentlyUsed = solutions.entrySet().iterator();
+
+            // The newest solution is kept even if it alone is larger than the limit
+            while (cachedTiles > maxCachedTiles && solutions.size() > 1) {
+                cachedTiles -= getTileCount(leastRecentlyUsed.next().getValue());
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    private static long getTileCount(MazeSolution solution) {
+        // A solution path takes about as much memory per character as a solution graphic per tile
+        return solution.getSolutionPath() != null
+                ? solution.getSolutionPath().length()
+                : Math.max(1, (long) solution.getHeight() * solution.getWidth());
+    }
+
+    /**
+     * Reads a solution written by writeIntoDirectory. The first line of the file has the status, the step limit and
+     * the step count, and the rest of the file is the solution graphic or the encoded solution path.
+     *
+     * @return the solution, null if there is no file for the key or it could not be read
+     */
+    private MazeSolution readFromDirectory(Key key) {
+        Path file = directory.resolve(key + DISK_FILE_SUFFIX);
+
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try {
+            String contents = Files.readString(file, StandardCharsets.UTF_8);
+            int headerEnd = contents.indexOf('\n');
+            String[] header = contents.substring(0, headerEnd).split(" ");
+            var status = SolutionStatus.valueOf(header[0]);
+
+            return new MazeSolution(status, key.format, Integer.parseInt(header[1]), Integer.parseInt(header[2]),
+                    status == SolutionStatus.SUCCESS ? contents.substring(headerEnd + 1) : null);
+        } catch (IOException | RuntimeException e) {
+            Printer.println("Was unable to read the cached solution " + file + ": " + e.getMessage());
+
+            return null;
+        }
+    }
+
+    private void writeIntoDirectory(Key key, MazeSolution solution) {
+        Path file = directory.resolve(key + DISK_FILE_SUFFIX);
+        String solutionText = solution.getSolutionFormat() == SolutionFormat.PATH
+                ? solution.getSolutionPath()
+                : solution.getSolutionAscii(false);
+        String contents = solution.getSolutionStatus() + " " + solution.getStepLimit() + " " + solution.getStepCount()
+                + "\n" + (solutionText != null ? solutionText : "");
+
+        try {
+            // Written into a temporary file first so that a concurrent reader never sees a partially written file
+            Path temporaryFile = Files.createTempFile(directory, key.toString(), ".tmp");
+            Files.writeString(temporaryFile, contents, StandardCharsets.UTF_8);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Printer.println("Was unable to write the cached solution " + file + ": " + e.getMessage());
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns a summary of the hits and misses of the cache.
+     *
+     * @return e.g. "3 hits, 1 misses (75% hit rate)"
+     */
+    public String getStatistics() {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+        long hitRate = total == 0 ? 0 : Math.round(100.0 * hitCount / total);
+
+        return hitCount + " hits, " + getMissCount() + " misses (" + hitRate + "% hit rate)";
+    }
+}
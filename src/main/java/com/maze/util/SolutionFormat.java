@@ -0,0 +1,17 @@
+package com.maze.util;
+
+/**
+ * Enum for selecting how the solution of a maze is printed and written into a file.
+ */
+public enum SolutionFormat {
+    /**
+     * The whole maze with the solution path drawn into it (see SolutionWriter.createSolutionAscii). The size of the
+     * output grows with the area of the maze.
+     */
+    GRID,
+    /**
+     * Only the starting coordinates and the run-length encoded Directions of the solution path (see SolutionPath), so
+     * that the size of the output grows with the length of the solution instead of the area of the maze.
+     */
+    PATH
+}
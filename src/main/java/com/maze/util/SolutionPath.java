@@ -0,0 +1,369 @@
+package com.maze.util;
+
+import com.maze.domain.Coordinates;
+import com.maze.domain.Direction;
+import com.maze.domain.Maze;
+import com.maze.domain.SolutionStatus;
+import com.maze.domain.Tile;
+import com.maze.domain.TiledMaze;
+
+import java.io.IOException;
+
+/**
+ * Compact text format of a solution path: the row and the column of the starting position followed by the Directions
+ * of the solution path run-length encoded with their letters, e.g. "1,4 R12D3L4" for 12 steps right, 3 down and 4
+ * left from the starting position at row 1 and column 4. A run of a single step may leave out the count, e.g. "1,4 RDL".
+ *
+ * The path is encoded from and replayed onto the packed cells of a Maze, so that neither depends on the area of the
+ * maze once it has been solved.
+ */
+public class SolutionPath {
+    /**
+     * File ending of solution files written in this format.
+     */
+    public static final String FILE_ENDING = ".path";
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private SolutionPath() {
+        // Empty private constructor for static method class
+    }
+
+    /**
+     * Encodes the solution path of the given solved maze.
+     *
+     * @param maze solved maze, not null
+     * @return the encoded path, e.g. "1,4 R12D3L4"
+     * @throws IllegalArgumentException if the maze has not been solved
+     * @throws IllegalStateException if the solution path marked into the maze does not lead from the start to an exit
+     *                               in the solution step count
+     */
+    public static String encode(Maze maze) {
+        if (maze == null) {
+            throw new NullPointerException("Maze cannot be null");
+        }
+
+        if (maze.getSolutionStatus() != SolutionStatus.SUCCESS) {
+            throw new IllegalArgumentException("Only the path of a solved maze can be encoded");
+        }
+
+        // Only the cells after the start have their Direction marked, so the first step is the one which leads along
+        // the marked path to an exit
+        for (Direction firstDirection : DIRECTIONS) {
+            String encodedPath = tryEncode(maze, firstDirection);
+
+            if (encodedPath != null) {
+                return encodedPath;
+            }
+        }
+
+        throw new IllegalStateException("Solution path of the maze does not lead from the start to an exit");
+    }
+
+    /**
+     * Encodes the solution path of the given maze starting with the given first step.
+     *
+     * @return the encoded path, null if the marked path does not lead to an exit in the solution step count
+     */
+    private static String tryEncode(Maze maze, Direction firstDirection) {
+        int startIndex = maze.getStartIndex();
+        int stepCount = maze.getCurrentStepCount();
+        var encodedPath = new StringBuilder(formatCoordinates(maze, startIndex)).append(' ');
+
+        Direction runDirection = firstDirection;
+        int runLength = 1;
+        int index = getNextIndex(maze, startIndex, firstDirection);
+
+        for (int step = 1; step < stepCount; step++) {
+            Direction direction = index >= 0 ? maze.getDirectionFromSolutionPath(index) : null;
+
+            if (direction == null) {
+                return null;
+            }
+
+            if (direction == runDirection) {
+                runLength++;
+            } else {
+                appendRun(encodedPath, runDirection, runLength);
+                runDirection = direction;
+                runLength = 1;
+            }
+
+            index = getNextIndex(maze, index, direction);
+        }
+
+        if (index < 0 || !maze.isExit(index)) {
+            return null;
+        }
+
+        appendRun(encodedPath, runDirection, runLength);
+
+        return encodedPath.toString();
+    }
+
+    private static void appendRun(StringBuilder encodedPath, Direction direction, int runLength) {
+        encodedPath.append(direction.getLetterChar()).append(runLength);
+    }
+
+    /**
+     * Writes the encoded solution path of the given solved tiled maze into the given output a run at a time, so that
+     * the path of a maze which does not fit in memory does not have to fit in memory as a String either. The path is
+     * in the same format as with encode().
+     *
+     * @param maze solved maze, not null
+     * @param output into which the path is written, not null
+     * @throws IOException if the output could not be written
+     * @throws IllegalArgumentException if the maze has not been solved
+     * @throws IllegalStateException if the solution path marked into the maze does not lead from the start to an exit
+     *                               in the solution step count
+     */
+    public static void write(TiledMaze maze, Appendable output) throws IOException {
+        if (maze == null || output == null) {
+            throw new NullPointerException("Maze and output cannot be null");
+        }
+
+        if (maze.getSolutionStatus() != SolutionStatus.SUCCESS) {
+            throw new IllegalArgumentException("Only the path of a solved maze can be written");
+        }
+
+        int width = maze.getWidth();
+        long stepCount = maze.getCurrentStepCount();
+        long index = maze.getStartIndex();
+        output.append(String.valueOf(index / width)).append(',').append(String.valueOf(index % width)).append(' ');
+
+        // A shortest path never comes back next to the start, so the only marked neighbour of the start (or the exit
+        // next to it) is the first step
+        Direction runDirection = null;
+
+        for (int d = 0; d < DIRECTIONS.length && runDirection == null; d++) {
+            long next = getNextIndex(maze, index, DIRECTIONS[d]);
+
+            if (next >= 0 && (stepCount == 1 ? maze.isExit(next) : maze.getDirectionFromSolutionPath(next) != null)) {
+                runDirection = DIRECTIONS[d];
+            }
+        }
+
+        if (runDirection == null) {
+            throw new IllegalStateException("Solution path of the maze does not lead from the start to an exit");
+        }
+
+        long runLength = 1;
+        index = getNextIndex(maze, index, runDirection);
+
+        for (long step = 1; step < stepCount; step++) {
+            Direction direction = index >= 0 ? maze.getDirectionFromSolutionPath(index) : null;
+
+            if (direction == null) {
+                throw new IllegalStateException("Solution path of the maze ends before the solution step count");
+            }
+
+            if (direction == runDirection) {
+                runLength++;
+            } else {
+                output.append(runDirection.getLetterChar()).append(String.valueOf(runLength));
+                runDirection = direction;
+                runLength = 1;
+            }
+
+            index = getNextIndex(maze, index, direction);
+        }
+
+        if (index < 0 || !maze.isExit(index)) {
+            throw new IllegalStateException("Solution path of the maze does not end at an exit");
+        }
+
+        output.append(runDirection.getLetterChar()).append(String.valueOf(runLength));
+    }
+
+    /**
+     * Marks the given encoded solution path into the given maze as its solution, replacing any earlier progress, so
+     * that the solution can be drawn like if the maze had been solved (e.g. with SolutionWriter). The step limit of
+     * the maze is set to MazeSolver.UNBOUNDED_LIMIT.
+     *
+     * @param maze onto which the path is replayed, not null
+     * @param encodedPath path encoded with encode(), not null
+     * @throws IllegalArgumentException if the path is not in the format of encode(), does not start from the start of
+     *                                  the maze, leaves the maze, goes through a BLOCK, the start or an exit, crosses
+     *                                  itself or does not end at an exit. The progress of the maze is reset.
+     */
+    public static void replay(Maze maze, String encodedPath) {
+        if (maze == null || encodedPath == null) {
+            throw new NullPointerException("Maze and encoded path cannot be null");
+        }
+
+        maze.resetProgress(MazeSolver.UNBOUNDED_LIMIT);
+
+        try {
+            int stepCount = replayMoves(maze, encodedPath.trim());
+            maze.setCurrentStepCount(stepCount);
+            maze.setSolutionStatus(SolutionStatus.SUCCESS);
+        } catch (IllegalArgumentException e) {
+            maze.resetProgress(MazeSolver.UNBOUNDED_LIMIT);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Marks the Directions of the given encoded path into the solution path of the maze.
+     *
+     * @return the amount of steps in the path
+     */
+    private static int replayMoves(Maze maze, String encodedPath) {
+        int separator = encodedPath.indexOf(' ');
+
+        if (separator < 0) {
+            throw new IllegalArgumentException("Solution path must have the starting position and the moves separated "
+                    + "by a space");
+        }
+
+        checkStart(maze, encodedPath.substring(0, separator));
+
+        int index = maze.getStartIndex();
+        int stepCount = 0;
+        int position = separator + 1;
+
+        if (position == encodedPath.length()) {
+            throw new IllegalArgumentException("Solution path must have at least one move");
+        }
+
+        while (position < encodedPath.length()) {
+            Direction direction = parseDirection(encodedPath.charAt(position++));
+            int runEnd = position;
+
+            while (runEnd < encodedPath.length() && Character.isDigit(encodedPath.charAt(runEnd))) {
+                runEnd++;
+            }
+
+            int runLength = runEnd > position ? parseRunLength(encodedPath.substring(position, runEnd), maze) : 1;
+            position = runEnd;
+
+            for (int i = 0; i < runLength; i++) {
+                if (stepCount > 0) {
+                    // Every cell between the start and the exit is marked with the Direction in which it is left
+                    maze.updateSolutionPath(index, direction);
+                }
+
+                index = getNextIndex(maze, index, direction);
+                stepCount++;
+                checkReachedCell(maze, index, position == encodedPath.length() && i == runLength - 1);
+            }
+        }
+
+        return stepCount;
+    }
+
+    private static void checkStart(Maze maze, String start) {
+        String[] rowAndColumn = start.split(",");
+
+        try {
+            if (rowAndColumn.length == 2) {
+                var coordinates = new Coordinates(Integer.parseInt(rowAndColumn[0]), Integer.parseInt(rowAndColumn[1]));
+
+                if (maze.getCoordinatesForIndex(maze.getStartIndex()).equals(coordinates)) {
+                    return;
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+
+        throw new IllegalArgumentException("Solution path must start from the starting position "
+                + formatCoordinates(maze, maze.getStartIndex()) + " of the maze, not from " + start);
+    }
+
+    private static Direction parseDirection(char letter) {
+        for (Direction direction : DIRECTIONS) {
+            if (direction.getLetterChar() == letter) {
+                return direction;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid move '" + letter + "' in the solution path");
+    }
+
+    private static int parseRunLength(String runLength, Maze maze) {
+        try {
+            int length = Integer.parseInt(runLength);
+
+            if (length > 0 && length < maze.getCellCount()) {
+                return length;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+
+        throw new IllegalArgumentException("Invalid run length " + runLength + " in the solution path");
+    }
+
+    /**
+     * Checks that the given cell reached by the path can be stepped on.
+     *
+     * @param maze being replayed
+     * @param index of the reached cell, negative if the path left the maze
+     * @param last true if the cell is the end of the path
+     */
+    private static void checkReachedCell(Maze maze, int index, boolean last) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Solution path leaves the maze");
+        }
+
+        Tile tile = maze.getTile(index);
+        String coordinates = formatCoordinates(maze, index);
+
+        if (last && tile != Tile.EXIT) {
+            throw new IllegalArgumentException("Solution path ends at " + coordinates + " instead of an exit");
+        }
+
+        if (!last && tile != Tile.SPACE) {
+            throw new IllegalArgumentException("Solution path goes through " + tile + " at " + coordinates);
+        }
+
+        if (maze.getDirectionFromSolutionPath(index) != null) {
+            throw new IllegalArgumentException("Solution path crosses itself at " + coordinates);
+        }
+    }
+
+    /**
+     * Returns the row and the column of the cell at the given index as they are written into an encoded path.
+     *
+     * @return e.g. "1,4"
+     */
+    private static String formatCoordinates(Maze maze, int index) {
+        return index / maze.getWidth() + "," + index % maze.getWidth();
+    }
+
+    /**
+     * Returns the index of the cell next to the given cell of the given tiled maze in the given Direction.
+     *
+     * @return the index of the next cell, -1 if the Direction leads out of the maze
+     */
+    private static long getNextIndex(TiledMaze maze, long index, Direction direction) {
+        int width = maze.getWidth();
+        long y = index / width + direction.getYAppend();
+        long x = index % width + direction.getXAppend();
+
+        if (y < 0 || y >= maze.getHeight() || x < 0 || x >= width) {
+            return -1;
+        }
+
+        return y * width + x;
+    }
+
+    /**
+     * Returns the index of the cell next to the given cell in the given Direction.
+     *
+     * @return the index of the next cell, -1 if the Direction leads out of the maze
+     */
+    private static int getNextIndex(Maze maze, int index, Direction direction) {
+        int width = maze.getWidth();
+        int y = index / width + direction.getYAppend();
+        int x = index % width + direction.getXAppend();
+
+        if (y < 0 || y >= maze.getHeight() || x < 0 || x >= width) {
+            return -1;
+        }
+
+        return y * width + x;
+    }
+}
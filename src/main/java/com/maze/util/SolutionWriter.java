@@ -1,16 +1,29 @@
 package com.maze.util;
 
-import com.maze.domain.Coordinates;
 import com.maze.domain.Direction;
 import com.maze.domain.Maze;
 import com.maze.domain.SolutionStatus;
+import com.maze.jfr.SolutionWriteEvent;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 
 public class SolutionWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] NEWLINE = {'\n'};
+
+    // UTF-8 encoded chars of every packed MazeSolution cell, for console (letters) and file (arrows) output
+    private static final byte[][] PRINT_CELL_BYTES = createCellBytes(true);
+    private static final byte[][] FILE_CELL_BYTES = createCellBytes(false);
+
     private SolutionWriter() {
         // Empty private constructor for
     }
@@ -31,11 +44,11 @@ public class SolutionWriter {
             return null;
         }
 
-        var stringBuilder = new StringBuilder();
+        var stringBuilder = new StringBuilder(maze.getHeight() * (maze.getWidth() + 1));
 
         for (int y = 0; y < maze.getHeight(); y++) {
             for (int x = 0; x < maze.getWidth(); x++) {
-                stringBuilder.append(getCharForCoordinates(maze, new Coordinates(y, x), forPrint));
+                stringBuilder.append(getCharForIndex(maze, y * maze.getWidth() + x, forPrint));
             }
 
             if (y < maze.getHeight() - 1) {
@@ -47,26 +60,24 @@ public class SolutionWriter {
     }
 
     /**
-     * Returns an individual char for the given Coordinates to be used in the solution ASCII graphic.
-     * If the given Coordinates are a part of the solution will return a char representing the Direction towards the
-     * exit.
-     * If the given Coordinates are not part of the solution will then return a char representing the Tile found in the
-     * given Maze at the given Coordinates.
+     * Returns an individual char for the cell at the given index to be used in the solution ASCII graphic.
+     * If the cell is a part of the solution will return a char representing the Direction towards the exit.
+     * If the cell is not part of the solution will then return a char representing the Tile of the cell.
      *
      * @param maze Maze from which the solution graphic will be drawn from.
-     * @param coordinates Coordinates which the returned char will represent.
+     * @param index Index of the cell which the returned char will represent.
      * @param forPrint Boolean for determining if the ASCII graphic is created for console (true) or file (false) output.
-     *                 If true then will represent Coordinates with an UTF-8 arrow if they are part of the solution.
-     *                 If false then will represent Coordinates with a single character representing a Direction if they
-     *                 are a part of the solution (e.g. 'U' for up, 'R' for right, etc..).
-     * @return char representing the given Coordinates in the solution ASCII graphic.
+     *                 If true then will represent the cell with an UTF-8 arrow if it is part of the solution.
+     *                 If false then will represent the cell with a single character representing a Direction if it is
+     *                 a part of the solution (e.g. 'U' for up, 'R' for right, etc..).
+     * @return char representing the cell in the solution ASCII graphic.
      */
-    private static char getCharForCoordinates(Maze maze, Coordinates coordinates, boolean forPrint) {
-        Direction direction = maze.getDirectionFromSolutionPath(coordinates);
+    private static char getCharForIndex(Maze maze, int index, boolean forPrint) {
+        Direction direction = maze.getDirectionFromSolutionPath(index);
 
         return direction != null
                 ? getDirectionChar(direction, forPrint)
-                : maze.getTileForCoordinates(coordinates).getChar();
+                : maze.getTile(index).getChar();
     }
 
     /**
@@ -91,20 +102,312 @@ public class SolutionWriter {
      * @throws IOException caused by IOUtil.close
      */
     public static String writeSolutionGraphicIntoTextFile(String solutionGraphic) throws IOException {
-        String filename = "solution-" + getCurrentTimeString() + ".txt";
-        PrintWriter writer =  new PrintWriter(filename, StandardCharsets.UTF_8);
+        return writeSolutionGraphicIntoTextFile(solutionGraphic, "solution-" + getCurrentTimeString() + ".txt");
+    }
+
+    /**
+     * Writes the given encoded solution path (see SolutionPath) into a text file, followed by a newline.
+     * The file name for the solution file will be "solution-{currentTime}.path"
+     * Returns the file name if write operation was successful.
+     *
+     * @param solutionPath encoded solution path to be written to the file.
+     * @return Generated filename for the written file if file writing was successful, null otherwise.
+     * @throws IOException caused by IOUtil.close
+     */
+    public static String writeSolutionPathIntoTextFile(String solutionPath) throws IOException {
+        return writeSolutionGraphicIntoTextFile(solutionPath + "\n",
+                "solution-" + getCurrentTimeString() + SolutionPath.FILE_ENDING);
+    }
+
+    /**
+     * Writes the given solution graphic into a text file with the given name, replacing the file if it exists.
+     * Returns the file name if write operation was successful.
+     *
+     * @param solutionGraphic ASCII graphic to be written to the file.
+     * @param filename Name of (or path to) the file to be written.
+     * @return The given filename if file writing was successful, null otherwise.
+     * @throws IOException caused by IOUtil.close
+     */
+    public static String writeSolutionGraphicIntoTextFile(String solutionGraphic, String filename) throws IOException {
+        var event = new SolutionWriteEvent();
+        event.begin();
+        PrintWriter writer = null;
+        boolean written = false;
 
         try {
             writer = new PrintWriter(filename, StandardCharsets.UTF_8);
             writer.write(solutionGraphic);
-
-            return filename;
+            // PrintWriter does not throw on failed writes, e.g. when the disk is full, but only flags them
+            written = !writer.checkError();
         } catch (IOException e) {
+            written = false;
+        } finally {
+            IOUtil.close(writer);
+            commitWriteEvent(event, filename, written);
+        }
+
+        if (!written) {
             Printer.println("Was unable write the solution to file " + filename);
 
             return null;
+        }
+
+        return filename;
+    }
+
+    /**
+     * Commits the given Flight Recorder event for writing a solution file, if it is enabled.
+     *
+     * @param event started at the beginning of the writing
+     * @param filename of the written file
+     * @param written true if the solution graphic was written into the file
+     */
+    private static void commitWriteEvent(SolutionWriteEvent event, String filename, boolean written) {
+        event.end();
+
+        if (!event.shouldCommit()) {
+            return;
+        }
+
+        event.file = filename;
+        event.written = written;
+
+        try {
+            event.bytesWritten = written ? Files.size(Path.of(filename)) : 0;
+        } catch (IOException e) {
+            event.bytesWritten = -1;
+        }
+
+        event.commit();
+    }
+
+    /**
+     * Writes the solution graphic of the given solution into the console channel for console output and into a new
+     * text file for file output, in a single pass over the rows and without creating the whole graphic at once.
+     * The file name for the solution file will be "solution-{currentTime}".
+     *
+     * @param solution solved solution in the GRID format, not null
+     * @param console channel for the console output (e.g. Printer.getChannel()), null if not printed. The graphic is
+     *                followed by a newline like Printer.println() would, and the channel is not closed.
+     * @return Generated filename for the written file if file writing was successful, null otherwise.
+     * @throws IOException if writing into the console channel failed
+     */
+    public static String writeSolution(MazeSolution solution, WritableByteChannel console) throws IOException {
+        return writeSolution(solution, console, "solution-" + getCurrentTimeString() + ".txt");
+    }
+
+    /**
+     * Writes the solution graphic of the given solution like writeSolution(MazeSolution, WritableByteChannel), into
+     * a text file with the given name, replacing the file if it exists. If the file could not be written, the graphic
+     * is still written into the console channel.
+     *
+     * @param solution solved solution in the GRID format, not null
+     * @param console channel for the console output, null if not printed
+     * @param filename Name of (or path to) the file to be written.
+     * @return The given filename if file writing was successful, null otherwise.
+     * @throws IOException if writing into the console channel failed
+     */
+    public static String writeSolution(MazeSolution solution, WritableByteChannel console, String filename)
+            throws IOException {
+        if (solution == null || filename == null) {
+            throw new NullPointerException("Solution and filename cannot be null");
+        }
+
+        if (solution.getSolutionStatus() != SolutionStatus.SUCCESS
+                || solution.getSolutionFormat() != SolutionFormat.GRID) {
+            throw new IllegalArgumentException("Only a solved solution in the GRID format can be written as a graphic");
+        }
+
+        var event = new SolutionWriteEvent();
+        event.begin();
+        FileChannel file = null;
+        var fileOutput = new ChannelOutput(null, FILE_CELL_BYTES);
+
+        try {
+            file = FileChannel.open(Path.of(filename), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            fileOutput = new ChannelOutput(file, FILE_CELL_BYTES);
+        } catch (IOException | RuntimeException e) {
+            // Reported once the graphic has been written into the console
+        }
+
+        var consoleOutput = new ChannelOutput(console, PRINT_CELL_BYTES);
+
+        try {
+            renderRows(solution, consoleOutput, fileOutput);
         } finally {
-            IOUtil.close(writer);
+            IOUtil.close(file);
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.file = filename;
+                event.written = fileOutput.isWritten();
+                event.bytesWritten = fileOutput.getBytesWritten();
+                event.commit();
+            }
+        }
+
+        if (!fileOutput.isWritten()) {
+            Printer.println("Was unable write the solution to file " + filename);
+        }
+
+        return fileOutput.isWritten() ? filename : null;
+    }
+
+    /**
+     * Writes the solution graphic of the given solution into the given channel in the console format, i.e. with
+     * letters on the solution path so that the graphic is plain ASCII, followed by a newline. Like
+     * writeSolution(MazeSolution, WritableByteChannel), the whole graphic is never created at once.
+     *
+     * @param solution solved solution in the GRID format, not null
+     * @param output channel into which the graphic is written, not null. The channel is not closed.
+     * @return the amount of bytes written
+     * @throws IOException if writing into the channel failed
+     */
+    public static long writeSolutionGraphic(MazeSolution solution, WritableByteChannel output) throws IOException {
+        if (solution == null || output == null) {
+            throw new NullPointerException("Solution and output channel cannot be null");
+        }
+
+        if (solution.getSolutionStatus() != SolutionStatus.SUCCESS
+                || solution.getSolutionFormat() != SolutionFormat.GRID) {
+            throw new IllegalArgumentException("Only a solved solution in the GRID format can be written as a graphic");
+        }
+
+        var channelOutput = new ChannelOutput(output, PRINT_CELL_BYTES);
+        renderRows(solution, channelOutput, new ChannelOutput(null, FILE_CELL_BYTES));
+
+        return channelOutput.getBytesWritten();
+    }
+
+    /**
+     * Renders every row of the solution into both of the outputs.
+     *
+     * @param solution solved solution
+     * @param consoleOutput for console output
+     * @param fileOutput for file output
+     * @throws IOException if writing into the console output failed
+     */
+    private static void renderRows(MazeSolution solution, ChannelOutput consoleOutput, ChannelOutput fileOutput)
+            throws IOException {
+        int width = solution.getWidth();
+
+        for (int y = 0; y < solution.getHeight(); y++) {
+            if (y > 0) {
+                consoleOutput.write(NEWLINE); // No newline for final line
+                fileOutput.tryWrite(NEWLINE);
+            }
+
+            for (int index = y * width; index < (y + 1) * width; index++) {
+                int cell = solution.getCell(index);
+                consoleOutput.writeCell(cell);
+                fileOutput.tryWriteCell(cell);
+            }
+        }
+
+        consoleOutput.write(NEWLINE);
+        consoleOutput.flush();
+        fileOutput.tryFlush();
+    }
+
+    private static byte[][] createCellBytes(boolean forPrint) {
+        byte[][] cellBytes = new byte[MazeSolution.CELL_CODE_COUNT][];
+
+        for (int cell = 0; cell < cellBytes.length; cell++) {
+            if ((cell >>> MazeSolution.DIRECTION_SHIFT) <= Direction.values().length) {
+                cellBytes[cell] = String.valueOf(MazeSolution.getCellChar(cell, forPrint))
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        return cellBytes;
+    }
+
+    /**
+     * Buffered output of a rendered solution graphic into a channel. An output without a channel ignores everything
+     * written into it.
+     */
+    private static class ChannelOutput {
+        private final WritableByteChannel channel;
+        private final byte[][] cellBytes;
+        private final ByteBuffer buffer;
+        private long bytesWritten;
+        private boolean failed;
+
+        ChannelOutput(WritableByteChannel channel, byte[][] cellBytes) {
+            this.channel = channel;
+            this.cellBytes = cellBytes;
+            this.buffer = channel != null ? ByteBuffer.allocate(BUFFER_SIZE) : null;
+        }
+
+        void writeCell(int cell) throws IOException {
+            write(cellBytes[cell]);
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (channel == null) {
+                return;
+            }
+
+            if (buffer.remaining() < bytes.length) {
+                flush();
+            }
+
+            buffer.put(bytes);
+        }
+
+        void flush() throws IOException {
+            if (channel == null) {
+                return;
+            }
+
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+                bytesWritten += channel.write(buffer);
+            }
+
+            buffer.clear();
+        }
+
+        /**
+         * Writes the char of the given cell like writeCell, but stops writing anything after the first failure
+         * instead of throwing it, so that a failing file does not stop the console output.
+         */
+        void tryWriteCell(int cell) {
+            tryWrite(cellBytes[cell]);
+        }
+
+        void tryWrite(byte[] bytes) {
+            if (failed) {
+                return;
+            }
+
+            try {
+                write(bytes);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        void tryFlush() {
+            if (failed) {
+                return;
+            }
+
+            try {
+                flush();
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        boolean isWritten() {
+            return channel != null && !failed;
+        }
+
+        long getBytesWritten() {
+            return bytesWritten;
         }
     }
 
@@ -0,0 +1,261 @@
+package com.maze.util;
+
+import com.maze.domain.SolutionStatus;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measurements of a single attempt to parse, solve and render a maze.
+ *
+ * The search related counters are filled in by MazeSolver and its solving algorithms. The time and the allocated bytes
+ * of each Phase are measured between startPhase() and endPhase(), so that the phases outside of MazeSolver (parsing
+ * and rendering) can be measured by the caller into the same metrics. The phases may be nested, e.g. the path
+ * reconstruction is measured within the solving.
+ *
+ * The allocated bytes are counted for the measuring thread only, so the allocations of the worker threads of the
+ * PARALLEL parser and the PARALLEL_BFS engine are not included. They are -1 if the JVM cannot count allocations.
+ *
+ * A SolveMetrics object is meant to be used by one thread at a time. See SolveStatistics for aggregating the metrics
+ * of many solves.
+ */
+public class SolveMetrics {
+    /**
+     * Part of handling a maze which is timed separately.
+     */
+    public enum Phase {
+        /**
+         * Reading the maze from a file.
+         */
+        PARSE,
+        /**
+         * Searching for the solution, including the path reconstruction.
+         */
+        SOLVE,
+        /**
+         * Marking the found solution path into the maze, which is a part of SOLVE.
+         */
+        PATH_RECONSTRUCTION,
+        /**
+         * Drawing the solution graphic.
+         */
+        RENDER
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = findAllocationCounter();
+
+    private final SolverEngine engine;
+    private SolutionStatus solutionStatus;
+    private int stepCount;
+
+    private long expandedNodes;
+    private int peakFrontierSize;
+    private int limitRestarts;
+
+    private final long[] phaseNanos = new long[PHASES.length];
+    private final long[] phaseAllocatedBytes = new long[PHASES.length];
+    private final long[] phaseStartNanos = new long[PHASES.length];
+    private final long[] phaseStartAllocatedBytes = new long[PHASES.length];
+
+    /**
+     * Creates empty metrics for a solve with the given engine.
+     *
+     * @param engine used for solving the maze, not null
+     */
+    public SolveMetrics(SolverEngine engine) {
+        if (engine == null) {
+            throw new NullPointerException("Solver engine cannot be null");
+        }
+
+        this.engine = engine;
+    }
+
+    /**
+     * Returns the ThreadMXBean of the JVM if it can count the bytes allocated by a thread, enabling the counting if
+     * needed.
+     *
+     * @return the ThreadMXBean, null if allocations cannot be counted
+     */
+    private static com.sun.management.ThreadMXBean findAllocationCounter() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+
+        var allocationCounter = (com.sun.management.ThreadMXBean) threadMXBean;
+
+        try {
+            if (!allocationCounter.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+
+            allocationCounter.setThreadAllocatedMemoryEnabled(true);
+
+            return allocationCounter;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+
+    private static long getAllocatedBytesOfCurrentThread() {
+        return ALLOCATION_COUNTER != null
+                ? ALLOCATION_COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId())
+                : -1;
+    }
+
+    /**
+     * Starts measuring the given phase in the current thread.
+     *
+     * @param phase not null
+     */
+    public void startPhase(Phase phase) {
+        phaseStartAllocatedBytes[phase.ordinal()] = getAllocatedBytesOfCurrentThread();
+        phaseStartNanos[phase.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * Stops measuring the given phase, which has been started with startPhase() in the same thread, and adds the
+     * elapsed time and the allocated bytes to the totals of the phase.
+     *
+     * @param phase not null
+     */
+    public void endPhase(Phase phase) {
+        int i = phase.ordinal();
+        phaseNanos[i] += System.nanoTime() - phaseStartNanos[i];
+
+        if (ALLOCATION_COUNTER != null) {
+            phaseAllocatedBytes[i] += getAllocatedBytesOfCurrentThread() - phaseStartAllocatedBytes[i];
+        }
+    }
+
+    /**
+     * Adds to the amount of cells which have been taken out of the frontier and had their neighbours checked.
+     *
+     * @param count amount of expanded cells
+     */
+    void addExpandedNodes(long count) {
+        expandedNodes += count;
+    }
+
+    /**
+     * Updates the peak frontier size if the given size is larger.
+     *
+     * @param frontierSize amount of cells currently waiting to be expanded
+     */
+    void updatePeakFrontierSize(int frontierSize) {
+        peakFrontierSize = Math.max(peakFrontierSize, frontierSize);
+    }
+
+    void addLimitRestart() {
+        limitRestarts++;
+    }
+
+    void setResult(SolutionStatus solutionStatus, int stepCount) {
+        this.solutionStatus = solutionStatus;
+        this.stepCount = stepCount;
+    }
+
+    public SolverEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the status of the solve.
+     *
+     * @return the status, null if the maze has not been solved yet
+     */
+    public SolutionStatus getSolutionStatus() {
+        return solutionStatus;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Returns the amount of cells which were taken out of the frontier and had their neighbours checked. The original
+     * BFS counts a cell once per parent it was reached from, like it keeps it in its frontier. EXIT_DISTANCE_FIELD
+     * counts the cells on the followed path only, even if it computed the field during the solve.
+     *
+     * @return the amount of expanded cells
+     */
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * Returns the largest amount of cells waiting to be expanded at once, i.e. the largest layer for the breadth-first
+     * searches and the largest open set for A*.
+     *
+     * @return the peak frontier size
+     */
+    public int getPeakFrontierSize() {
+        return peakFrontierSize;
+    }
+
+    /**
+     * Returns how many times the search exceeded a step limit and was continued within the next one.
+     *
+     * @return the amount of limit restarts
+     */
+    public int getLimitRestarts() {
+        return limitRestarts;
+    }
+
+    /**
+     * Returns the total time measured for the given phase.
+     *
+     * @param phase not null
+     * @return the time in nanoseconds, 0 if the phase was not measured
+     */
+    public long getNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Returns the total amount of bytes allocated by the measuring thread during the given phase.
+     *
+     * @param phase not null
+     * @return the allocated bytes, -1 if the JVM cannot count allocations
+     */
+    public long getAllocatedBytes(Phase phase) {
+        return ALLOCATION_COUNTER != null ? phaseAllocatedBytes[phase.ordinal()] : -1;
+    }
+
+    /**
+     * Returns the total amount of bytes allocated by the measuring thread during parsing, solving and rendering.
+     *
+     * @return the allocated bytes, -1 if the JVM cannot count allocations
+     */
+    public long getTotalAllocatedBytes() {
+        if (ALLOCATION_COUNTER == null) {
+            return -1;
+        }
+
+        // The path reconstruction is already included in the solving
+        return phaseAllocatedBytes[Phase.PARSE.ordinal()] + phaseAllocatedBytes[Phase.SOLVE.ordinal()]
+                + phaseAllocatedBytes[Phase.RENDER.ordinal()];
+    }
+
+    /**
+     * Returns a summary of the metrics.
+     *
+     * @return e.g. "A_STAR: 1520 nodes expanded, peak frontier 41, 0 limit restarts; parse 3.1 ms, solve 0.8 ms
+     *         (path 0.1 ms), render 1.2 ms; 2.4 MB allocated"
+     */
+    public String getSummary() {
+        long allocatedBytes = getTotalAllocatedBytes();
+
+        return String.format("%s: %d nodes expanded, peak frontier %d, %d limit restarts; "
+                        + "parse %.1f ms, solve %.1f ms (path %.1f ms), render %.1f ms; %s allocated",
+                engine, expandedNodes, peakFrontierSize, limitRestarts,
+                getNanos(Phase.PARSE) / NANOS_PER_MILLI, getNanos(Phase.SOLVE) / NANOS_PER_MILLI,
+                getNanos(Phase.PATH_RECONSTRUCTION) / NANOS_PER_MILLI, getNanos(Phase.RENDER) / NANOS_PER_MILLI,
+                allocatedBytes >= 0 ? String.format("%.1f MB", allocatedBytes / BYTES_PER_MEGABYTE) : "unknown");
+    }
+}
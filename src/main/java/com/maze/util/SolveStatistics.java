@@ -0,0 +1,146 @@
+package com.maze.util;
+
+import com.maze.domain.SolutionStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregate of the SolveMetrics of many solves, for long-running modes such as the batch mode.
+ *
+ * Besides the totals and averages, the solve times are counted into a LatencyHistogram, from which the percentiles are
+ * estimated.
+ *
+ * All of the methods are safe to call from several threads at once.
+ */
+public class SolveStatistics {
+    private static final SolveMetrics.Phase[] PHASES = SolveMetrics.Phase.values();
+    private static final SolutionStatus[] STATUSES = SolutionStatus.values();
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    private final LongAdder solveCount = new LongAdder();
+    private final LongAdder[] statusCounts = createAdders(STATUSES.length);
+    private final LongAdder expandedNodes = new LongAdder();
+    private final LongAccumulator peakFrontierSize = new LongAccumulator(Math::max, 0);
+    private final LongAdder limitRestarts = new LongAdder();
+    private final LongAdder[] phaseNanos = createAdders(PHASES.length);
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LatencyHistogram solveTimes = new LatencyHistogram();
+
+    private static LongAdder[] createAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+
+    /**
+     * Adds the metrics of a finished solve into the statistics.
+     *
+     * @param metrics not null
+     */
+    public void record(SolveMetrics metrics) {
+        if (metrics == null) {
+            throw new NullPointerException("Solve metrics cannot be null");
+        }
+
+        solveCount.increment();
+
+        if (metrics.getSolutionStatus() != null) {
+            statusCounts[metrics.getSolutionStatus().ordinal()].increment();
+        }
+
+        expandedNodes.add(metrics.getExpandedNodes());
+        peakFrontierSize.accumulate(metrics.getPeakFrontierSize());
+        limitRestarts.add(metrics.getLimitRestarts());
+
+        for (SolveMetrics.Phase phase : PHASES) {
+            phaseNanos[phase.ordinal()].add(metrics.getNanos(phase));
+        }
+
+        allocatedBytes.add(Math.max(0, metrics.getTotalAllocatedBytes()));
+        solveTimes.record(metrics.getNanos(SolveMetrics.Phase.SOLVE));
+    }
+
+    public long getSolveCount() {
+        return solveCount.sum();
+    }
+
+    /**
+     * Returns the amount of solves which ended with the given status.
+     *
+     * @param status not null
+     * @return the amount of solves
+     */
+    public long getSolveCount(SolutionStatus status) {
+        return statusCounts[status.ordinal()].sum();
+    }
+
+    public long getExpandedNodes() {
+        return expandedNodes.sum();
+    }
+
+    /**
+     * Returns the largest peak frontier size of any of the solves.
+     *
+     * @return the largest peak frontier size
+     */
+    public long getPeakFrontierSize() {
+        return peakFrontierSize.get();
+    }
+
+    /**
+     * Returns the total time measured for the given phase over all of the solves.
+     *
+     * @param phase not null
+     * @return the time in nanoseconds
+     */
+    public long getNanos(SolveMetrics.Phase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    /**
+     * Estimates the solve time under which the given fraction of the solves finished.
+     *
+     * @param percentile between 0 and 100
+     * @return upper bound of the solve time in milliseconds, 0 if there have been no solves
+     */
+    public double getSolveMillisPercentile(double percentile) {
+        return solveTimes.getMillisPercentile(percentile);
+    }
+
+    /**
+     * Returns a summary of the statistics.
+     *
+     * @return e.g. "12 solves {SUCCESS=10, FAILURE=2}; 1520 nodes expanded and 0.1 limit restarts on average, largest
+     *         frontier 41; solve time p50 0.5 ms, p90 1.0 ms, p99 1.7 ms, max 1.7 ms; average parse 3.1 ms, render
+     *         1.2 ms; 2.4 MB allocated on average"
+     */
+    public String getSummary() {
+        long count = getSolveCount();
+        double divisor = Math.max(1, count);
+        Map<SolutionStatus, Long> counts = new EnumMap<>(SolutionStatus.class);
+
+        for (SolutionStatus status : STATUSES) {
+            if (getSolveCount(status) > 0) {
+                counts.put(status, getSolveCount(status));
+            }
+        }
+
+        return String.format("%d solves %s; %.0f nodes expanded and %.1f limit restarts on average, largest frontier "
+                        + "%d; solve time p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms; average parse %.1f ms, "
+                        + "render %.1f ms; %.1f MB allocated on average",
+                count, counts, getExpandedNodes() / divisor, limitRestarts.sum() / divisor, getPeakFrontierSize(),
+                getSolveMillisPercentile(50), getSolveMillisPercentile(90), getSolveMillisPercentile(99),
+                solveTimes.getMaxMillis(),
+                getNanos(SolveMetrics.Phase.PARSE) / divisor / NANOS_PER_MILLI,
+                getNanos(SolveMetrics.Phase.RENDER) / divisor / NANOS_PER_MILLI,
+                allocatedBytes.sum() / divisor / BYTES_PER_MEGABYTE);
+    }
+}
@@ -0,0 +1,67 @@
+package com.maze.util;
+
+/**
+ * Enum for selecting which algorithm MazeSolver uses for solving a maze.
+ */
+public enum SolverEngine {
+    /**
+     * The original layer-by-layer breadth-first search working on Coordinates and Pairs.
+     */
+    BFS,
+    /**
+     * Breadth-first search working on primitive cell indexes, producing the same solution as BFS without allocating
+     * objects per cell.
+     */
+    INDEXED_BFS,
+    /**
+     * A* search towards the nearest exit, finding an equally short solution as BFS while checking far fewer cells on
+     * open mazes. Among several equally short solutions a different one than with BFS may be chosen.
+     */
+    A_STAR,
+    /**
+     * Breadth-first search from the start and from all of the exits at the same time until the searches meet, finding
+     * an equally short solution as BFS while checking far fewer cells on large mazes. Among several equally short
+     * solutions a different one than with BFS may be chosen.
+     */
+    BIDIRECTIONAL_BFS,
+    /**
+     * Breadth-first search which expands each layer concurrently on the common ForkJoinPool, finding an equally short
+     * solution as BFS. Among several equally short solutions the chosen one may vary from run to run.
+     */
+    PARALLEL_BFS,
+    /**
+     * Follows the ExitDistanceField of the maze from the start, finding a solution which is equally short as with BFS.
+     * The field is computed with a single breadth-first search from all of the exits on the first solve and cached in
+     * the maze, so solving the same maze again takes time proportional to the length of the solution only.
+     */
+    EXIT_DISTANCE_FIELD,
+    /**
+     * Jump Point Search, i.e. A* which jumps straight over the cells through which a shortest path could only continue
+     * straight and queues only the cells where it may turn. Finds an equally short solution as BFS while queueing far
+     * fewer cells than A* on mazes with large open areas. Among several equally short solutions a different one may be
+     * chosen.
+     */
+    JUMP_POINT_SEARCH,
+    /**
+     * Dijkstra's algorithm on the JunctionGraph of the maze, in which every corridor is a single weighted edge, finding
+     * an equally short solution as BFS in time proportional to the amount of junctions instead of cells. The graph is
+     * computed on the first solve and cached in the maze. Among several equally short solutions a different one may be
+     * chosen.
+     */
+    JUNCTION_GRAPH,
+    /**
+     * HPA* on the ClusterIndex of the maze, i.e. A* on an abstract graph of the entrances between clusters of cells,
+     * refined into cells by searching only the clusters along the found route. The solution may be a few steps longer
+     * than with BFS (but always fits within the same step limit), and the index is computed on the first solve and
+     * cached in the maze (or read from an index file next to the maze file), so further solves of the same maze search
+     * only a small part of it.
+     */
+    HIERARCHICAL,
+    /**
+     * Lifelong Planning A* from the exits, finding an equally short solution as BFS. Solving a maze once searches like
+     * A*, but an IncrementalSolver kept for the maze repairs only the part of its search which changed Tiles affect
+     * when the maze is solved again (see MazeSolver.attemptToSolveMaze(IncrementalSolver, List)). Among several
+     * equally short solutions a different one may be chosen.
+     */
+    INCREMENTAL
+}
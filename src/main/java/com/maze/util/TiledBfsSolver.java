@@ -0,0 +1,163 @@
+package com.maze.util;
+
+import com.maze.domain.Direction;
+import com.maze.domain.SolutionStatus;
+import com.maze.domain.Tile;
+import com.maze.domain.TiledMaze;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Breadth-first search on a TiledMaze, for mazes which do not fit in memory. The Directions from which the cells were
+ * checked are marked into the memory-mapped cells of the maze, and the frontier is kept in a LongSpillQueue which
+ * spills into a temporary file, so the search needs only a fixed amount of memory regardless of the size of the maze.
+ *
+ * Finds an equally short solution as the other breadth-first searches. Every cell is marked as checked when it is first
+ * reached, so among several equally short solutions a different one than with BFS may be chosen.
+ */
+class TiledBfsSolver implements Closeable {
+    // 4 MiB per block of the frontier, of which there are at most two in memory
+    private static final int FRONTIER_BLOCK_SIZE = 1 << 19;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final TiledMaze maze;
+    private final LongSpillQueue frontier;
+    private final int height;
+    private final int width;
+
+    private long expandedCells;
+    private long peakFrontierSize;
+
+    /**
+     * Creates a new solver for the given maze.
+     *
+     * @param maze not null
+     * @param spillDirectory in which the frontier is spilled if it does not fit in memory, not null
+     */
+    TiledBfsSolver(TiledMaze maze, Path spillDirectory) {
+        if (maze == null) {
+            throw new NullPointerException("Solvable maze cannot be null");
+        }
+
+        this.maze = maze;
+        frontier = new LongSpillQueue(spillDirectory, FRONTIER_BLOCK_SIZE);
+        height = maze.getHeight();
+        width = maze.getWidth();
+    }
+
+    /**
+     * Searches for the shortest path from the start to an exit which is at most the given amount of steps long.
+     * The progress of the maze must have been reset beforehand with maze.resetProgress().
+     *
+     * If an exit was found the maze will be marked as solved, the solution path will be saved into the maze and the
+     * current step count of the maze will be set to the length of the solution.
+     *
+     * @param stepLimit maximum length of the solution, MazeSolver.UNBOUNDED_LIMIT for no maximum
+     * @return true if an exit was found within the step limit, false otherwise
+     * @throws IOException if the frontier could not be spilled into or read from its temporary file
+     */
+    boolean solve(int stepLimit) throws IOException {
+        long maxSteps = stepLimit == MazeSolver.UNBOUNDED_LIMIT ? Long.MAX_VALUE : stepLimit;
+        long startIndex = maze.getStartIndex();
+        frontier.clear();
+        maze.tryMarkChecked((int) (startIndex / width), (int) (startIndex % width), null);
+        frontier.addLast(startIndex);
+        long steps = 0;
+        long exitIndex = -1;
+
+        while (exitIndex < 0 && steps < maxSteps && !frontier.isEmpty()) {
+            steps++;
+            long layerSize = frontier.size();
+
+            for (long i = 0; i < layerSize && exitIndex < 0; i++) {
+                exitIndex = expand(frontier.removeFirst());
+            }
+
+            expandedCells += layerSize;
+            peakFrontierSize = Math.max(peakFrontierSize, frontier.size());
+        }
+
+        if (exitIndex < 0) {
+            return false;
+        }
+
+        maze.setSolutionStatus(SolutionStatus.SUCCESS);
+        maze.setCurrentStepCount(steps);
+        markSolution(exitIndex);
+
+        return true;
+    }
+
+    /**
+     * Marks and queues the unchecked walkable cells adjacent to the given cell.
+     *
+     * @return index of an adjacent exit, -1 if there is none
+     */
+    private long expand(long index) throws IOException {
+        int y = (int) (index / width);
+        int x = (int) (index - (long) y * width);
+
+        for (Direction direction : DIRECTIONS) {
+            int neighbourY = y + direction.getYAppend();
+            int neighbourX = x + direction.getXAppend();
+
+            if (neighbourY < 0 || neighbourY >= height || neighbourX < 0 || neighbourX >= width
+                    || !maze.tryMarkChecked(neighbourY, neighbourX, direction)) {
+                continue;
+            }
+
+            long neighbour = (long) neighbourY * width + neighbourX;
+
+            if (maze.getTile(neighbourY, neighbourX) == Tile.EXIT) {
+                return neighbour;
+            }
+
+            frontier.addLast(neighbour);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Marks the solution path into the maze by following the Directions from which the cells were checked backwards
+     * from the given exit to the start. The START and EXIT cells are not part of the marked solution path.
+     */
+    private void markSolution(long exitIndex) {
+        long index = exitIndex;
+        Direction nextDirection = null;
+
+        while (index != maze.getStartIndex()) {
+            if (nextDirection != null) {
+                maze.updateSolutionPath(index, nextDirection);
+            }
+
+            nextDirection = maze.getDirection(index);
+            index -= (long) nextDirection.getYAppend() * width + nextDirection.getXAppend();
+        }
+    }
+
+    /**
+     * Returns the amount of cells which were taken out of the frontier and expanded.
+     *
+     * @return the amount of expanded cells
+     */
+    long getExpandedCells() {
+        return expandedCells;
+    }
+
+    /**
+     * Returns the largest amount of cells in a layer of the search.
+     *
+     * @return the peak frontier size
+     */
+    long getPeakFrontierSize() {
+        return peakFrontierSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        frontier.close();
+    }
+}
@@ -0,0 +1,231 @@
+package com.maze.util;
+
+import com.maze.domain.Tile;
+import com.maze.domain.TiledMaze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * Parses maze text files into TiledMazes, i.e. into memory-mapped tiled maze files, so that mazes larger than the
+ * available memory can be parsed. The text file is memory-mapped and decoded a row at a time straight into the tiles,
+ * so only a single row of the maze is ever on the heap.
+ *
+ * The tiled maze file is kept next to the maze file (or in a given directory) and reused as long as the maze file has
+ * not changed since, so a huge maze is decoded only once.
+ *
+ * Binary maze files are not supported, since their size is limited to what fits in an in-memory Maze anyway.
+ */
+public class TiledMazeParser {
+    private TiledMazeParser() {
+        // Empty private constructor for static method class
+    }
+
+    /**
+     * Returns the path of the tiled maze file of the given maze file in the given directory, e.g. "maze.tiles" for
+     * "maze.txt".
+     *
+     * @param mazeFile path of the maze file, not null
+     * @param directory in which the tiled maze file is kept, null for the directory of the maze file
+     * @return path of the tiled maze file
+     */
+    public static Path getTiledFile(Path mazeFile, Path directory) {
+        String filename = mazeFile.getFileName().toString();
+        int extensionIndex = filename.lastIndexOf('.');
+        String tiledFilename = (extensionIndex > 0 ? filename.substring(0, extensionIndex) : filename)
+                + TiledMaze.FILE_ENDING;
+
+        return directory != null ? directory.resolve(tiledFilename) : mazeFile.resolveSibling(tiledFilename);
+    }
+
+    /**
+     * Opens the tiled maze file of the maze text file found from the given filepath if it has been parsed from the
+     * current version of the file, and otherwise parses the maze text file into a new tiled maze file, replacing the
+     * tiled maze file if it exists.
+     *
+     * @param filepath not null
+     * @param tiledFile path of the tiled maze file, not null
+     * @return TiledMaze of the file found at the given filepath, which has to be closed once no longer needed.
+     *         null if file was not found at given filepath or the file was in invalid syntax.
+     * @throws IOException if the tiled maze file could not be created or mapped
+     */
+    public static TiledMaze parseTiledMaze(String filepath, Path tiledFile) throws IOException {
+        if (filepath == null || tiledFile == null) {
+            throw new NullPointerException("Given filepath and tiled file cannot be null");
+        }
+
+        Path mazeFile = Path.of(filepath);
+        long sourceVersion;
+
+        try {
+            sourceVersion = getSourceVersion(mazeFile);
+        } catch (NoSuchFileException e) {
+            Printer.println("\nDid not manage to find file " + filepath);
+
+            return null;
+        }
+
+        TiledMaze maze = openIfUpToDate(tiledFile, sourceVersion);
+
+        if (maze != null) {
+            return maze;
+        }
+
+        try (FileChannel channel = FileChannel.open(mazeFile)) {
+            return parseTextMaze(channel, tiledFile, sourceVersion);
+        } catch (IllegalArgumentException | IllegalStateException | NoSuchElementException e) {
+            Printer.println("\nThe given file had invalid syntax: " + e.getMessage());
+            Files.deleteIfExists(tiledFile);
+
+            return null;
+        }
+    }
+
+    /**
+     * Returns a version of the given file which changes whenever the file is modified.
+     */
+    private static long getSourceVersion(Path mazeFile) throws IOException {
+        return Files.size(mazeFile) * 31 + Files.getLastModifiedTime(mazeFile).toMillis();
+    }
+
+    /**
+     * Opens the given tiled maze file if it exists and has been parsed from the given version of the maze file.
+     *
+     * @return the opened maze, null if it has to be parsed again
+     */
+    private static TiledMaze openIfUpToDate(Path tiledFile, long sourceVersion) throws IOException {
+        if (!Files.isRegularFile(tiledFile)) {
+            return null;
+        }
+
+        TiledMaze maze;
+
+        try {
+            maze = TiledMaze.open(tiledFile);
+        } catch (IllegalArgumentException e) {
+            return null; // Not a finished tiled maze file, e.g. left over from an interrupted parse
+        }
+
+        if (maze.getSourceVersion() == sourceVersion) {
+            return maze;
+        }
+
+        maze.close();
+
+        return null;
+    }
+
+    /**
+     * Decodes the maze text file of the given channel into a new tiled maze file. The rows are counted first, since the
+     * size of the maze has to be known when the tiled maze file is created.
+     *
+     * @throws IllegalArgumentException if the file is empty, not a maze text file, its rows are not of equal width or
+     *                                  it does not have exactly one START tile
+     */
+    private static TiledMaze parseTextMaze(FileChannel channel, Path tiledFile, long sourceVersion)
+            throws IOException {
+        long size = channel.size();
+
+        if (size == 0) {
+            throw new IllegalArgumentException("Given file cannot be empty");
+        }
+
+        if (BinaryMazeFormat.isBinaryMazeFile(channel)) {
+            throw new IllegalArgumentException("Binary maze files cannot be parsed into a tiled maze, only text files");
+        }
+
+        int width = MazeTextScanner.findFirstLineWidth(channel, size);
+        long height = MazeTextScanner.countRows(channel, 0, size);
+
+        if (width == 0) {
+            throw new IllegalArgumentException(MazeTextScanner.UNEQUAL_ROWS_MESSAGE);
+        }
+
+        if (height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Given file has more than " + Integer.MAX_VALUE + " rows");
+        }
+
+        TiledMaze maze = TiledMaze.create(tiledFile, (int) height, width);
+
+        try {
+            var decoder = new RowDecoder(maze, width);
+
+            for (long windowStart = 0; windowStart < size; windowStart += MazeTextScanner.MAPPED_WINDOW_SIZE) {
+                decoder.decode(channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                        Math.min(MazeTextScanner.MAPPED_WINDOW_SIZE, size - windowStart)));
+            }
+
+            decoder.finish();
+            maze.finishWriting(sourceVersion);
+
+            return maze;
+        } catch (IOException | RuntimeException e) {
+            maze.close();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes the bytes of a maze text file into the rows of a TiledMaze, with the same line break handling and
+     * validation as MazeTextScanner.
+     */
+    private static class RowDecoder {
+        private final TiledMaze maze;
+        private final byte[] row;
+        private int column;
+        private boolean skipLineFeed;
+
+        RowDecoder(TiledMaze maze, int width) {
+            this.maze = maze;
+            row = new byte[width];
+        }
+
+        void decode(ByteBuffer buffer) {
+            for (int i = 0, limit = buffer.limit(); i < limit; i++) {
+                byte b = buffer.get(i);
+                byte code = MazeTextScanner.decodeTile(b);
+
+                if (code != MazeTextScanner.NOT_A_TILE) {
+                    if (column == row.length) {
+                        throw new IllegalArgumentException(MazeTextScanner.UNEQUAL_ROWS_MESSAGE);
+                    }
+
+                    row[column++] = code;
+                    skipLineFeed = false;
+                } else if (b == '\n') {
+                    if (!skipLineFeed) {
+                        endRow();
+                    }
+
+                    skipLineFeed = false;
+                } else if (b == '\r') {
+                    endRow();
+                    skipLineFeed = true; // '\n' right after '\r' belongs to the same line break
+                } else {
+                    Tile.parseTile((char) (b & 0xFF)); // Throws an exception describing the invalid character
+                }
+            }
+        }
+
+        void finish() {
+            if (column > 0) {
+                endRow();
+            }
+        }
+
+        private void endRow() {
+            if (column != row.length) {
+                throw new IllegalArgumentException(MazeTextScanner.UNEQUAL_ROWS_MESSAGE);
+            }
+
+            maze.writeRow(row);
+            column = 0;
+        }
+    }
+}